@@ -3,11 +3,11 @@ package com.mike.leadfarmfinder.bootstrap;
 import com.mike.leadfarmfinder.config.OutreachProperties;
 import com.mike.leadfarmfinder.entity.FarmLead;
 import com.mike.leadfarmfinder.repository.FarmLeadRepository;
-import com.mike.leadfarmfinder.service.OutreachService;
+import com.mike.leadfarmfinder.service.outreach.EmailType;
+import com.mike.leadfarmfinder.service.outreach.OutreachDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -21,7 +21,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class FollowUpCronJob {
 
     private final FarmLeadRepository farmLeadRepository;
-    private final OutreachService outreachService;
+    private final OutreachDispatcher outreachDispatcher;
     private final OutreachProperties outreachProperties;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
@@ -51,49 +51,42 @@ public class FollowUpCronJob {
             LocalDateTime start = LocalDateTime.now();
             log.info("FollowUpCronJob: started batch run at {}, batchSize={}, cutoff={}", start, batchSize, cutoff);
 
-            Pageable pageable = PageRequest.of(0, batchSize);
-
-            List<FarmLead> leads = farmLeadRepository
-                    .findByActiveTrueAndBounceFalseAndFirstEmailSentAtIsNotNullAndLastEmailSentAtBeforeOrderByLastEmailSentAtAsc(cutoff, pageable);
-
-            if (leads.isEmpty()) {
-                log.info("FollowUpCronJob: no eligible leads for follow-up (cutoff={})", cutoff);
-                return;
-            }
-
-            log.info("FollowUpCronJob: processing {} leads (limit={})", leads.size(), batchSize);
+            int pageSize = Math.max(1, Math.min(batchSize, outreachProperties.getCandidatePageSize()));
 
+            int processed = 0;
             int successCount = 0;
             int errorCount = 0;
 
-            long delayMs = outreachProperties.getDelayBetweenEmailsMillis();
-
-            for (int i = 0; i < leads.size(); i++) {
-                FarmLead lead = leads.get(i);
+            // keyset po (lastEmailSentAt, id) — bez OFFSET; wysłany follow-up przesuwa lastEmailSentAt za cutoff
+            LocalDateTime afterLastEmailSentAt = FarmLeadRepository.KEYSET_START;
+            long afterId = 0L;
 
-                try {
-                    outreachService.sendFollowUpEmail(lead);
-                    successCount++;
-                } catch (Exception e) {
-                    errorCount++;
-                    log.warn("FollowUpCronJob: error while sending follow-up to leadId={}, email={}: {}",
-                            lead.getId(), lead.getEmail(), e.getMessage());
+            while (processed < batchSize && !Thread.currentThread().isInterrupted()) {
+                List<FarmLead> leads = farmLeadRepository.findFollowUpCandidatesAfter(
+                        cutoff, afterLastEmailSentAt, afterId, Limit.of(Math.min(pageSize, batchSize - processed)));
+                if (leads.isEmpty()) {
+                    break;
                 }
 
-                boolean isLast = (i == leads.size() - 1);
-                if (delayMs > 0 && !isLast) {
-                    try {
-                        Thread.sleep(delayMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.warn("FollowUpCronJob: interrupted during delay, stopping batch");
-                        break;
-                    }
-                }
+                log.info("FollowUpCronJob: processing {} leads (limit={})", leads.size(), batchSize);
+
+                FarmLead last = leads.get(leads.size() - 1);
+                afterLastEmailSentAt = last.getLastEmailSentAt();
+                afterId = last.getId();
+                processed += leads.size();
+
+                OutreachDispatcher.DispatchResult result = outreachDispatcher.dispatch(leads, EmailType.FOLLOW_UP);
+                successCount += result.succeeded();
+                errorCount += result.failed();
+            }
+
+            if (processed == 0) {
+                log.info("FollowUpCronJob: no eligible leads for follow-up (cutoff={})", cutoff);
+                return;
             }
 
             log.info("FollowUpCronJob: finished at {}, processed={}, success={}, errors={}",
-                    LocalDateTime.now(), leads.size(), successCount, errorCount);
+                    LocalDateTime.now(), processed, successCount, errorCount);
 
         } finally {
             running.set(false);
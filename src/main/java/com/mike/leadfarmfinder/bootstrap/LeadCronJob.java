@@ -1,7 +1,6 @@
 package com.mike.leadfarmfinder.bootstrap;
 
-import com.mike.leadfarmfinder.service.DiscoveryService;
-import com.mike.leadfarmfinder.service.FarmScraperService;
+import com.mike.leadfarmfinder.service.LeadScrapePipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,15 +8,13 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class LeadCronJob {
 
-    private final DiscoveryService discoveryService;
-    private final FarmScraperService farmScraperService;
+    private final LeadScrapePipeline leadScrapePipeline;
 
     @Value("${leadcron.enabled:true}")
     private boolean cronEnabled;
@@ -25,6 +22,12 @@ public class LeadCronJob {
     @Value("${leadcron.max-urls-per-run:100}")
     private int maxUrlsPerRun;
 
+    @Value("${leadcron.scraper-workers:4}")
+    private int scraperWorkers;
+
+    @Value("${leadcron.queue-capacity:20}")
+    private int queueCapacity;
+
     @Scheduled(fixedDelayString = "${leadcron.interval-millis:600000}")
     public void runLeadDiscoveryJob() {
 
@@ -34,40 +37,19 @@ public class LeadCronJob {
         }
 
         LocalDateTime start = LocalDateTime.now();
-        log.info("LeadCronJob: started at {}", start);
+        log.info("LeadCronJob: started at {} (maxUrlsPerRun={}, scraperWorkers={}, queueCapacity={})",
+                start, maxUrlsPerRun, scraperWorkers, queueCapacity);
 
-        List<String> candidateFarmUrls;
-        try {
-            candidateFarmUrls = discoveryService.findCandidateFarmUrls(maxUrlsPerRun);
-        } catch (Exception e) {
-            log.warn("LeadCronJob: discoveryService.findCandidateFarmUrls failed: {}", e.getMessage(), e);
-            return;
-        }
+        LeadScrapePipeline.RunSummary summary =
+                leadScrapePipeline.run(maxUrlsPerRun, scraperWorkers, queueCapacity);
 
-        if (candidateFarmUrls.isEmpty()) {
-            log.info("LeadCronJob: no candidate farm URLs found (maxUrlsPerRun={})", maxUrlsPerRun);
+        if (summary.urlsDiscovered() == 0) {
+            log.info("LeadCronJob: no candidate farm URLs found (maxUrlsPerRun={}, discoveryFailed={})",
+                    maxUrlsPerRun, summary.discoveryFailed());
             return;
         }
 
-        log.info("LeadCronJob: {} candidate URLs returned (limit={})",
-                candidateFarmUrls.size(), maxUrlsPerRun);
-
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (String url : candidateFarmUrls) {
-            try {
-                log.debug("LeadCronJob: scraping URL={}", url);
-                farmScraperService.scrapeFarmLeads(url);
-                successCount++;
-            } catch (Exception e) {
-                errorCount++;
-                log.warn("LeadCronJob: error while scraping url={}: {}",
-                        url, e.getMessage());
-            }
-        }
-
-        log.info("LeadCronJob: finished run at {}, scraped OK={}, errors={}",
-                LocalDateTime.now(), successCount, errorCount);
+        log.info("LeadCronJob: finished run at {}, scraped OK={}, errors={} | {}",
+                LocalDateTime.now(), summary.scrapedOk(), summary.scrapeErrors(), summary.toLogLine());
     }
 }
@@ -3,11 +3,11 @@ package com.mike.leadfarmfinder.bootstrap;
 import com.mike.leadfarmfinder.config.OutreachProperties;
 import com.mike.leadfarmfinder.entity.FarmLead;
 import com.mike.leadfarmfinder.repository.FarmLeadRepository;
-import com.mike.leadfarmfinder.service.OutreachService;
+import com.mike.leadfarmfinder.service.outreach.EmailType;
+import com.mike.leadfarmfinder.service.outreach.OutreachDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -21,7 +21,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class OutreachCronJob {
 
     private final FarmLeadRepository farmLeadRepository;
-    private final OutreachService outreachService;
+    private final OutreachDispatcher outreachDispatcher;
     private final OutreachProperties outreachProperties;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
@@ -45,38 +45,41 @@ public class OutreachCronJob {
                 return;
             }
 
-            Pageable pageable = PageRequest.of(0, batchSize);
-            List<FarmLead> leads = farmLeadRepository
-                    .findByActiveTrueAndBounceFalseAndFirstEmailSentAtIsNullOrderByCreatedAtAsc(pageable);
-
-            if (leads.isEmpty()) {
-                log.debug("OutreachCronJob: no new leads to email");
-                return;
-            }
+            int pageSize = Math.max(1, Math.min(batchSize, outreachProperties.getCandidatePageSize()));
 
             LocalDateTime start = LocalDateTime.now();
-            log.info("OutreachCronJob: started. leads={} batchSize={}", leads.size(), batchSize);
+            log.info("OutreachCronJob: started. batchSize={} pageSize={} workers={}",
+                    batchSize, pageSize, outreachProperties.getDispatch().getWorkers());
 
+            int processed = 0;
             int successCount = 0;
             int errorCount = 0;
-            long delayMs = outreachProperties.getDelayBetweenEmailsMillis();
-
-            for (FarmLead lead : leads) {
-                try {
-                    outreachService.sendFirstEmail(lead);
-                    successCount++;
-
-                    if (delayMs > 0 && successCount < leads.size()) {
-                        Thread.sleep(delayMs);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("OutreachCronJob: interrupted during delay");
+
+            // keyset po (createdAt, id): lead z błędem zostaje kandydatem, ale nie wraca w tym samym przebiegu
+            LocalDateTime afterCreatedAt = FarmLeadRepository.KEYSET_START;
+            long afterId = 0L;
+
+            while (processed < batchSize && !Thread.currentThread().isInterrupted()) {
+                List<FarmLead> leads = farmLeadRepository.findFirstEmailCandidatesAfter(
+                        afterCreatedAt, afterId, Limit.of(Math.min(pageSize, batchSize - processed)));
+                if (leads.isEmpty()) {
                     break;
-                } catch (Exception e) {
-                    errorCount++;
-                    log.warn("OutreachCronJob: error sending to leadId={} msg={}", lead.getId(), e.getMessage());
                 }
+
+                FarmLead last = leads.get(leads.size() - 1);
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
+                processed += leads.size();
+
+                // tempo wysyłki pilnuje OutreachRateLimiter (provider + domena), nie sleep między mailami
+                OutreachDispatcher.DispatchResult result = outreachDispatcher.dispatch(leads, EmailType.FIRST);
+                successCount += result.succeeded();
+                errorCount += result.failed();
+            }
+
+            if (processed == 0) {
+                log.debug("OutreachCronJob: no new leads to email");
+                return;
             }
 
             log.info("OutreachCronJob: finished. sent={} errors={} duration={}ms",
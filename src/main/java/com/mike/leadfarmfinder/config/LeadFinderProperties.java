@@ -12,6 +12,11 @@ public class LeadFinderProperties {
     private Discovery discovery = new Discovery();
     private Scraper scraper = new Scraper();
     private QueryCycle queryCycle = new QueryCycle();
+    private ClassificationCache classificationCache = new ClassificationCache();
+    private Http http = new Http();
+    private MxCache mxCache = new MxCache();
+    private SesWebhookLog sesWebhookLog = new SesWebhookLog();
+    private SesEvents sesEvents = new SesEvents();
 
     @Data
     public static class Discovery {
@@ -20,12 +25,19 @@ public class LeadFinderProperties {
         private int defaultMaxSerpPage = 2;
         private int limitPerRun = 100;
         private int queriesPerRun = 1;
+        private int classificationConcurrency = 4;
+        private int classificationMaxPerHost = 1;
         private List<String> queries = List.of();
     }
 
     @Data
     public static class Scraper {
         private long minHoursBetweenScrapes = 12;
+        private int contactFetchConcurrency = 3;
+        private int domainFetchDeadlineSeconds = 30;
+        private int crawlMaxPages = 10;
+        private int crawlTimeBudgetSeconds = 20;
+        private int crawlConcurrency = 3;
     }
 
     @Data
@@ -34,4 +46,58 @@ public class LeadFinderProperties {
         private int scoreThreshold = 40;
         private int testLimit = 5;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class ClassificationCache {
+        private boolean enabled = true;
+        private int ttlDays = 30;
+        private int maxInMemoryEntries = 5000;
+    }
+
+    @Data
+    public static class Http {
+        private int maxConnectionsPerHost = 4;
+        private long connectTimeoutMillis = 5_000;
+        private int maxBodyBytes = 2 * 1024 * 1024;
+        private boolean pageCacheEnabled = true;
+        private int pageCacheMaxEntries = 500;
+        private long pageCacheMaxBytes = 64L * 1024 * 1024;
+    }
+
+    @Data
+    public static class MxCache {
+        private boolean enabled = true;
+        private int maxEntries = 10_000;
+        private int validTtlMinutes = 24 * 60;
+        private int invalidTtlMinutes = 6 * 60;
+        private int unknownTtlMinutes = 5;
+        private int lookupConcurrency = 8;
+    }
+
+    @Data
+    public static class SesWebhookLog {
+        private boolean enabled = false;
+        // wymagany przy enabled=true: katalog na trwałym wolumenie (nie /tmp na efemerycznym hoście)
+        private String dir;
+        private int segmentBytes = 16 * 1024 * 1024;
+        // limit segmentów czekających na brokera; po przekroczeniu webhook zwraca 500 i SNS ponawia
+        private long maxBytes = 512L * 1024 * 1024;
+        // msync po każdym zapisie: 200 dla SNS dopiero gdy payload jest na dysku
+        private boolean syncEachAppend = true;
+        private int forwardBatchSize = 100;
+        private long confirmTimeoutMs = 5_000;
+        private long maxRetryBackoffMs = 30_000;
+    }
+
+    @Data
+    public static class SesEvents {
+        // co z surowym payloadem SNS trafia do MailEventMessage.rawPayload (i dalej do RabbitMQ)
+        private RawPayloadMode rawPayload = RawPayloadMode.FULL;
+    }
+
+    public enum RawPayloadMode {
+        FULL,
+        GZIP,
+        NONE
+    }
+}
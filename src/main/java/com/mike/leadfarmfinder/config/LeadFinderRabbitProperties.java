@@ -20,4 +20,26 @@ public class LeadFinderRabbitProperties {
 
     private Integer retryTtlMs;
     private Integer maxRetryAttempts;
+
+    // batchowy konsument eventów: do batchSize wiadomości albo batchReceiveTimeoutMs czekania, jeden ack na paczkę
+    private boolean batchListenerEnabled = false;
+    private Integer batchSize = 100;
+    private Long batchReceiveTimeoutMs = 500L;
+
+    // publikacja eventów z potwierdzeniami brokera (publisher-confirm-type=correlated), paczkowana w oknie publishLingerMs
+    private boolean confirmedPublishEnabled = false;
+    private Long publishLingerMs = 5L;
+    private Integer publishMaxBatchSize = 100;
+    private Long publishConfirmTimeoutMs = 5_000L;
+
+    // processed_mail_events: ile dni trzymamy klucze idempotencji (musi przekraczać okno retry/DLQ i ponownych dostaw SNS)
+    private Integer processedEventsRetentionDays = 30;
+
+    // format wiadomości na kolejkach eventów; odczyt zawsze rozpoznaje oba (MailEventMessageConverter)
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    public enum WireFormat {
+        JSON,
+        BINARY
+    }
 }
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @ConfigurationProperties(prefix = "leadfinder.outreach")
 public class OutreachProperties {
@@ -31,6 +34,11 @@ public class OutreachProperties {
      */
     private int maxEmailsPerRun = 20;
 
+    /**
+     * Ile kandydatów pobieramy jednym zapytaniem (keyset) w ramach jednego uruchomienia joba.
+     */
+    private int candidatePageSize = 100;
+
     /**
      * Template treści pierwszego maila.
      * Możesz używać placeholderów typu {{UNSUBSCRIBE_URL}}.
@@ -54,6 +62,16 @@ public class OutreachProperties {
 
     private long delayBetweenEmailsMillis = 0L;
 
+    /**
+     * Równoległa wysyłka batcha z limitami (token bucket) per provider i per domena odbiorcy.
+     */
+    private Dispatch dispatch = new Dispatch();
+
+    /**
+     * Pula połączonych i zalogowanych sesji SMTP (provider smtp) zamiast nowego połączenia per mail.
+     */
+    private SmtpPool smtpPool = new SmtpPool();
+
     public long getDelayBetweenEmailsMillis() {
         return delayBetweenEmailsMillis;
     }
@@ -62,4 +80,32 @@ public class OutreachProperties {
         this.delayBetweenEmailsMillis = delayBetweenEmailsMillis;
     }
 
+    @Data
+    public static class Dispatch {
+        private int workers = 4;
+
+        // ilu odbiorców provider przepuszcza naraz; przy SES to też rozmiar paczki SendBulkEmail (max 50)
+        private int providerBurst = 1;
+
+        // ile maili naraz do jednej domeny z domain-rate-per-second
+        private int domainBurst = 1;
+
+        // maile/s per provider (leadfinder.email.provider); brak wpisu = tempo z delay-between-emails-millis
+        private Map<String, Double> providerRatePerSecond = new HashMap<>();
+
+        // maile/s per domena odbiorcy, np. [t-online.de]: 0.05; brak wpisu = bez limitu domeny
+        private Map<String, Double> domainRatePerSecond = new HashMap<>();
+    }
+
+    @Data
+    public static class SmtpPool {
+        private boolean enabled = false;
+        private int size = 2;
+
+        // po tylu mailach sesja jest zamykana i otwierana od nowa (limity serwera per połączenie)
+        private int maxMessagesPerSession = 100;
+
+        // serwer i tak zrywa bezczynne połączenia; starszej sesji nie sprawdzamy NOOP-em, tylko zamykamy
+        private long maxIdleSeconds = 60;
+    }
 }
@@ -1,11 +1,15 @@
 package com.mike.leadfarmfinder.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessageConverter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -70,14 +74,37 @@ public class RabbitMqConfig {
                 .with(rabbitProperties.getOutreachEventsDlqRoutingKey());
     }
 
+    /**
+     * Jedyny {@link MessageConverter} w kontekście — używa go też auto-konfiguracja fabryk listenerów.
+     */
     @Bean
-    public Jackson2JsonMessageConverter jackson2JsonMessageConverter(ObjectMapper objectMapper) {
-        return new Jackson2JsonMessageConverter(objectMapper);
+    public MessageConverter mailEventMessageConverter(ObjectMapper objectMapper) {
+        return new MailEventMessageConverter(objectMapper, rabbitProperties.getWireFormat());
+    }
+
+    /**
+     * Konsument eventów paczkami: do {@code batch-size} wiadomości albo {@code batch-receive-timeout-ms},
+     * paczka jest ackowana (albo odrzucana) w całości po powrocie z listenera.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "leadfinder.rabbit.batch-listener-enabled", havingValue = "true")
+    public SimpleRabbitListenerContainerFactory outreachEventsBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(rabbitProperties.getBatchSize());
+        factory.setReceiveTimeout(rabbitProperties.getBatchReceiveTimeoutMs());
+        // prefetch mniejszy niż paczka = paczka nigdy się nie zapełni
+        factory.setPrefetchCount(rabbitProperties.getBatchSize());
+        return factory;
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter messageConverter) {
+                                         MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter);
         return rabbitTemplate;
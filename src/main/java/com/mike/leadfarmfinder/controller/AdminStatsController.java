@@ -2,9 +2,14 @@ package com.mike.leadfarmfinder.controller;
 
 import com.mike.leadfarmfinder.entity.DiscoveryRunStats;
 import com.mike.leadfarmfinder.repository.DiscoveryRunStatsRepository;
+import com.mike.leadfarmfinder.service.FarmClassificationCache;
+import com.mike.leadfarmfinder.service.outreach.SmtpTransportPool;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventPublisher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +21,9 @@ import java.util.List;
 public class AdminStatsController {
 
     private final DiscoveryRunStatsRepository discoveryRunStatsRepository;
+    private final FarmClassificationCache farmClassificationCache;
+    private final ObjectProvider<SmtpTransportPool> smtpTransportPool;
+    private final MailEventPublisher mailEventPublisher;
 
     @GetMapping("/api/admin/discovery-runs/latest")
     public List<DiscoveryRunStats> getLatestRuns(
@@ -24,4 +32,20 @@ public class AdminStatsController {
         var pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "startedAt"));
         return discoveryRunStatsRepository.findAll(pageable).getContent();
     }
+
+    @GetMapping("/api/admin/classification-cache/stats")
+    public FarmClassificationCache.Stats getClassificationCacheStats() {
+        return farmClassificationCache.stats();
+    }
+
+    @GetMapping("/api/admin/smtp-pool/stats")
+    public ResponseEntity<SmtpTransportPool.Stats> getSmtpPoolStats() {
+        SmtpTransportPool pool = smtpTransportPool.getIfAvailable();
+        return pool == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(pool.stats());
+    }
+
+    @GetMapping("/api/admin/mail-event-publisher/stats")
+    public MailEventPublisher.Stats getMailEventPublisherStats() {
+        return mailEventPublisher.stats();
+    }
 }
@@ -4,15 +4,19 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mike.leadfarmfinder.service.ses.SesSnsEventProcessor;
+import com.mike.leadfarmfinder.service.ses.SesWebhookLog;
 import com.mike.leadfarmfinder.service.ses.exception.SesEventBadRequestException;
 import com.mike.leadfarmfinder.service.ses.exception.SesEventProcessingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -22,6 +26,7 @@ public class SesSnsWebhookController {
     private final ObjectMapper objectMapper;
     private final SesSnsEventProcessor sesSnsEventProcessor;
     private final RestTemplate restTemplate;
+    private final ObjectProvider<SesWebhookLog> sesWebhookLog;
 
     @PostMapping
     public ResponseEntity<String> handleSnsMessage(
@@ -98,6 +103,17 @@ public class SesSnsWebhookController {
             return ResponseEntity.badRequest().body("Missing SNS Message");
         }
 
+        SesWebhookLog webhookLog = sesWebhookLog.getIfAvailable();
+        if (webhookLog != null) {
+            // publikacja do RabbitMQ w tle (SesWebhookForwarder) — SNS nie czeka na brokera
+            try {
+                webhookLog.append(rawPayload);
+            } catch (IOException e) {
+                throw new SesEventProcessingException("Failed to append SES notification to local log", e);
+            }
+            return ResponseEntity.ok("Notification accepted");
+        }
+
         sesSnsEventProcessor.processSesEvent(message, rawPayload);
         return ResponseEntity.ok("Notification processed");
     }
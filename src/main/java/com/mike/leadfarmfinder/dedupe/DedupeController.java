@@ -1,7 +1,8 @@
 package com.mike.leadfarmfinder.dedupe;
 
 import com.mike.leadfarmfinder.entity.FarmLead;
-import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import com.mike.leadfarmfinder.service.KnownEmailIndex;
+import com.mike.leadfarmfinder.service.LeadIngestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,7 +18,8 @@ import java.util.*;
 @RequiredArgsConstructor
 public class DedupeController {
 
-    private final FarmLeadRepository farmLeadRepository;
+    private final KnownEmailIndex knownEmailIndex;
+    private final LeadIngestionService leadIngestionService;
 
     @PostMapping("/emails")
     public ResponseEntity<List<String>> getNewEmails(@RequestBody List<String> emails) {
@@ -25,11 +27,9 @@ public class DedupeController {
             return ResponseEntity.ok(List.of());
         }
 
-        Set<String> knownEmails = new HashSet<>(farmLeadRepository.findAllEmailsLowercase());
-
         Set<String> batchEmails = new HashSet<>();
 
-        List<String> newEmails = new ArrayList<>();
+        List<FarmLead> candidates = new ArrayList<>();
 
         for (String raw : emails) {
             if (raw == null) continue;
@@ -39,7 +39,7 @@ public class DedupeController {
 
             String emailLower = email.toLowerCase();
 
-            if (knownEmails.contains(emailLower)) {
+            if (knownEmailIndex.contains(emailLower)) {
                 continue;
             }
 
@@ -47,21 +47,21 @@ public class DedupeController {
                 continue;
             }
 
-            FarmLead lead = FarmLead.builder()
+            candidates.add(FarmLead.builder()
                     .email(email)
                     .sourceUrl("MANUAL_IMPORT")
                     .createdAt(LocalDateTime.now())
                     .active(true)
                     .unsubscribeToken(UUID.randomUUID().toString())
-                    .build();
-
-            farmLeadRepository.save(lead);
-
-            knownEmails.add(emailLower);
+                    .build());
             batchEmails.add(emailLower);
-            newEmails.add(email);
         }
 
+        // tylko faktycznie wstawione — adres dodany w międzyczasie przez scraper nie wraca jako nowy
+        List<String> newEmails = leadIngestionService.insertNew(candidates).stream()
+                .map(FarmLead::getEmail)
+                .toList();
+
         return ResponseEntity.ok(newEmails);
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.mike.leadfarmfinder.dto;
+
+public record UrlSnippet(
+        String url,
+        String snippet
+) {
+}
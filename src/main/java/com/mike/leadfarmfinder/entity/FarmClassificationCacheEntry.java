@@ -0,0 +1,58 @@
+package com.mike.leadfarmfinder.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "farm_classification_cache",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_farm_classification_cache_domain_hash",
+                        columnNames = {"domain", "snippet_hash"}
+                )
+        },
+        indexes = {
+                @Index(
+                        name = "idx_farm_classification_cache_expires_at",
+                        columnList = "expires_at"
+                )
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FarmClassificationCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "domain", nullable = false, length = 255)
+    private String domain;
+
+    @Column(name = "snippet_hash", nullable = false, length = 64)
+    private String snippetHash;
+
+    @Column(name = "is_farm", nullable = false)
+    private boolean farm;
+
+    @Column(name = "is_seasonal_jobs", nullable = false)
+    private boolean seasonalJobs;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+
+    @Column(name = "main_contact_url", length = 1000)
+    private String mainContactUrl;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.mike.leadfarmfinder.entity;
 
+import com.mike.leadfarmfinder.service.KnownEmailIndexListener;
 import com.mike.leadfarmfinder.util.TokenGenerator;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "farm_leads")
+@EntityListeners(KnownEmailIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +24,10 @@ public class FarmLead {
     @Column(nullable = false, unique = true, updatable = false)
     private String email;
 
+    // kolumna generowana w DB: lower(split_part(email, '@', 2))
+    @Column(name = "email_domain", insertable = false, updatable = false)
+    private String emailDomain;
+
     private String sourceUrl;
 
     @Column(nullable = false)
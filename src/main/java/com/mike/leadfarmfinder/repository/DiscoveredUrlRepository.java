@@ -2,7 +2,11 @@ package com.mike.leadfarmfinder.repository;
 
 import com.mike.leadfarmfinder.entity.DiscoveredUrl;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DiscoveredUrlRepository extends JpaRepository<DiscoveredUrl, Long> {
@@ -10,4 +14,10 @@ public interface DiscoveredUrlRepository extends JpaRepository<DiscoveredUrl, Lo
     boolean existsByUrl(String url);
     boolean existsByDomain(String domain);
     Optional<DiscoveredUrl> findByUrl(String url);
+
+    @Query("select d.url from DiscoveredUrl d where d.url in :urls")
+    List<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+    @Query("select distinct d.domain from DiscoveredUrl d where d.domain in :domains")
+    List<String> findExistingDomains(@Param("domains") Collection<String> domains);
 }
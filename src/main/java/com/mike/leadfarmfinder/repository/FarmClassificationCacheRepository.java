@@ -0,0 +1,21 @@
+package com.mike.leadfarmfinder.repository;
+
+import com.mike.leadfarmfinder.entity.FarmClassificationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface FarmClassificationCacheRepository extends JpaRepository<FarmClassificationCacheEntry, Long> {
+
+    Optional<FarmClassificationCacheEntry> findByDomainAndSnippetHash(String domain, String snippetHash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from FarmClassificationCacheEntry e where e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,29 +1,73 @@
 package com.mike.leadfarmfinder.repository;
 
 import com.mike.leadfarmfinder.entity.FarmLead;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface FarmLeadRepository extends JpaRepository<FarmLead, Long> {
 
-    boolean existsByEmailIgnoreCase(String email);
+    // lower(...) zamiast pochodnego IgnoreCase (Spring Data generuje upper(...)) — trafia w idx_farm_leads_email_lower
+    @Query("select count(f) > 0 from FarmLead f where lower(f.email) = lower(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
 
-    Optional<FarmLead> findByEmailIgnoreCase(String email);
+    @Query("select f from FarmLead f where lower(f.email) = lower(:email)")
+    Optional<FarmLead> findByEmailIgnoreCase(@Param("email") String email);
 
     Optional<FarmLead> findByUnsubscribeToken(String unsubscribeToken);
 
+    // batch eventów SES: wszystkie leady z paczki jednym zapytaniem (PK + idx_farm_leads_email_lower)
+    @Query("select f from FarmLead f where f.id in :ids or lower(f.email) in :emails")
+    List<FarmLead> findAllByIdInOrEmailLowerIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("emails") Collection<String> emails
+    );
+
     Optional<FarmLead> findFirstByActiveTrueAndBounceFalseAndFirstEmailSentAtIsNullOrderByCreatedAtAsc();
 
-    List<FarmLead> findByActiveTrueAndBounceFalseAndFirstEmailSentAtIsNullOrderByCreatedAtAsc(Pageable pageable);
+    /**
+     * Początek kursora keyset — wcześniejszy niż każdy {@code created_at} / {@code last_email_sent_at}.
+     */
+    LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // keyset po (createdAt, id) — idx_farm_leads_first_email_candidates (częściowy, ten sam predykat), bez OFFSET i sortowania
+    @Query("""
+        select f from FarmLead f
+        where f.active = true
+          and f.bounce = false
+          and f.firstEmailSentAt is null
+          and (f.createdAt, f.id) > (:afterCreatedAt, :afterId)
+        order by f.createdAt asc, f.id asc
+    """)
+    List<FarmLead> findFirstEmailCandidatesAfter(
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
 
-    List<FarmLead> findByActiveTrueAndBounceFalseAndFirstEmailSentAtIsNotNullAndLastEmailSentAtBeforeOrderByLastEmailSentAtAsc(
-            LocalDateTime cutoff, Pageable pageable);
+    // keyset po (lastEmailSentAt, id) — idx_farm_leads_follow_up_candidates
+    @Query("""
+        select f from FarmLead f
+        where f.active = true
+          and f.bounce = false
+          and f.firstEmailSentAt is not null
+          and f.lastEmailSentAt < :cutoff
+          and (f.lastEmailSentAt, f.id) > (:afterLastEmailSentAt, :afterId)
+        order by f.lastEmailSentAt asc, f.id asc
+    """)
+    List<FarmLead> findFollowUpCandidatesAfter(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterLastEmailSentAt") LocalDateTime afterLastEmailSentAt,
+            @Param("afterId") long afterId,
+            Limit limit
+    );
 
     // ✅ NEW (minimal): first email candidates excluding Telekom/t-online
     @Query("""
@@ -31,8 +75,7 @@ public interface FarmLeadRepository extends JpaRepository<FarmLead, Long> {
         where f.active = true
           and f.bounce = false
           and f.firstEmailSentAt is null
-          and lower(f.email) not like concat('%@', :d1)
-          and lower(f.email) not like concat('%@', :d2)
+          and f.emailDomain not in (lower(:d1), lower(:d2))
         order by f.createdAt asc
     """)
     List<FarmLead> findFirstEmailCandidatesExcludingDomains(
@@ -48,8 +91,7 @@ public interface FarmLeadRepository extends JpaRepository<FarmLead, Long> {
           and f.bounce = false
           and f.firstEmailSentAt is not null
           and f.lastEmailSentAt < :cutoff
-          and lower(f.email) not like concat('%@', :d1)
-          and lower(f.email) not like concat('%@', :d2)
+          and f.emailDomain not in (lower(:d1), lower(:d2))
         order by f.lastEmailSentAt asc
     """)
     List<FarmLead> findFollowUpCandidatesExcludingDomains(
@@ -2,6 +2,7 @@ package com.mike.leadfarmfinder.service;
 
 import com.mike.leadfarmfinder.config.LeadFinderProperties;
 import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.dto.UrlSnippet;
 import com.mike.leadfarmfinder.entity.SerpQueryCursor;
 import com.mike.leadfarmfinder.service.discovery.*;
 import lombok.RequiredArgsConstructor;
@@ -12,11 +13,14 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -37,6 +41,7 @@ public class DiscoveryService {
     private final OpenAiFarmClassifier farmClassifier;
     private final LeadFinderProperties leadFinderProperties;
     private final DiscoveryQueryProvider discoveryQueryProvider;
+    private final DiscoveryClassificationStage classificationStage;
 
     private static final List<String> QUERY_NEGATIVE_TOKENS = List.of(
             "-branchenbuch",
@@ -69,6 +74,17 @@ public class DiscoveryService {
     private static final int EXHAUST_AFTER_EMPTY_SERP_PAGES = 1;
 
     public List<String> findCandidateFarmUrls(int limit) {
+        return findCandidateFarmUrls(limit, url -> {
+        });
+    }
+
+    /**
+     * Jak {@link #findCandidateFarmUrls(int)}, ale każdy zaakceptowany URL jest od razu
+     * przekazywany do {@code acceptedUrlListener} (np. kolejki scrapera w LeadCronJob),
+     * zanim discovery skończy cały batch. Listener może dostać duplikaty —
+     * deduplikacja jest po stronie odbiorcy.
+     */
+    public List<String> findCandidateFarmUrls(int limit, Consumer<String> acceptedUrlListener) {
         if (limit <= 0) {
             return List.of();
         }
@@ -92,7 +108,7 @@ public class DiscoveryService {
 
         for (int i = 0; i < queriesPerRun && acceptedAcrossQueries.size() < limit; i++) {
             int remainingLimit = limit - acceptedAcrossQueries.size();
-            List<String> acceptedForQuery = findCandidateFarmUrlsForSingleQuery(remainingLimit, queries);
+            List<String> acceptedForQuery = findCandidateFarmUrlsForSingleQuery(remainingLimit, queries, acceptedUrlListener);
             if (!acceptedForQuery.isEmpty()) {
                 acceptedAcrossQueries.addAll(acceptedForQuery);
             }
@@ -116,7 +132,9 @@ public class DiscoveryService {
         return distinctAccepted;
     }
 
-    private List<String> findCandidateFarmUrlsForSingleQuery(int limit, List<String> queries) {
+    private List<String> findCandidateFarmUrlsForSingleQuery(int limit,
+                                                            List<String> queries,
+                                                            Consumer<String> acceptedUrlListener) {
         int alreadySeenSkipped = 0;
         int normalizedChanged = 0;
         int openAiCandidates = 0;
@@ -245,14 +263,9 @@ public class DiscoveryService {
                     scored.isEmpty() ? "none" : (scored.get(0).url() + " score=" + scored.get(0).score())
             );
 
-            for (ScoredUrl scoredUrl : scored) {
-                if (accepted.size() >= limit) {
-                    break;
-                }
-                ScoredUrlProcessingOutcome outcome = processScoredUrl(scoredUrl, accepted);
-                rejectedCount += outcome.rejectedDelta();
-                errorsCount += outcome.errorsDelta();
-            }
+            ScoredUrlProcessingOutcome pageOutcome = processScoredUrls(scored, accepted, limit, acceptedUrlListener);
+            rejectedCount += pageOutcome.rejectedDelta();
+            errorsCount += pageOutcome.errorsDelta();
 
             currentPage = queryScheduler.advancePageOrExhaust(currentPage, maxPage);
             if (currentPage > maxPage) {
@@ -443,43 +456,70 @@ public class DiscoveryService {
     ) {
     }
 
+    private record PageCandidate(String normalized, String normalizedDomain, boolean normalizedChanged,
+                                 boolean duplicateUrlOnPage, boolean duplicateDomainOnPage) {
+    }
+
     private NewUrlSelectionOutcome selectNewUrlsForClassification(List<String> cleaned, int acceptedSize, int limit) {
-        List<String> newUrlsOnly = new ArrayList<>();
+        List<PageCandidate> pageCandidates = new ArrayList<>();
+        Map<String, String> domainByNormalizedUrl = new LinkedHashMap<>();
         Set<String> normalizedSeenThisPage = new HashSet<>();
         Set<String> domainsSeenThisPage = new HashSet<>();
 
+        for (String url : cleaned) {
+            String normalized = urlNormalizer.normalizeUrl(url);
+            boolean normalizedChanged = !normalized.equals(url);
+
+            if (!normalizedSeenThisPage.add(normalized)) {
+                pageCandidates.add(new PageCandidate(normalized, null, normalizedChanged, true, false));
+                continue;
+            }
+
+            String normalizedDomain = urlNormalizer.extractNormalizedDomain(normalized);
+
+            if (normalizedDomain != null && !normalizedDomain.isBlank()
+                    && !domainsSeenThisPage.add(normalizedDomain)) {
+                pageCandidates.add(new PageCandidate(normalized, normalizedDomain, normalizedChanged, false, true));
+                continue;
+            }
+
+            pageCandidates.add(new PageCandidate(normalized, normalizedDomain, normalizedChanged, false, false));
+            domainByNormalizedUrl.put(normalized, normalizedDomain);
+        }
+
+        Map<String, DiscoveryDuplicateChecker.SeenDecision> seenDecisions =
+                duplicateChecker.checkAlreadySeenBatch(domainByNormalizedUrl);
+
+        List<String> newUrlsOnly = new ArrayList<>();
+
         int normalizedChangedDelta = 0;
         int filteredAlreadyDiscoveredDelta = 0;
         int alreadySeenSkippedDelta = 0;
         int rejectedDelta = 0;
 
-        for (String url : cleaned) {
+        for (PageCandidate candidate : pageCandidates) {
             if (acceptedSize + newUrlsOnly.size() >= limit) {
                 break;
             }
 
-            String normalized = urlNormalizer.normalizeUrl(url);
-
-            if (!normalized.equals(url)) {
+            if (candidate.normalizedChanged()) {
                 normalizedChangedDelta++;
             }
 
-            if (!normalizedSeenThisPage.add(normalized)) {
+            if (candidate.duplicateUrlOnPage()) {
                 continue;
             }
 
-            String normalizedDomain = urlNormalizer.extractNormalizedDomain(normalized);
-
-            if (normalizedDomain != null && !normalizedDomain.isBlank()) {
-                if (!domainsSeenThisPage.add(normalizedDomain)) {
-                    filteredAlreadyDiscoveredDelta++;
-                    alreadySeenSkippedDelta++;
-                    continue;
-                }
+            if (candidate.duplicateDomainOnPage()) {
+                filteredAlreadyDiscoveredDelta++;
+                alreadySeenSkippedDelta++;
+                continue;
             }
 
-            DiscoveryDuplicateChecker.SeenDecision seenDecision =
-                    duplicateChecker.checkAlreadySeen(normalized, normalizedDomain);
+            DiscoveryDuplicateChecker.SeenDecision seenDecision = seenDecisions.getOrDefault(
+                    candidate.normalized(),
+                    DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN
+            );
 
             if (seenDecision != DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN) {
                 filteredAlreadyDiscoveredDelta++;
@@ -487,12 +527,12 @@ public class DiscoveryService {
                 continue;
             }
 
-            if (discoveryUrlFilter.isHardNegativePath(normalized)) {
+            if (discoveryUrlFilter.isHardNegativePath(candidate.normalized())) {
                 rejectedDelta++;
                 continue;
             }
 
-            newUrlsOnly.add(normalized);
+            newUrlsOnly.add(candidate.normalized());
         }
 
         return new NewUrlSelectionOutcome(
@@ -533,7 +573,98 @@ public class DiscoveryService {
     private record ScoredUrlProcessingOutcome(int rejectedDelta, int errorsDelta) {
     }
 
-    private ScoredUrlProcessingOutcome processScoredUrl(ScoredUrl scoredUrl, List<String> accepted) {
+    private enum EvaluationKind {
+        SNIPPET_READY,
+        CLASSIFIED,
+        RECOVERED,
+        EMPTY_SNIPPET,
+        ERROR
+    }
+
+    private record ScoredUrlEvaluation(
+            ScoredUrl scoredUrl,
+            EvaluationKind kind,
+            String snippet,
+            FarmClassificationResult result,
+            int recoveredLeads
+    ) {
+        static ScoredUrlEvaluation snippetReady(ScoredUrl scoredUrl, String snippet) {
+            return new ScoredUrlEvaluation(scoredUrl, EvaluationKind.SNIPPET_READY, snippet, null, 0);
+        }
+
+        static ScoredUrlEvaluation classified(ScoredUrl scoredUrl, FarmClassificationResult result) {
+            return new ScoredUrlEvaluation(scoredUrl, EvaluationKind.CLASSIFIED, null, result, 0);
+        }
+
+        static ScoredUrlEvaluation recovered(ScoredUrl scoredUrl, int recoveredLeads) {
+            return new ScoredUrlEvaluation(scoredUrl, EvaluationKind.RECOVERED, null, null, recoveredLeads);
+        }
+
+        static ScoredUrlEvaluation emptySnippet(ScoredUrl scoredUrl) {
+            return new ScoredUrlEvaluation(scoredUrl, EvaluationKind.EMPTY_SNIPPET, null, null, 0);
+        }
+
+        static ScoredUrlEvaluation error(ScoredUrl scoredUrl) {
+            return new ScoredUrlEvaluation(scoredUrl, EvaluationKind.ERROR, null, null, 0);
+        }
+    }
+
+    /**
+     * Snippet fetch idzie równolegle (DiscoveryClassificationStage), gotowe snippety z fali
+     * trafiają do klasyfikatora jednym wywołaniem batch, a zapis i akceptacja — sekwencyjnie, w kolejności score.
+     * Fale mają rozmiar pozostałego limitu, więc nie klasyfikujemy więcej URL-i,
+     * niż sekwencyjna wersja mogłaby zaakceptować.
+     */
+    private ScoredUrlProcessingOutcome processScoredUrls(List<ScoredUrl> scored,
+                                                         List<String> accepted,
+                                                         int limit,
+                                                         Consumer<String> acceptedUrlListener) {
+        int rejectedDelta = 0;
+        int errorsDelta = 0;
+        int nextIndex = 0;
+
+        while (nextIndex < scored.size() && accepted.size() < limit) {
+            int waveSize = Math.min(scored.size() - nextIndex, limit - accepted.size());
+            List<ScoredUrl> wave = scored.subList(nextIndex, nextIndex + waveSize);
+            nextIndex += waveSize;
+
+            List<ScoredUrlEvaluation> evaluations = classifyPrepared(classificationStage.processAll(
+                    wave,
+                    ScoredUrl::url,
+                    this::prepareScoredUrl,
+                    ScoredUrlEvaluation::error
+            ));
+
+            for (ScoredUrlEvaluation evaluation : evaluations) {
+                if (accepted.size() >= limit) {
+                    break;
+                }
+                int acceptedBefore = accepted.size();
+                ScoredUrlProcessingOutcome outcome = applyEvaluation(evaluation, accepted);
+                rejectedDelta += outcome.rejectedDelta();
+                errorsDelta += outcome.errorsDelta();
+
+                publishAccepted(accepted.subList(acceptedBefore, accepted.size()), acceptedUrlListener);
+            }
+        }
+
+        return new ScoredUrlProcessingOutcome(rejectedDelta, errorsDelta);
+    }
+
+    private void publishAccepted(List<String> newlyAccepted, Consumer<String> acceptedUrlListener) {
+        for (String url : newlyAccepted) {
+            if (url == null || url.isBlank()) {
+                continue;
+            }
+            try {
+                acceptedUrlListener.accept(url.trim());
+            } catch (Exception e) {
+                log.warn("DiscoveryService: accepted url listener failed url={} msg={}", url, e.getMessage());
+            }
+        }
+    }
+
+    private ScoredUrlEvaluation prepareScoredUrl(ScoredUrl scoredUrl) {
         String url = scoredUrl.url();
         try {
             String snippet = snippetFetcher.fetchTextSnippet(url);
@@ -543,12 +674,7 @@ public class DiscoveryService {
                     var recoveredLeads = farmScraperService.scrapeFarmLeads(url);
 
                     if (recoveredLeads != null && !recoveredLeads.isEmpty()) {
-                        accepted.add(url);
-                        log.info(
-                                "DiscoveryService: RECOVERED via direct scrape url={} score={} leads={}",
-                                url, scoredUrl.score(), recoveredLeads.size()
-                        );
-                        return new ScoredUrlProcessingOutcome(0, 0);
+                        return ScoredUrlEvaluation.recovered(scoredUrl, recoveredLeads.size());
                     }
 
                     log.debug(
@@ -556,25 +682,85 @@ public class DiscoveryService {
                             url, scoredUrl.score()
                     );
                 }
-
-                log.debug(
-                        "DiscoveryService: SKIP empty/blank snippet url={} score={}",
-                        url, scoredUrl.score()
-                );
-                return new ScoredUrlProcessingOutcome(1, 0);
+                return ScoredUrlEvaluation.emptySnippet(scoredUrl);
             }
 
-            FarmClassificationResult result = farmClassifier.classifyFarm(url, snippet);
-            discoveredUrlWriter.save(url, result);
-            return handleClassificationResult(scoredUrl, result, accepted);
+            return ScoredUrlEvaluation.snippetReady(scoredUrl, snippet);
 
         } catch (Exception e) {
             log.warn(
                     "DiscoveryService: error processing url={} score={} msg={}",
                     url, scoredUrl.score(), e.getMessage()
             );
-            return new ScoredUrlProcessingOutcome(0, 1);
+            return ScoredUrlEvaluation.error(scoredUrl);
+        }
+    }
+
+    private List<ScoredUrlEvaluation> classifyPrepared(List<ScoredUrlEvaluation> prepared) {
+        List<ScoredUrlEvaluation> ready = prepared.stream()
+                .filter(e -> e.kind() == EvaluationKind.SNIPPET_READY)
+                .toList();
+        if (ready.isEmpty()) {
+            return prepared;
         }
+
+        List<FarmClassificationResult> results;
+        try {
+            if (ready.size() == 1) {
+                ScoredUrlEvaluation only = ready.get(0);
+                results = List.of(farmClassifier.classifyFarm(only.scoredUrl().url(), only.snippet()));
+            } else {
+                results = farmClassifier.classifyFarms(ready.stream()
+                        .map(e -> new UrlSnippet(e.scoredUrl().url(), e.snippet()))
+                        .toList());
+            }
+        } catch (Exception e) {
+            log.warn("DiscoveryService: classification failed for {} urls msg={}", ready.size(), e.getMessage());
+            results = List.of();
+        }
+
+        List<ScoredUrlEvaluation> evaluations = new ArrayList<>(prepared.size());
+        int readyIndex = 0;
+        for (ScoredUrlEvaluation evaluation : prepared) {
+            if (evaluation.kind() != EvaluationKind.SNIPPET_READY) {
+                evaluations.add(evaluation);
+                continue;
+            }
+            FarmClassificationResult result = readyIndex < results.size() ? results.get(readyIndex) : null;
+            readyIndex++;
+            evaluations.add(result == null
+                    ? ScoredUrlEvaluation.error(evaluation.scoredUrl())
+                    : ScoredUrlEvaluation.classified(evaluation.scoredUrl(), result));
+        }
+        return evaluations;
+    }
+
+    private ScoredUrlProcessingOutcome applyEvaluation(ScoredUrlEvaluation evaluation, List<String> accepted) {
+        ScoredUrl scoredUrl = evaluation.scoredUrl();
+        String url = scoredUrl.url();
+
+        return switch (evaluation.kind()) {
+            case RECOVERED -> {
+                accepted.add(url);
+                log.info(
+                        "DiscoveryService: RECOVERED via direct scrape url={} score={} leads={}",
+                        url, scoredUrl.score(), evaluation.recoveredLeads()
+                );
+                yield new ScoredUrlProcessingOutcome(0, 0);
+            }
+            case EMPTY_SNIPPET -> {
+                log.debug(
+                        "DiscoveryService: SKIP empty/blank snippet url={} score={}",
+                        url, scoredUrl.score()
+                );
+                yield new ScoredUrlProcessingOutcome(1, 0);
+            }
+            case SNIPPET_READY, ERROR -> new ScoredUrlProcessingOutcome(0, 1);
+            case CLASSIFIED -> {
+                discoveredUrlWriter.save(url, evaluation.result());
+                yield handleClassificationResult(scoredUrl, evaluation.result(), accepted);
+            }
+        };
     }
 
     private boolean shouldTryDirectScrape(String url, int score) {
@@ -1,71 +1,141 @@
 package com.mike.leadfarmfinder.service;
 
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.*;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Crawler stron kontaktowych w obrębie domeny — BFS poziomami.
+ * <p>
+ * Strony jednego poziomu pobierane są równolegle ({@code leadfinder.scraper.crawl-concurrency}),
+ * linki do następnego poziomu sortowane wg priorytetu (impressum &gt; kontakt &gt; contact).
+ * Budżety: liczba stron ({@code crawl-max-pages}) i czas całego crawla ({@code crawl-time-budget-seconds}).
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DomainCrawler {
 
-    private static final String USER_AGENT =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
-                    "AppleWebKit/537.36 (KHTML, like Gecko) " +
-                    "Chrome/129.0.0.0 Safari/537.36";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
 
-    private static final String REFERRER = "https://www.google.com";
+    private final PageFetcher pageFetcher;
+    private final LeadFinderProperties leadFinderProperties;
 
     public Set<String> crawlContacts(String startUrl, int maxDepth) {
-        Set<String> visited = new HashSet<>();
         Set<String> result = new LinkedHashSet<>();
+
+        String startKey = normalizeUrlForVisited(startUrl);
+        if (maxDepth < 0 || startKey == null) {
+            return result;
+        }
+
+        LeadFinderProperties.Scraper config = leadFinderProperties.getScraper();
+        int maxPages = Math.max(1, config.getCrawlMaxPages());
+        long deadlineNanos = System.nanoTime()
+                + Duration.ofSeconds(Math.max(1, config.getCrawlTimeBudgetSeconds())).toNanos();
+
+        Set<String> visited = new HashSet<>();
+        visited.add(startKey);
+        result.add(startUrl);
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, config.getCrawlConcurrency()),
+                Thread.ofVirtual().name("domain-crawl-", 0).factory());
         try {
-            crawl(startUrl, maxDepth, visited, result);
-        } catch (IOException e) {
-            log.warn("Failed to crawl domain {}: {}", startUrl, e.toString());
+            List<String> level = List.of(startUrl);
+
+            // na ostatnim poziomie (depthLeft == 0) strony tylko zapisujemy — ich linki i tak nie byłyby użyte
+            for (int depthLeft = maxDepth; depthLeft > 0 && !level.isEmpty(); depthLeft--) {
+                if (System.nanoTime() >= deadlineNanos) {
+                    log.info("DomainCrawler: time budget exhausted for {}, stopping at depthLeft={}", startUrl, depthLeft);
+                    break;
+                }
+
+                List<ContactLink> links = fetchLevel(level, depthLeft, deadlineNanos, executor);
+                links.sort(Comparator.comparingInt(ContactLink::priority).reversed());
+
+                List<String> nextLevel = new ArrayList<>();
+                for (ContactLink link : links) {
+                    if (result.size() >= maxPages) {
+                        log.info("DomainCrawler: page budget {} reached for {}", maxPages, startUrl);
+                        break;
+                    }
+                    String key = normalizeUrlForVisited(link.url());
+                    if (key == null || !visited.add(key)) {
+                        continue;
+                    }
+                    result.add(link.url());
+                    nextLevel.add(link.url());
+                }
+                level = nextLevel;
+            }
+        } finally {
+            executor.shutdownNow();
         }
+
         return result;
     }
 
-    private void crawl(String startUrl,
-                       int maxDepth,
-                       Set<String> visited,
-                       Set<String> result) throws IOException {
-
-        if (maxDepth < 0) return;
-
-        String normalizedVisitedKey = normalizeUrlForVisited(startUrl);
-        if (normalizedVisitedKey == null || visited.contains(normalizedVisitedKey)) {
-            return;
+    /**
+     * Pobiera strony poziomu równolegle, linki zwraca w kolejności stron (sort stabilny zachowa ją przy remisie).
+     */
+    private List<ContactLink> fetchLevel(List<String> level,
+                                         int depthLeft,
+                                         long deadlineNanos,
+                                         ExecutorService executor) {
+        List<Future<List<ContactLink>>> futures = new ArrayList<>(level.size());
+        for (String url : level) {
+            futures.add(executor.submit(() -> fetchContactLinks(url, depthLeft)));
         }
-        visited.add(normalizedVisitedKey);
 
-        result.add(startUrl);
+        List<ContactLink> links = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<ContactLink>> future = futures.get(i);
+            try {
+                links.addAll(future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("DomainCrawler: time budget exceeded while fetching {} (depthLeft={})", level.get(i), depthLeft);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                log.warn("DomainCrawler: failed to crawl {}: {}", level.get(i), e.getCause() == null ? e.toString() : e.getCause().toString());
+            }
+        }
+        return links;
+    }
 
+    private List<ContactLink> fetchContactLinks(String pageUrl, int depthLeft) {
         Document doc;
         try {
-            doc = Jsoup.connect(startUrl)
-                    .userAgent(USER_AGENT)
-                    .referrer(REFERRER)
-                    .timeout(10_000)
-                    .followRedirects(true)
-                    .ignoreHttpErrors(true)
-                    .get();
+            // jak wcześniej ignoreHttpErrors(true): parsujemy także strony 4xx/5xx, pomijamy tylko nie-HTML
+            FetchedPage page = pageFetcher.get(pageUrl, FETCH_TIMEOUT);
+            if (!page.isHtmlLike()) {
+                log.warn("DomainCrawler: skipping non-HTML {} contentType={}", pageUrl, page.contentType());
+                return List.of();
+            }
+            doc = page.document();
         } catch (Exception e) {
-            log.warn("DomainCrawler: failed to fetch {} (depthLeft={}) reason={}", startUrl, maxDepth, e.toString());
-            return;
-        }
-
-        if (maxDepth == 0) {
-            return;
+            log.warn("DomainCrawler: failed to fetch {} (depthLeft={}) reason={}", pageUrl, depthLeft, e.toString());
+            return List.of();
         }
 
+        List<ContactLink> links = new ArrayList<>();
         doc.select("a[href]").forEach(a -> {
             String linkText = safeLower(a.text());
             String href = a.attr("href");
@@ -74,23 +144,22 @@ public class DomainCrawler {
 
             if (absUrl == null || absUrl.isBlank()) return;
 
-            if (!isSameDomain(startUrl, absUrl)) return;
-
-            boolean looksLikeContact = looksLikeContactLink(linkText, hrefLower);
+            if (!isSameDomain(pageUrl, absUrl)) return;
 
-            if (looksLikeContact) {
-                log.info("Contact-like link on {} -> text='{}', href='{}', abs='{}'",
-                        startUrl, linkText, href, absUrl);
-            } else {
-                return;
-            }
+            if (!looksLikeContactLink(linkText, hrefLower)) return;
 
-            try {
-                crawl(absUrl, maxDepth - 1, visited, result);
-            } catch (IOException e) {
-                log.warn("Failed to crawl {}", absUrl, e);
-            }
+            log.info("Contact-like link on {} -> text='{}', href='{}', abs='{}'",
+                    pageUrl, linkText, href, absUrl);
+            links.add(new ContactLink(absUrl, contactPriority(linkText, hrefLower)));
         });
+        return links;
+    }
+
+    // impressum ma adres i e-mail właściciela (obowiązek w DE), potem kontakt
+    private int contactPriority(String linkTextLower, String hrefLower) {
+        if (linkTextLower.contains("impressum") || hrefLower.contains("impressum")) return 3;
+        if (linkTextLower.contains("kontakt") || hrefLower.contains("kontakt")) return 2;
+        return 1;
     }
 
     private boolean looksLikeContactLink(String linkTextLower, String hrefLower) {
@@ -159,4 +228,7 @@ public class DomainCrawler {
         if (url.endsWith("/") && url.length() > 1) return url.substring(0, url.length() - 1);
         return url;
     }
-}
\ No newline at end of file
+
+    private record ContactLink(String url, int priority) {
+    }
+}
@@ -3,21 +3,26 @@ package com.mike.leadfarmfinder.service;
 import com.mike.leadfarmfinder.service.emailextractor.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class EmailExtractor {
 
-    private final TextObfuscationNormalizer obfuscationNormalizer;
-    private final List<EmailSourceExtractor> sources;
+    private final SinglePassEmailScanner emailScanner;
     private final EmailNormalizer emailNormalizer;
     private final EmailValidator emailValidator;
     private final DomainMxVerifier domainMxVerifier;
@@ -26,16 +31,70 @@ public class EmailExtractor {
 
         if (html == null || html.isBlank()) return Set.of();
 
-        String normalizedHtml = obfuscationNormalizer.normalize(html);
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        emailScanner.scan(html, collectValid(candidates));
+        return verifyDomains(candidates);
+    }
+
+    /**
+     * Wariant na sparsowanym DOM — bez serializacji {@code doc.html()}.
+     * <p>
+     * Skanuje węzły tekstowe (zawartość {@code <script>}/{@code <style>} to w Jsoup DataNode, więc jest pomijana),
+     * {@code href="mailto:..."} oraz {@code data-cfemail}. Encje są już zdekodowane przez parser.
+     */
+    public Set<String> extractEmails(Document document) {
+
+        if (document == null) return Set.of();
+
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        Consumer<String> collector = collectValid(candidates);
+
+        NodeTraversor.traverse((node, depth) -> {
+            if (node instanceof TextNode text) {
+                emailScanner.scan(text.getWholeText(), collector);
+            } else if (node instanceof Element element) {
+                String href = element.attr("href");
+                if (href.regionMatches(true, 0, "mailto:", 0, 7)) {
+                    emailScanner.scan(href, collector);
+                }
+                String cfEmail = element.attr("data-cfemail");
+                if (!cfEmail.isEmpty()) {
+                    emailScanner.decodeCloudflare(cfEmail, collector);
+                }
+            }
+        }, document);
+
+        return verifyDomains(candidates);
+    }
 
-        return sources.stream()
-                .flatMap(s -> s.extractCandidates(normalizedHtml).stream())
-                .map(this::toValidEmailOrNull)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+    private Consumer<String> collectValid(Map<String, Candidate> candidates) {
+        return raw -> {
+            Candidate candidate = toCandidateOrNull(raw);
+            if (candidate != null) candidates.putIfAbsent(candidate.email(), candidate);
+        };
     }
 
-    String toValidEmailOrNull(String raw) {
+    /**
+     * MX dopiero po zebraniu wszystkich kandydatów: każda domena raz, wszystkie lookupy naraz (cache w {@code MxVerificationService}).
+     */
+    private Set<String> verifyDomains(Map<String, Candidate> candidates) {
+
+        if (candidates.isEmpty()) return Set.of();
+
+        Map<String, CompletableFuture<Boolean>> allowedByDomain = new HashMap<>();
+        for (Candidate candidate : candidates.values()) {
+            allowedByDomain.computeIfAbsent(candidate.domain(),
+                    domain -> domainMxVerifier.isDomainAllowedAsync(domain, candidate.raw()));
+        }
+
+        Set<String> emails = new LinkedHashSet<>();
+        for (Candidate candidate : candidates.values()) {
+            if (allowedByDomain.get(candidate.domain()).join()) emails.add(candidate.email());
+        }
+        return emails;
+    }
+
+    private Candidate toCandidateOrNull(String raw) {
 
         String emailCandidate = emailNormalizer.normalizeRawCandidate(raw);
         if (emailCandidate == null) return null;
@@ -61,9 +120,10 @@ public class EmailExtractor {
 
         String domain = hostWithoutTld.toLowerCase() + "." + tld;
 
-        if (!domainMxVerifier.isDomainAllowed(domain, raw)) return null;
+        return new Candidate(localPart + "@" + domain, domain, raw);
+    }
 
-        return localPart + "@" + domain;
+    private record Candidate(String email, String domain, String raw) {
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.entity.FarmClassificationCacheEntry;
+import com.mike.leadfarmfinder.repository.FarmClassificationCacheRepository;
+import com.mike.leadfarmfinder.service.discovery.DiscoveryUrlNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache werdyktów klasyfikatora OpenAI: klucz = znormalizowana domena + SHA-256 snippetu.
+ * <p>
+ * Dwa poziomy: ograniczony LRU w pamięci oraz tabela {@code farm_classification_cache} z TTL
+ * ({@code leadfinder.classification-cache.ttl-days}). Ta sama treść strony z innego query,
+ * katalogu albo OSM nie idzie drugi raz do OpenAI.
+ */
+@Service
+@Slf4j
+public class FarmClassificationCache {
+
+    private final FarmClassificationCacheRepository repository;
+    private final DiscoveryUrlNormalizer urlNormalizer;
+    private final LeadFinderProperties leadFinderProperties;
+
+    private final Map<CacheKey, CachedVerdict> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FarmClassificationCache(FarmClassificationCacheRepository repository,
+                                   DiscoveryUrlNormalizer urlNormalizer,
+                                   LeadFinderProperties leadFinderProperties) {
+        this.repository = repository;
+        this.urlNormalizer = urlNormalizer;
+        this.leadFinderProperties = leadFinderProperties;
+
+        int maxEntries = Math.max(1, leadFinderProperties.getClassificationCache().getMaxInMemoryEntries());
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedVerdict> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<FarmClassificationResult> find(String url, String textSnippet) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        CacheKey key = keyOf(url, textSnippet);
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        CachedVerdict inMemory;
+        synchronized (memory) {
+            inMemory = memory.get(key);
+            if (inMemory != null && inMemory.expiresAt().isBefore(now)) {
+                memory.remove(key);
+                inMemory = null;
+            }
+        }
+        if (inMemory != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(inMemory.result());
+        }
+
+        try {
+            Optional<FarmClassificationCacheEntry> stored = repository.findByDomainAndSnippetHash(key.domain(), key.snippetHash())
+                    .filter(e -> e.getExpiresAt().isAfter(now));
+            if (stored.isPresent()) {
+                FarmClassificationCacheEntry entry = stored.get();
+                FarmClassificationResult result = new FarmClassificationResult(
+                        entry.isFarm(), entry.isSeasonalJobs(), entry.getReason(), entry.getMainContactUrl());
+                remember(key, new CachedVerdict(result, entry.getExpiresAt()));
+                dbHits.incrementAndGet();
+                return Optional.of(result);
+            }
+        } catch (Exception e) {
+            log.warn("FarmClassificationCache: lookup failed domain={} msg={}", key.domain(), e.getMessage());
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String url, String textSnippet, FarmClassificationResult result) {
+        if (!isEnabled() || result == null) {
+            return;
+        }
+
+        CacheKey key = keyOf(url, textSnippet);
+        if (key == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusDays(Math.max(1, leadFinderProperties.getClassificationCache().getTtlDays()));
+
+        remember(key, new CachedVerdict(result, expiresAt));
+
+        try {
+            FarmClassificationCacheEntry entry = repository.findByDomainAndSnippetHash(key.domain(), key.snippetHash())
+                    .orElseGet(() -> FarmClassificationCacheEntry.builder()
+                            .domain(key.domain())
+                            .snippetHash(key.snippetHash())
+                            .build());
+            entry.setFarm(result.isFarm());
+            entry.setSeasonalJobs(result.isSeasonalJobs());
+            entry.setReason(truncate(result.reason(), 500));
+            entry.setMainContactUrl(truncate(result.mainContactUrl(), 1000));
+            entry.setCreatedAt(now);
+            entry.setExpiresAt(expiresAt);
+            repository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // równoległa klasyfikacja tej samej treści zapisała wiersz pierwsza — werdykt już jest
+            log.debug("FarmClassificationCache: entry already stored domain={}", key.domain());
+        } catch (Exception e) {
+            log.warn("FarmClassificationCache: failed to store domain={} msg={}", key.domain(), e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${leadfinder.classification-cache.purge-cron:0 15 5 * * *}")
+    public void purgeExpired() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            int removed = repository.deleteExpired(LocalDateTime.now());
+            log.info("FarmClassificationCache: purged {} expired entries", removed);
+        } catch (Exception e) {
+            log.warn("FarmClassificationCache: purge failed: {}", e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        int inMemory;
+        synchronized (memory) {
+            inMemory = memory.size();
+        }
+        return new Stats(memoryHits.get(), dbHits.get(), misses.get(), inMemory);
+    }
+
+    private boolean isEnabled() {
+        return leadFinderProperties.getClassificationCache().isEnabled();
+    }
+
+    private void remember(CacheKey key, CachedVerdict verdict) {
+        synchronized (memory) {
+            memory.put(key, verdict);
+        }
+    }
+
+    private CacheKey keyOf(String url, String textSnippet) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String domain = urlNormalizer.extractNormalizedDomain(url);
+        if (domain == null || domain.isBlank()) {
+            return null;
+        }
+        return new CacheKey(domain, snippetHash(textSnippet));
+    }
+
+    static String snippetHash(String textSnippet) {
+        String normalized = textSnippet == null ? "" : textSnippet.strip().replaceAll("\\s+", " ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+
+    private record CacheKey(String domain, String snippetHash) {
+    }
+
+    private record CachedVerdict(FarmClassificationResult result, LocalDateTime expiresAt) {
+    }
+
+    public record Stats(long memoryHits, long dbHits, long misses, int inMemoryEntries) {
+        public long hits() {
+            return memoryHits + dbHits;
+        }
+
+        public double hitRatio() {
+            long total = hits() + misses;
+            return total == 0 ? 0.0 : (double) hits() / total;
+        }
+    }
+}
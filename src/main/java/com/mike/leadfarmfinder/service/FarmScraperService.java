@@ -3,12 +3,13 @@ package com.mike.leadfarmfinder.service;
 import com.mike.leadfarmfinder.config.LeadFinderProperties;
 import com.mike.leadfarmfinder.entity.FarmLead;
 import com.mike.leadfarmfinder.entity.FarmSource;
-import com.mike.leadfarmfinder.repository.FarmLeadRepository;
 import com.mike.leadfarmfinder.repository.FarmSourceRepository;
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageCache;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import com.mike.leadfarmfinder.util.TokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
 
@@ -16,24 +17,27 @@ import java.net.URI;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FarmScraperService {
 
-    private final FarmLeadRepository repository;
+    private final LeadIngestionService leadIngestionService;
     private final EmailExtractor emailExtractor;
     private final DomainCrawler domainCrawler;
     private final FarmSourceRepository farmSourceRepository;
     private final LeadFinderProperties leadFinderProperties;
+    private final KnownEmailIndex knownEmailIndex;
+    private final PageFetcher pageFetcher;
 
-    private static final String USER_AGENT =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
-                    "AppleWebKit/537.36 (KHTML, like Gecko) " +
-                    "Chrome/129.0.0.0 Safari/537.36";
-
-    private static final String REFERRER = "https://www.google.com";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
 
     // standardowe ścieżki, gdy kontaktUrl jest 404 / crawler nic nie zwróci / wszystko padnie
     private static final List<String> FALLBACK_PATHS = List.of(
@@ -52,6 +56,13 @@ public class FarmScraperService {
     );
 
     public Set<FarmLead> scrapeFarmLeads(String startUrl) {
+        // probe, crawler i fetch e-maili pobierają te same strony (home, /impressum) — jeden cache na scrape
+        try (PageCache.Run ignored = pageFetcher.openRun("scrape")) {
+            return scrape(startUrl);
+        }
+    }
+
+    private Set<FarmLead> scrape(String startUrl) {
 
         // FIX #1: canonical start url (redirect + www/no-www + slash toggle)
         String resolvedStartUrl = resolveWorkingStartUrl(startUrl);
@@ -87,12 +98,10 @@ public class FarmScraperService {
 
         log.info("Urls to scrape for {}: {}", resolvedStartUrl, urlsToScrape);
 
-        Set<String> knownEmails = new HashSet<>(repository.findAllEmailsLowercase());
-
         Set<FarmLead> newFarmLeads = new LinkedHashSet<>();
 
         // FIX #3: najpierw próbujemy crawler URLs; jeśli wszystko padnie -> fallback second pass
-        FetchResult firstPass = fetchAndExtractEmails(urlsToScrape, resolvedStartUrl, knownEmails, newFarmLeads);
+        FetchResult firstPass = fetchAndExtractEmails(urlsToScrape, resolvedStartUrl, newFarmLeads);
 
         // FIX #3: jeśli crawler coś dał, ale wszystkie fetch’e padły (404/timeout) i nie ma leadów -> fallback
         if (!usedFallbackAlready && !firstPass.anyPageFetchedOk() && newFarmLeads.isEmpty()) {
@@ -100,7 +109,7 @@ public class FarmScraperService {
             log.info("FarmScraperService: all initial urls failed for startUrl={} -> trying fallback urls: {}",
                     resolvedStartUrl, fallbackUrls);
 
-            FetchResult secondPass = fetchAndExtractEmails(fallbackUrls, resolvedStartUrl, knownEmails, newFarmLeads);
+            FetchResult secondPass = fetchAndExtractEmails(fallbackUrls, resolvedStartUrl, newFarmLeads);
 
             // scalamy flagi (dla lastScrapedAt)
             firstPass = new FetchResult(
@@ -122,89 +131,136 @@ public class FarmScraperService {
 
     private FetchResult fetchAndExtractEmails(Set<String> urlsToScrape,
                                               String resolvedStartUrl,
-                                              Set<String> knownEmails,
                                               Set<FarmLead> newFarmLeads) {
 
         boolean anyPageFetchedOk = false;
         int emailsFoundThisDomain = 0;
         final int MAX_EMAILS_PER_DOMAIN = 3;
 
-        for (String url : urlsToScrape) {
+        // nowe adresy zbieramy z wszystkich stron i zapisujemy jednym INSERT na końcu
+        Map<String, FarmLead> candidates = new LinkedHashMap<>();
 
-            if (emailsFoundThisDomain >= MAX_EMAILS_PER_DOMAIN) {
-                log.debug("FarmScraperService: max emails per domain reached, stopping (domain={})",
-                        extractBaseDomainFromUrl(resolvedStartUrl));
-                break;
-            }
+        LeadFinderProperties.Scraper scraperConfig = leadFinderProperties.getScraper();
+        long deadlineNanos = System.nanoTime()
+                + Duration.ofSeconds(Math.max(1, scraperConfig.getDomainFetchDeadlineSeconds())).toNanos();
 
-            Document doc;
-            try {
-                doc = Jsoup.connect(url)
-                        .userAgent(USER_AGENT)
-                        .referrer(REFERRER)
-                        .timeout(10_000)
-                        .get();
-
-                anyPageFetchedOk = true;
-
-            } catch (Exception e) {
-                log.warn("Failed to fetch {}, skipping. Reason: {}", url, e.toString());
-                continue;
+        // strony pobierane równolegle (start w kolejności priorytetu), ale przetwarzane w kolejności wejścia,
+        // więc limit MAX_EMAILS_PER_DOMAIN obcina zawsze te same adresy
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, scraperConfig.getContactFetchConcurrency()),
+                Thread.ofVirtual().name("contact-fetch-", 0).factory());
+        try {
+            Map<String, Future<Document>> pages = new LinkedHashMap<>();
+            for (String url : urlsToScrape) {
+                pages.put(url, executor.submit(() -> fetchDocument(url)));
             }
 
-            String html = doc.html();
-
-            Set<String> pageEmails = emailExtractor.extractEmails(html);
-            log.info("Found {} raw emails on {}", pageEmails.size(), url);
+            for (Map.Entry<String, Future<Document>> pageEntry : pages.entrySet()) {
+                String url = pageEntry.getKey();
 
-            if (pageEmails.isEmpty()) {
-                continue;
-            }
-
-            for (String pageEmail : pageEmails) {
                 if (emailsFoundThisDomain >= MAX_EMAILS_PER_DOMAIN) {
-                    log.debug("FarmScraperService: max emails per domain reached mid-page (domain={})",
+                    log.debug("FarmScraperService: max emails per domain reached, stopping (domain={})",
                             extractBaseDomainFromUrl(resolvedStartUrl));
                     break;
                 }
 
-                if (pageEmail == null) continue;
-
-                pageEmail = pageEmail.trim();
-                if (pageEmail.isBlank()) continue;
-
-                if (!isRelevantEmailForDomain(pageEmail, resolvedStartUrl)) {
-                    log.debug("Skipping non-relevant email for domain={}", extractBaseDomainFromUrl(resolvedStartUrl));
+                Document doc = awaitPage(url, pageEntry.getValue(), deadlineNanos);
+                if (doc == null) {
                     continue;
                 }
+                anyPageFetchedOk = true;
 
-                String lower = pageEmail.toLowerCase(Locale.ROOT);
-                if (knownEmails.contains(lower)) {
-                    log.debug("Email already exists for domain={}, skipping", extractBaseDomainFromUrl(resolvedStartUrl));
+                Set<String> pageEmails = emailExtractor.extractEmails(doc);
+                log.info("Found {} raw emails on {}", pageEmails.size(), url);
+
+                if (pageEmails.isEmpty()) {
                     continue;
                 }
 
-                log.info("New farm lead on {} (domain={})", url, extractBaseDomainFromUrl(resolvedStartUrl));
+                for (String pageEmail : pageEmails) {
+                    if (emailsFoundThisDomain >= MAX_EMAILS_PER_DOMAIN) {
+                        log.debug("FarmScraperService: max emails per domain reached mid-page (domain={})",
+                                extractBaseDomainFromUrl(resolvedStartUrl));
+                        break;
+                    }
 
-                FarmLead farmLead = FarmLead.builder()
-                        .email(lower)
-                        .sourceUrl(url)
-                        .createdAt(LocalDateTime.now())
-                        .active(true)
-                        .unsubscribeToken(TokenGenerator.generateShortToken())
-                        .build();
+                    if (pageEmail == null) continue;
 
-                repository.save(farmLead);
+                    pageEmail = pageEmail.trim();
+                    if (pageEmail.isBlank()) continue;
 
-                knownEmails.add(lower);
-                newFarmLeads.add(farmLead);
-                emailsFoundThisDomain++;
+                    if (!isRelevantEmailForDomain(pageEmail, resolvedStartUrl)) {
+                        log.debug("Skipping non-relevant email for domain={}", extractBaseDomainFromUrl(resolvedStartUrl));
+                        continue;
+                    }
+
+                    String lower = pageEmail.toLowerCase(Locale.ROOT);
+                    if (knownEmailIndex.contains(lower) || candidates.containsKey(lower)) {
+                        log.debug("Email already exists for domain={}, skipping", extractBaseDomainFromUrl(resolvedStartUrl));
+                        continue;
+                    }
+
+                    log.info("New farm lead on {} (domain={})", url, extractBaseDomainFromUrl(resolvedStartUrl));
+
+                    candidates.put(lower, FarmLead.builder()
+                            .email(lower)
+                            .sourceUrl(url)
+                            .createdAt(LocalDateTime.now())
+                            .active(true)
+                            .unsubscribeToken(TokenGenerator.generateShortToken())
+                            .build());
+                    emailsFoundThisDomain++;
+                }
             }
+        } finally {
+            // po limicie e-maili albo deadline reszta requestów nie jest potrzebna
+            executor.shutdownNow();
         }
 
+        // lead wstawiony w międzyczasie poza indeksem (inny proces / równoległy scrape) pomija ON CONFLICT
+        newFarmLeads.addAll(leadIngestionService.insertNew(candidates.values()));
+
         return new FetchResult(anyPageFetchedOk);
     }
 
+    /**
+     * @return sparsowana strona albo {@code null}, gdy nie da się jej użyć (status, nie-HTML, wyjątek) — powód jest w logu
+     */
+    private Document fetchDocument(String url) {
+        try {
+            FetchedPage page = pageFetcher.get(url, FETCH_TIMEOUT);
+            if (!page.isSuccess()) {
+                log.warn("Failed to fetch {}, skipping. Reason: HTTP status {}", url, page.status());
+                return null;
+            }
+            if (!page.isHtmlLike()) {
+                log.warn("Failed to fetch {}, skipping. Reason: unsupported content type {}", url, page.contentType());
+                return null;
+            }
+            return page.document();
+        } catch (Exception e) {
+            log.warn("Failed to fetch {}, skipping. Reason: {}", url, e.toString());
+            return null;
+        }
+    }
+
+    private Document awaitPage(String url, Future<Document> page, long deadlineNanos) {
+        try {
+            return page.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            page.cancel(true);
+            log.warn("Failed to fetch {}, skipping. Reason: domain fetch deadline exceeded", url);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            page.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Failed to fetch {}, skipping. Reason: {}", url, e.getCause() == null ? e.toString() : e.getCause().toString());
+            return null;
+        }
+    }
+
     private Set<String> buildFallbackUrls(String startUrl) {
         String root = rootUrl(startUrl);
         if (root == null) return Set.of();
@@ -525,16 +581,10 @@ public class FarmScraperService {
 
     private UrlProbeResult probeUrl(String url) {
         try {
-            var res = Jsoup.connect(url)
-                    .userAgent(USER_AGENT)
-                    .referrer(REFERRER)
-                    .timeout(10_000)
-                    .followRedirects(true)
-                    .ignoreHttpErrors(true)
-                    .execute();
-
-            int status = res.statusCode();
-            String finalUrl = (res.url() != null) ? res.url().toString() : url;
+            FetchedPage res = pageFetcher.get(url, FETCH_TIMEOUT);
+
+            int status = res.status();
+            String finalUrl = (res.finalUrl() != null) ? res.finalUrl() : url;
 
             // 2xx i 3xx traktujemy jako OK
             boolean ok = status >= 200 && status < 400;
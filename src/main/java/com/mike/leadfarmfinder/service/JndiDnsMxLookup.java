@@ -28,12 +28,24 @@ public class JndiDnsMxLookup implements MxLookUp {
             env.put("com.sun.jndi.dns.timeout.retries", "1");
 
             DirContext ctx = new InitialDirContext(env);
-            Attributes attrs = ctx.getAttributes(domain, new String[]{"MX"});
-            Attribute attr = attrs.get("MX");
+            try {
+                Attributes attrs = ctx.getAttributes(domain, new String[]{"MX"});
+                Attribute attr = attrs.get("MX");
 
-            return (attr != null && attr.size() > 0) ? MxStatus.VALID : MxStatus.INVALID;
+                return (attr != null && attr.size() > 0) ? MxStatus.VALID : MxStatus.INVALID;
+            } finally {
+                closeQuietly(ctx);
+            }
         } catch (NamingException e) {
             return MxStatus.UNKNOWN;
         }
     }
+
+    private static void closeQuietly(DirContext ctx) {
+        try {
+            ctx.close();
+        } catch (NamingException e) {
+            log.debug("JndiDnsMxLookup: failed to close DNS context: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Współdzielony, in-memory indeks znanych adresów e-mail z {@code farm_leads}.
+ * <p>
+ * Ładowany raz po starcie aplikacji, potem aktualizowany przy każdym INSERT
+ * (przez {@link KnownEmailIndexListener}, dopiero po commit).
+ * Zastępuje {@code findAllEmailsLowercase()} wołane przy każdej domenie —
+ * sprawdzenie to O(1) bez round-tripu do DB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KnownEmailIndex {
+
+    private final FarmLeadRepository farmLeadRepository;
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmed = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureWarmed();
+    }
+
+    public boolean contains(String email) {
+        String key = normalize(email);
+        if (key == null) {
+            return false;
+        }
+        ensureWarmed();
+        return emails.contains(key);
+    }
+
+    public void register(String email) {
+        String key = normalize(email);
+        if (key != null) {
+            emails.add(key);
+        }
+    }
+
+    public int size() {
+        return emails.size();
+    }
+
+    private void ensureWarmed() {
+        if (warmed) {
+            return;
+        }
+        synchronized (this) {
+            if (warmed) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            List<String> all = farmLeadRepository.findAllEmailsLowercase();
+            all.forEach(this::register);
+            warmed = true;
+            log.info("KnownEmailIndex: warmed with {} emails in {}ms",
+                    emails.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        String trimmed = email.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,36 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.entity.FarmLead;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener na {@link FarmLead}: po INSERT dopisuje e-mail do {@link KnownEmailIndex}.
+ * W transakcji — dopiero po commit, żeby rollback nie zostawił fałszywego trafienia.
+ */
+@Component
+@RequiredArgsConstructor
+public class KnownEmailIndexListener {
+
+    private final KnownEmailIndex knownEmailIndex;
+
+    @PostPersist
+    public void afterInsert(FarmLead lead) {
+        String email = lead.getEmail();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    knownEmailIndex.register(email);
+                }
+            });
+            return;
+        }
+
+        knownEmailIndex.register(email);
+    }
+}
@@ -0,0 +1,155 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.util.TokenGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Wspólna ścieżka zapisu nowych leadów (scraper farm, AJB, import przez {@code /api/dedupe}).
+ * <p>
+ * Cała paczka idzie jednym {@code INSERT ... SELECT FROM unnest(...) ON CONFLICT (email) DO NOTHING RETURNING id, email}:
+ * jeden round-trip zamiast {@code save()} per adres, a duplikat (także wstawiony równolegle przez inny proces)
+ * jest po prostu pomijany przez bazę — bez check-then-insert.
+ * <p>
+ * E-mail zapisujemy jako {@code lower(trim(email))} — tak samo jak porównuje dedupe — żeby {@code ON CONFLICT (email)}
+ * łapał też warianty różniące się wielkością liter. Wiersze idą do {@code unnest} posortowane po e-mailu,
+ * więc równoległe, nakładające się paczki blokują unikalny indeks w tej samej kolejności (bez deadlocku).
+ * <p>
+ * INSERT omija JPA, więc {@link KnownEmailIndexListener} nie zadziała — indeks aktualizujemy tutaj (po commit).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeadIngestionService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO farm_leads (email, source_url, unsubscribe_token, created_at, active, bounce, review_required)
+            SELECT c.email, c.source_url, c.unsubscribe_token, c.created_at, true, false, false
+            FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::timestamp[])
+                 AS c(email, source_url, unsubscribe_token, created_at)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id, email
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KnownEmailIndex knownEmailIndex;
+
+    /**
+     * @param candidates leady zbudowane przez wywołującego (email + sourceUrl; brakujące createdAt/token są uzupełniane)
+     * @return tylko faktycznie wstawione leady (kopie — wejściowe encje nie są modyfikowane), z ustawionym
+     * {@code id}, w kolejności wejścia
+     */
+    public List<FarmLead> insertNew(Collection<FarmLead> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, FarmLead> byEmail = new LinkedHashMap<>();
+        for (FarmLead lead : candidates) {
+            if (lead == null || lead.getEmail() == null || lead.getEmail().isBlank()) continue;
+            String email = lead.getEmail().trim().toLowerCase(Locale.ROOT);
+            byEmail.computeIfAbsent(email, e -> prepare(lead, e));
+        }
+        if (byEmail.isEmpty()) {
+            return List.of();
+        }
+
+        List<FarmLead> sorted = new ArrayList<>(byEmail.values());
+        sorted.sort(Comparator.comparing(FarmLead::getEmail));
+        Map<String, Long> insertedIds = insertBatch(sorted);
+
+        List<FarmLead> inserted = new ArrayList<>(insertedIds.size());
+        for (FarmLead lead : byEmail.values()) {
+            Long id = insertedIds.get(lead.getEmail());
+            if (id != null) {
+                lead.setId(id);
+                inserted.add(lead);
+            }
+        }
+
+        // pominięte przez ON CONFLICT też są w DB — indeks ma je znać
+        registerAfterCommit(byEmail.keySet());
+
+        log.info("LeadIngestionService: batch of {} candidates -> {} new leads, {} already existed",
+                byEmail.size(), inserted.size(), byEmail.size() - inserted.size());
+        return inserted;
+    }
+
+    private Map<String, Long> insertBatch(Collection<FarmLead> leads) {
+        int size = leads.size();
+        String[] emails = new String[size];
+        String[] sourceUrls = new String[size];
+        String[] tokens = new String[size];
+        Timestamp[] createdAts = new Timestamp[size];
+
+        int i = 0;
+        for (FarmLead lead : leads) {
+            emails[i] = lead.getEmail();
+            sourceUrls[i] = lead.getSourceUrl();
+            tokens[i] = lead.getUnsubscribeToken();
+            createdAts[i] = Timestamp.valueOf(lead.getCreatedAt());
+            i++;
+        }
+
+        PreparedStatementSetter arrays = ps -> {
+            Connection con = ps.getConnection();
+            ps.setArray(1, con.createArrayOf("varchar", emails));
+            ps.setArray(2, con.createArrayOf("varchar", sourceUrls));
+            ps.setArray(3, con.createArrayOf("varchar", tokens));
+            ps.setArray(4, con.createArrayOf("timestamp", createdAts));
+        };
+
+        Map<String, Long> ids = new HashMap<>();
+        RowCallbackHandler collectIds = rs -> ids.put(rs.getString("email"), rs.getLong("id"));
+        jdbcTemplate.query(INSERT_SQL, arrays, collectIds);
+        return ids;
+    }
+
+    // kopia z tymi samymi domyślnymi wartościami co FarmLead#prePersist
+    private static FarmLead prepare(FarmLead lead, String email) {
+        String token = lead.getUnsubscribeToken();
+        return FarmLead.builder()
+                .email(email)
+                .sourceUrl(lead.getSourceUrl())
+                .createdAt(lead.getCreatedAt() != null ? lead.getCreatedAt() : LocalDateTime.now())
+                .unsubscribeToken(token == null || token.isBlank() ? TokenGenerator.generateShortToken() : token)
+                .active(true)
+                .bounce(false)
+                .build();
+    }
+
+    private void registerAfterCommit(Collection<String> emails) {
+        List<String> toRegister = List.copyOf(emails);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    toRegister.forEach(knownEmailIndex::register);
+                }
+            });
+            return;
+        }
+
+        toRegister.forEach(knownEmailIndex::register);
+    }
+}
@@ -0,0 +1,224 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.service.http.PageCache;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Discovery i scraping w jednym, potokowym przebiegu.
+ * <p>
+ * Discovery (wątek wywołujący) wrzuca zaakceptowane URL-e do ograniczonej kolejki,
+ * a pula workerów (wirtualne wątki) równolegle woła {@link FarmScraperService#scrapeFarmLeads}.
+ * Pełna kolejka blokuje discovery (backpressure), więc nie wyprzedza scrapera o więcej
+ * niż {@code queueCapacity} URL-i. Cały przebieg dzieli jeden {@link PageCache.Run}, więc strona pobrana
+ * dla snippetu nie jest pobierana drugi raz przez scraper.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeadScrapePipeline {
+
+    private static final QueuedUrl POISON_PILL = new QueuedUrl("", 0L);
+
+    private final DiscoveryService discoveryService;
+    private final FarmScraperService farmScraperService;
+    private final PageFetcher pageFetcher;
+
+    public RunSummary run(int maxUrls, int scraperWorkers, int queueCapacity) {
+        try (PageCache.Run pageRun = pageFetcher.openRun("lead-pipeline")) {
+            return run(maxUrls, scraperWorkers, queueCapacity, pageRun);
+        }
+    }
+
+    private RunSummary run(int maxUrls, int scraperWorkers, int queueCapacity, PageCache.Run pageRun) {
+        int workers = Math.max(1, scraperWorkers);
+        BlockingQueue<QueuedUrl> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        Set<String> published = ConcurrentHashMap.newKeySet();
+
+        AtomicInteger scrapedOk = new AtomicInteger();
+        AtomicInteger scrapeErrors = new AtomicInteger();
+        AtomicInteger leadsFound = new AtomicInteger();
+        AtomicLong scrapeBusyNanos = new AtomicLong();
+        AtomicLong queueWaitNanosTotal = new AtomicLong();
+        AtomicLong queueWaitNanosMax = new AtomicLong();
+        AtomicLong producerBlockedNanos = new AtomicLong();
+
+        long runStart = System.nanoTime();
+
+        List<Thread> workerThreads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            workerThreads.add(Thread.ofVirtual().name("lead-scraper-" + i).start(() -> {
+                while (true) {
+                    QueuedUrl item;
+                    try {
+                        item = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (item == POISON_PILL) {
+                        return;
+                    }
+
+                    long waited = System.nanoTime() - item.enqueuedAtNanos();
+                    queueWaitNanosTotal.addAndGet(waited);
+                    queueWaitNanosMax.accumulateAndGet(waited, Math::max);
+
+                    long scrapeStart = System.nanoTime();
+                    try {
+                        log.debug("LeadScrapePipeline: scraping URL={}", item.url());
+                        Set<?> leads = farmScraperService.scrapeFarmLeads(item.url());
+                        leadsFound.addAndGet(leads == null ? 0 : leads.size());
+                        scrapedOk.incrementAndGet();
+                    } catch (Exception e) {
+                        scrapeErrors.incrementAndGet();
+                        log.warn("LeadScrapePipeline: error while scraping url={}: {}", item.url(), e.getMessage());
+                    } finally {
+                        scrapeBusyNanos.addAndGet(System.nanoTime() - scrapeStart);
+                    }
+                }
+            }));
+        }
+
+        List<String> discovered = List.of();
+        Exception discoveryFailure = null;
+        try {
+            discovered = discoveryService.findCandidateFarmUrls(maxUrls, url -> {
+                if (published.size() >= maxUrls || !published.add(url)) {
+                    return;
+                }
+                long putStart = System.nanoTime();
+                try {
+                    queue.put(new QueuedUrl(url, System.nanoTime()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    published.remove(url);
+                } finally {
+                    producerBlockedNanos.addAndGet(System.nanoTime() - putStart);
+                }
+            });
+        } catch (Exception e) {
+            discoveryFailure = e;
+            log.warn("LeadScrapePipeline: discovery failed: {}", e.getMessage(), e);
+        }
+        long discoveryNanos = System.nanoTime() - runStart;
+
+        // Discovery mogło zwrócić URL-e, których listener nie dostał (np. przy błędzie) — dociągamy je.
+        for (String url : discovered) {
+            if (published.size() >= maxUrls || !published.add(url)) {
+                continue;
+            }
+            try {
+                queue.put(new QueuedUrl(url, System.nanoTime()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        stopWorkers(queue, workerThreads);
+
+        long totalNanos = System.nanoTime() - runStart;
+        int scraped = scrapedOk.get() + scrapeErrors.get();
+        PageCache.Stats pageStats = pageRun.stats();
+
+        return new RunSummary(
+                published.size(),
+                scrapedOk.get(),
+                scrapeErrors.get(),
+                leadsFound.get(),
+                workers,
+                nanosToMillis(discoveryNanos),
+                nanosToMillis(totalNanos),
+                nanosToMillis(scrapeBusyNanos.get()),
+                scraped == 0 ? 0 : nanosToMillis(queueWaitNanosTotal.get() / scraped),
+                nanosToMillis(queueWaitNanosMax.get()),
+                nanosToMillis(producerBlockedNanos.get()),
+                pageStats.requestsSaved(),
+                pageStats.bytesSaved(),
+                discoveryFailure != null
+        );
+    }
+
+    private void stopWorkers(BlockingQueue<QueuedUrl> queue, List<Thread> workerThreads) {
+        try {
+            for (int i = 0; i < workerThreads.size(); i++) {
+                queue.put(POISON_PILL);
+            }
+            for (Thread worker : workerThreads) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("LeadScrapePipeline: interrupted while waiting for scraper workers");
+            workerThreads.forEach(Thread::interrupt);
+        }
+    }
+
+    private static long nanosToMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+
+    private record QueuedUrl(String url, long enqueuedAtNanos) {
+    }
+
+    public record RunSummary(
+            int urlsDiscovered,
+            int scrapedOk,
+            int scrapeErrors,
+            int leadsFound,
+            int scraperWorkers,
+            long discoveryMillis,
+            long totalMillis,
+            long scrapeBusyMillis,
+            long avgQueueWaitMillis,
+            long maxQueueWaitMillis,
+            long discoveryBlockedMillis,
+            long pageRequestsSaved,
+            long pageBytesSaved,
+            boolean discoveryFailed
+    ) {
+        public double discoveryUrlsPerMinute() {
+            return perMinute(urlsDiscovered, discoveryMillis);
+        }
+
+        public double scrapedUrlsPerMinute() {
+            return perMinute(scrapedOk + scrapeErrors, totalMillis);
+        }
+
+        private static double perMinute(int count, long millis) {
+            return millis <= 0 ? 0.0 : count * 60_000.0 / millis;
+        }
+
+        public String toLogLine() {
+            return "discovered=" + urlsDiscovered +
+                    " scrapedOk=" + scrapedOk +
+                    " errors=" + scrapeErrors +
+                    " leads=" + leadsFound +
+                    " workers=" + scraperWorkers +
+                    " discoveryMs=" + discoveryMillis +
+                    " totalMs=" + totalMillis +
+                    " scrapeBusyMs=" + scrapeBusyMillis +
+                    String.format(Locale.ROOT, " discoveryRate=%.1f/min scrapeRate=%.1f/min",
+                            discoveryUrlsPerMinute(), scrapedUrlsPerMinute()) +
+                    " queueWaitAvgMs=" + avgQueueWaitMillis +
+                    " queueWaitMaxMs=" + maxQueueWaitMillis +
+                    " discoveryBlockedMs=" + discoveryBlockedMillis +
+                    " pageRequestsSaved=" + pageRequestsSaved +
+                    " pageBytesSaved=" + pageBytesSaved +
+                    " discoveryFailed=" + discoveryFailed;
+        }
+    }
+}
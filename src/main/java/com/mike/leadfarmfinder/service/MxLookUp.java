@@ -1,7 +1,16 @@
 package com.mike.leadfarmfinder.service;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface MxLookUp {
     enum MxStatus {VALID, INVALID, UNKNOWN}
 
     MxStatus checkDomain(String domain);
+
+    /**
+     * Domyślnie synchronicznie — {@link MxVerificationService} robi lookup w tle z cache.
+     */
+    default CompletableFuture<MxStatus> checkDomainAsync(String domain) {
+        return CompletableFuture.completedFuture(checkDomain(domain));
+    }
 }
@@ -0,0 +1,181 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache przed {@link JndiDnsMxLookup}: te same domeny (gmx.de, web.de, t-online.de) wracają przy prawie każdej farmie.
+ * <p>
+ * Ograniczony LRU z osobnym TTL dla VALID, INVALID (negatywny cache) i UNKNOWN (timeouty — krótko, żeby szybko ponowić).
+ * Równoległe zapytania o tę samą domenę czekają na jeden lookup. {@link #checkDomainAsync(String)} robi DNS
+ * na wirtualnych wątkach, z limitem {@code leadfinder.mx-cache.lookup-concurrency}.
+ */
+@Service
+@Primary
+@Slf4j
+public class MxVerificationService implements MxLookUp {
+
+    private static final ThreadFactory LOOKUP_THREADS = Thread.ofVirtual().name("mx-lookup-", 0).factory();
+
+    private final MxLookUp dnsLookup;
+    private final LeadFinderProperties.MxCache config;
+
+    private final Map<String, CachedStatus> resolved;
+    private final Map<String, CompletableFuture<MxStatus>> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore lookupPermits;
+    private final Executor lookupExecutor = task -> LOOKUP_THREADS.newThread(task).start();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public MxVerificationService(@Qualifier("jndiDnsMxLookup") MxLookUp dnsLookup,
+                                 LeadFinderProperties leadFinderProperties) {
+        this.dnsLookup = dnsLookup;
+        this.config = leadFinderProperties.getMxCache();
+        this.lookupPermits = new Semaphore(Math.max(1, config.getLookupConcurrency()));
+
+        int maxEntries = Math.max(1, config.getMaxEntries());
+        this.resolved = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatus> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public MxStatus checkDomain(String domain) {
+        return checkDomainAsync(domain).join();
+    }
+
+    @Override
+    public CompletableFuture<MxStatus> checkDomainAsync(String domain) {
+        String key = normalize(domain);
+        if (key == null) {
+            return CompletableFuture.completedFuture(MxStatus.UNKNOWN);
+        }
+        if (!config.isEnabled()) {
+            return CompletableFuture.supplyAsync(() -> lookup(key), lookupExecutor);
+        }
+
+        MxStatus cached = cachedStatus(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<MxStatus> created = new CompletableFuture<>();
+        CompletableFuture<MxStatus> pending = inFlight.putIfAbsent(key, created);
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return pending.copy();
+        }
+
+        // lookup mógł się zakończyć między odczytem cache a putIfAbsent
+        cached = cachedStatus(key);
+        if (cached != null) {
+            inFlight.remove(key, created);
+            hits.incrementAndGet();
+            created.complete(cached);
+            return created;
+        }
+
+        misses.incrementAndGet();
+        lookupExecutor.execute(() -> {
+            MxStatus status = lookup(key);
+            remember(key, status);
+            inFlight.remove(key, created);
+            created.complete(status);
+        });
+        return created.copy();
+    }
+
+    public Stats stats() {
+        int entries;
+        synchronized (resolved) {
+            entries = resolved.size();
+        }
+        return new Stats(hits.get(), misses.get(), coalesced.get(), entries);
+    }
+
+    private MxStatus lookup(String domain) {
+        try {
+            lookupPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return MxStatus.UNKNOWN;
+        }
+        try {
+            MxStatus status = dnsLookup.checkDomain(domain);
+            return status == null ? MxStatus.UNKNOWN : status;
+        } catch (RuntimeException e) {
+            log.warn("MxVerificationService: lookup failed domain={} msg={}", domain, e.getMessage());
+            return MxStatus.UNKNOWN;
+        } finally {
+            lookupPermits.release();
+        }
+    }
+
+    private MxStatus cachedStatus(String domain) {
+        long now = System.nanoTime();
+        synchronized (resolved) {
+            CachedStatus entry = resolved.get(domain);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAtNanos() >= 0) {
+                resolved.remove(domain);
+                return null;
+            }
+            return entry.status();
+        }
+    }
+
+    private void remember(String domain, MxStatus status) {
+        int ttlMinutes = switch (status) {
+            case VALID -> config.getValidTtlMinutes();
+            case INVALID -> config.getInvalidTtlMinutes();
+            case UNKNOWN -> config.getUnknownTtlMinutes();
+        };
+        if (ttlMinutes <= 0) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMinutes);
+        synchronized (resolved) {
+            resolved.put(domain, new CachedStatus(status, expiresAt));
+        }
+    }
+
+    private static String normalize(String domain) {
+        if (domain == null || domain.isBlank()) {
+            return null;
+        }
+        String key = domain.strip().toLowerCase(Locale.ROOT);
+        return key.endsWith(".") ? key.substring(0, key.length() - 1) : key;
+    }
+
+    private record CachedStatus(MxStatus status, long expiresAtNanos) {
+    }
+
+    public record Stats(long hits, long misses, long coalesced, int entries) {
+        public double hitRatio() {
+            long total = hits + coalesced + misses;
+            return total == 0 ? 0.0 : (double) (hits + coalesced) / total;
+        }
+    }
+}
@@ -3,205 +3,332 @@ package com.mike.leadfarmfinder.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.dto.UrlSnippet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OpenAiFarmClassifier {
 
-    private final OpenAiService openAiService;
-    private final ObjectMapper objectMapper;
+    private static final String CLASSIFICATION_RULES = """
+            You are a STRICT classifier for a seasonal farm worker lead generation system.
+            
+            INPUT:
+            - url: the URL of a website
+            - page_text: extracted plain text of the page (possibly truncated)
+            
+            OVERALL GOAL:
+            We only want SMALL or MEDIUM-SIZED GERMAN AGRICULTURAL or HORTICULTURAL BUSINESSES
+            that produce plants, crops, flowers, trees, mushrooms, wine, hops, or keep livestock.
+            The main business should be PRODUCTION (growing, cultivating, breeding), not tourism.
+            
+            YOUR TASK:
+            1) Decide if this website represents ONE specific small or medium German
+               agricultural or horticultural production business.
+            2) Decide if this farm offers SEASONAL AGRICULTURAL JOBS
+               (harvesting, planting, greenhouse work, sorting / packing, pruning, etc.).
+            
+            STRICT NEGATIVE RULES (VERY IMPORTANT):
+            - Regional newspapers, news portals, city magazines, lifestyle portals, blogs,
+              tourist organizations, tourism portals and campsites are NOT farms,
+              even if they contain job advertisements for farm work.
+              Examples of NOT-farms:
+              * "Kielerleben" (city/region lifestyle portal)
+              * "Sauerlandkurier" (regional newspaper / portal)
+              * any "Stadtmagazin", "Stadtportal", "Tourismusverband", "Reiseland", etc.
+              In ALL these cases you MUST answer: "is_farm": false.
+            
+            - If the website lists MANY different farms, attractions, companies, events
+              or tourist offers in a region (directories, portals, tourism pages),
+              it is NOT itself a farm business. Answer: "is_farm": false.
+            
+            - If the URL domain is a large job portal, social network or generic platform
+              (for example: indeed.com, stepstone.de, meinestadt.de, facebook.com,
+              instagram.com, linkedin.com, youtube.com, tiktok.com, xing.com, etc.),
+              or any obvious non-farm platform, ALWAYS answer:
+              {
+                "is_farm": false,
+                "is_seasonal_jobs": false,
+                "reason": "job-portal-or-social-network",
+                "main_contact_url": null
+              }
+            
+            ADDITIONAL STRICT RULES – TOURISM / HOLIDAY FARMS:
+            - If the main focus of the website is tourism, holiday stays or accommodation
+              (for example: "Urlaub auf dem Bauernhof", "Ferienhof", "Ferienwohnungen",
+              "Ferienzimmer", "Ferienhaus", "Pension", "Camping", "Glamping", "Wellnesshof",
+              "Bauernhofurlaub") you MUST treat it as NOT a farm for this system.
+              Even if there are some animals or small agricultural activities, if the core business
+              is overnight stays / tourism / holiday apartments, answer:
+              "is_farm": false, "is_seasonal_jobs": false.
+            
+            - Hotels, guesthouses, B&B, wellness & spa resorts are NEVER farms in this context.
+            
+            ADDITIONAL STRICT RULES – INTERMEDIARIES:
+            - If the website is a temporary work agency, staffing company, personnel service,
+              or intermediary that recruits seasonal workers for MANY farms
+              (e.g. "Zeitarbeit", "Personaldienstleister", "Personalvermittlung"),
+              you MUST answer "is_farm": false.
+            
+            ADDITIONAL STRICT RULES – CITY / GOVERNMENT WEBSITES:
+            - If the URL domain looks like a German municipality — meaning the domain is a
+              city or town name with NO farm/agriculture indicator in the domain itself
+              (examples: manching.de, beckum.de, wolfsburg.de, mannheim.de, kevelaer.de,
+              dietzenbach.de, buchholz.de, menden.de, or any <stadtname>.de pattern) —
+              you MUST answer "is_farm": false, "reason": "city-government-website".
+              Do NOT be fooled by snippets that mention Direktvermarktung or Landwirtschaft
+              in passing — municipal websites often promote local agriculture without being farms.
+            
+            - If the page text OR url path contains words typical of city or municipal websites:
+              "Stadtverwaltung", "Bürgermeister", "Stadtrat", "Einwohner", "Stadtgebiet",
+              "kommunal", "Gemeinderat", "Ortschaft", "Stadtwerke", "Kreistag",
+              "Bürgerservice", "Verwaltungsportal", "Gemeindeverwaltung", "Amt für",
+              "Fachbereich", "Sachgebiet", "Rathaus", "Gemeinde", "Satzung",
+              "Bebauungsplan", "Stadtentwicklung", "Bauleitplanung",
+              you MUST answer: "is_farm": false, "reason": "city-government-website".
+            
+            - A real farm page will show: ONE owner name, specific own products, pickup times
+              or contact data for THIS individual business — NOT a list of services for
+              residents, NOT a regional overview, NOT links to municipal departments.
+            
+            POSITIVE RULES (WHEN TO RETURN is_farm = true):
+            - Return "is_farm": true if the website clearly represents ONE specific
+              agricultural or horticultural production business. This includes:
+            
+              FRUIT & VEGETABLE FARMS:
+              * Hof, Landhof, Bauernhof, Biohof
+              * Erdbeerhof, Beerenhof, Himbeerhof, Heidelbeerhof, Brombeerhof
+              * Spargelhof, Kartoffelhof, Möhrenhof, Zwiebelhof
+              * Obsthof, Apfelhof, Streuobsthof, Kirschhof
+              * Gemüsehof, Gemüsebau-Betrieb, Gemüsebaubetrieb
+              * Kürbishof, Tomatenbetrieb, Gurkenbetrieb, Salatbetrieb
+              * Kräuterhof, Kräutergärtnerei
+            
+              HORTICULTURE & NURSERIES:
+              * Gärtnerei, Gartenbau, Gartenbaubetrieb
+              * Baumschule (tree nursery)
+              * Staudengärtnerei, Staudenbetrieb (perennial nursery)
+              * Jungpflanzenbetrieb (young plant nursery)
+              * Zierpflanzenbetrieb, Zierpflanzengärtnerei (ornamental plants)
+              * Topfpflanzenbetrieb (potted plant nursery)
+              * Schnittblumenbetrieb, Blumenhof, Blumenbetrieb (cut flowers)
+            
+              MUSHROOMS:
+              * Pilzfarm, Pilzzucht, Pilzbetrieb, Champignonzucht
+            
+              WINE & HOPS:
+              * Weingut, Winzerbetrieb, Weinbaubetrieb, Rebschule
+              * Hopfenhof, Hopfenbetrieb
+            
+              LIVESTOCK (also valid):
+              * Geflügelhof, Hühnerhof, Putenhof, Gänsehof, Entenhof
+              * Rinderhof, Milchviehbetrieb
+              * Schäferei, Ziegenhof
+              * Imkerei, Bienenhof
+            
+              PROCESSING ON FARM (also valid if the farm grows its own produce):
+              * Hofkäserei, Hofmetzgerei, Hofbäckerei, Hofmosterei
+              * Hofladen (if it belongs to ONE specific farm)
+            
+            - Typical signs for a single farm business:
+              * there is ONE main farm/business name,
+              * there is an address and contact data for THIS business,
+              * the content describes THEIR OWN products, fields, orchards, greenhouses,
+                nurseries, animals, etc.
+            
+            SEASONAL JOBS (is_seasonal_jobs):
+            - "is_seasonal_jobs" should be true ONLY if the text clearly mentions
+              seasonal work ON THIS farm in the context of agricultural activities, for example:
+              "Saisonarbeit", "Saisonkräfte", "Saisonjobs",
+              "Erntehelfer", "Erntehilfe", "Erntehelfer:innen",
+              "Erntejobs", "Helfer für die Ernte",
+              "Ferienjob auf unserem Hof" (when it clearly refers to field / harvest work),
+              "Studentenjobs auf unserem Hof" related to harvesting / packing produce.
+            
+            - Seasonal jobs related ONLY to tourism or hospitality (cleaning rooms,
+              breakfast service, reception, restaurant, hotel work) do NOT count.
+              In that case you MUST set "is_seasonal_jobs": false.
+            
+            DECISION POLICY:
+            - If you are NOT clearly sure that this is ONE specific production business,
+              you MUST answer "is_farm": false.
+            - Portals, media, city / regional magazines, tourism pages and directories
+              are always "is_farm": false.
+            - Do NOT guess "is_farm": true only because the text talks about
+              farms in general or many different farms.
+            - If the domain appears to be a German town or city name (e.g. stadtname.de)
+              and there is NO clear evidence this is a private farm business
+              (own products, owner name, farm-specific content), you MUST answer
+              "is_farm": false. When in doubt — REJECT.
+            - Be conservative: only mark "is_farm": true when the evidence is strong.
+            
+            """;
 
-    public FarmClassificationResult classifyFarm(String url, String textSnippet) {
-        String prompt = """
-                You are a STRICT classifier for a seasonal farm worker lead generation system.
-                
-                INPUT:
-                - url: the URL of a website
-                - page_text: extracted plain text of the page (possibly truncated)
-                
-                OVERALL GOAL:
-                We only want SMALL or MEDIUM-SIZED GERMAN AGRICULTURAL or HORTICULTURAL BUSINESSES
-                that produce plants, crops, flowers, trees, mushrooms, wine, hops, or keep livestock.
-                The main business should be PRODUCTION (growing, cultivating, breeding), not tourism.
-                
-                YOUR TASK:
-                1) Decide if this website represents ONE specific small or medium German
-                   agricultural or horticultural production business.
-                2) Decide if this farm offers SEASONAL AGRICULTURAL JOBS
-                   (harvesting, planting, greenhouse work, sorting / packing, pruning, etc.).
-                
-                STRICT NEGATIVE RULES (VERY IMPORTANT):
-                - Regional newspapers, news portals, city magazines, lifestyle portals, blogs,
-                  tourist organizations, tourism portals and campsites are NOT farms,
-                  even if they contain job advertisements for farm work.
-                  Examples of NOT-farms:
-                  * "Kielerleben" (city/region lifestyle portal)
-                  * "Sauerlandkurier" (regional newspaper / portal)
-                  * any "Stadtmagazin", "Stadtportal", "Tourismusverband", "Reiseland", etc.
-                  In ALL these cases you MUST answer: "is_farm": false.
-                
-                - If the website lists MANY different farms, attractions, companies, events
-                  or tourist offers in a region (directories, portals, tourism pages),
-                  it is NOT itself a farm business. Answer: "is_farm": false.
-                
-                - If the URL domain is a large job portal, social network or generic platform
-                  (for example: indeed.com, stepstone.de, meinestadt.de, facebook.com,
-                  instagram.com, linkedin.com, youtube.com, tiktok.com, xing.com, etc.),
-                  or any obvious non-farm platform, ALWAYS answer:
-                  {
-                    "is_farm": false,
-                    "is_seasonal_jobs": false,
-                    "reason": "job-portal-or-social-network",
-                    "main_contact_url": null
-                  }
-                
-                ADDITIONAL STRICT RULES – TOURISM / HOLIDAY FARMS:
-                - If the main focus of the website is tourism, holiday stays or accommodation
-                  (for example: "Urlaub auf dem Bauernhof", "Ferienhof", "Ferienwohnungen",
-                  "Ferienzimmer", "Ferienhaus", "Pension", "Camping", "Glamping", "Wellnesshof",
-                  "Bauernhofurlaub") you MUST treat it as NOT a farm for this system.
-                  Even if there are some animals or small agricultural activities, if the core business
-                  is overnight stays / tourism / holiday apartments, answer:
-                  "is_farm": false, "is_seasonal_jobs": false.
-                
-                - Hotels, guesthouses, B&B, wellness & spa resorts are NEVER farms in this context.
-                
-                ADDITIONAL STRICT RULES – INTERMEDIARIES:
-                - If the website is a temporary work agency, staffing company, personnel service,
-                  or intermediary that recruits seasonal workers for MANY farms
-                  (e.g. "Zeitarbeit", "Personaldienstleister", "Personalvermittlung"),
-                  you MUST answer "is_farm": false.
-                
-                ADDITIONAL STRICT RULES – CITY / GOVERNMENT WEBSITES:
-                - If the URL domain looks like a German municipality — meaning the domain is a
-                  city or town name with NO farm/agriculture indicator in the domain itself
-                  (examples: manching.de, beckum.de, wolfsburg.de, mannheim.de, kevelaer.de,
-                  dietzenbach.de, buchholz.de, menden.de, or any <stadtname>.de pattern) —
-                  you MUST answer "is_farm": false, "reason": "city-government-website".
-                  Do NOT be fooled by snippets that mention Direktvermarktung or Landwirtschaft
-                  in passing — municipal websites often promote local agriculture without being farms.
-                
-                - If the page text OR url path contains words typical of city or municipal websites:
-                  "Stadtverwaltung", "Bürgermeister", "Stadtrat", "Einwohner", "Stadtgebiet",
-                  "kommunal", "Gemeinderat", "Ortschaft", "Stadtwerke", "Kreistag",
-                  "Bürgerservice", "Verwaltungsportal", "Gemeindeverwaltung", "Amt für",
-                  "Fachbereich", "Sachgebiet", "Rathaus", "Gemeinde", "Satzung",
-                  "Bebauungsplan", "Stadtentwicklung", "Bauleitplanung",
-                  you MUST answer: "is_farm": false, "reason": "city-government-website".
-                
-                - A real farm page will show: ONE owner name, specific own products, pickup times
-                  or contact data for THIS individual business — NOT a list of services for
-                  residents, NOT a regional overview, NOT links to municipal departments.
-                
-                POSITIVE RULES (WHEN TO RETURN is_farm = true):
-                - Return "is_farm": true if the website clearly represents ONE specific
-                  agricultural or horticultural production business. This includes:
-                
-                  FRUIT & VEGETABLE FARMS:
-                  * Hof, Landhof, Bauernhof, Biohof
-                  * Erdbeerhof, Beerenhof, Himbeerhof, Heidelbeerhof, Brombeerhof
-                  * Spargelhof, Kartoffelhof, Möhrenhof, Zwiebelhof
-                  * Obsthof, Apfelhof, Streuobsthof, Kirschhof
-                  * Gemüsehof, Gemüsebau-Betrieb, Gemüsebaubetrieb
-                  * Kürbishof, Tomatenbetrieb, Gurkenbetrieb, Salatbetrieb
-                  * Kräuterhof, Kräutergärtnerei
-                
-                  HORTICULTURE & NURSERIES:
-                  * Gärtnerei, Gartenbau, Gartenbaubetrieb
-                  * Baumschule (tree nursery)
-                  * Staudengärtnerei, Staudenbetrieb (perennial nursery)
-                  * Jungpflanzenbetrieb (young plant nursery)
-                  * Zierpflanzenbetrieb, Zierpflanzengärtnerei (ornamental plants)
-                  * Topfpflanzenbetrieb (potted plant nursery)
-                  * Schnittblumenbetrieb, Blumenhof, Blumenbetrieb (cut flowers)
-                
-                  MUSHROOMS:
-                  * Pilzfarm, Pilzzucht, Pilzbetrieb, Champignonzucht
-                
-                  WINE & HOPS:
-                  * Weingut, Winzerbetrieb, Weinbaubetrieb, Rebschule
-                  * Hopfenhof, Hopfenbetrieb
-                
-                  LIVESTOCK (also valid):
-                  * Geflügelhof, Hühnerhof, Putenhof, Gänsehof, Entenhof
-                  * Rinderhof, Milchviehbetrieb
-                  * Schäferei, Ziegenhof
-                  * Imkerei, Bienenhof
-                
-                  PROCESSING ON FARM (also valid if the farm grows its own produce):
-                  * Hofkäserei, Hofmetzgerei, Hofbäckerei, Hofmosterei
-                  * Hofladen (if it belongs to ONE specific farm)
-                
-                - Typical signs for a single farm business:
-                  * there is ONE main farm/business name,
-                  * there is an address and contact data for THIS business,
-                  * the content describes THEIR OWN products, fields, orchards, greenhouses,
-                    nurseries, animals, etc.
-                
-                SEASONAL JOBS (is_seasonal_jobs):
-                - "is_seasonal_jobs" should be true ONLY if the text clearly mentions
-                  seasonal work ON THIS farm in the context of agricultural activities, for example:
-                  "Saisonarbeit", "Saisonkräfte", "Saisonjobs",
-                  "Erntehelfer", "Erntehilfe", "Erntehelfer:innen",
-                  "Erntejobs", "Helfer für die Ernte",
-                  "Ferienjob auf unserem Hof" (when it clearly refers to field / harvest work),
-                  "Studentenjobs auf unserem Hof" related to harvesting / packing produce.
-                
-                - Seasonal jobs related ONLY to tourism or hospitality (cleaning rooms,
-                  breakfast service, reception, restaurant, hotel work) do NOT count.
-                  In that case you MUST set "is_seasonal_jobs": false.
-                
-                DECISION POLICY:
-                - If you are NOT clearly sure that this is ONE specific production business,
-                  you MUST answer "is_farm": false.
-                - Portals, media, city / regional magazines, tourism pages and directories
-                  are always "is_farm": false.
-                - Do NOT guess "is_farm": true only because the text talks about
-                  farms in general or many different farms.
-                - If the domain appears to be a German town or city name (e.g. stadtname.de)
-                  and there is NO clear evidence this is a private farm business
-                  (own products, owner name, farm-specific content), you MUST answer
-                  "is_farm": false. When in doubt — REJECT.
-                - Be conservative: only mark "is_farm": true when the evidence is strong.
-                
-                OUTPUT FORMAT:
-                Respond ONLY with a single valid JSON object:
+    private static final String SINGLE_OUTPUT_FORMAT = """
+            OUTPUT FORMAT:
+            Respond ONLY with a single valid JSON object:
+            {
+              "is_farm": boolean,
+              "is_seasonal_jobs": boolean,
+              "reason": string,
+              "main_contact_url": string | null
+            }
+            
+            """;
+
+    private static final String FIELD_GUIDE = """
+            "reason" should be a short explanation like:
+            - "single-farm-website-with-products-and-contact"
+            - "single-farm-website-with-seasonal-jobs"
+            - "nursery-with-own-production"
+            - "winery-with-own-vineyards"
+            - "mushroom-farm-with-production"
+            - "regional-media-portal-not-a-farm"
+            - "tourism-portal-listing-many-farms"
+            - "holiday-farm-focused-on-tourism"
+            - "job-portal-or-social-network"
+            - "staffing-agency-not-a-farm"
+            - "city-government-website"
+            - "no-clear-sign-of-farm"
+            
+            "main_contact_url" should be:
+            - the best URL for direct contact with the farm (e.g. /kontakt, /contact, /impressum),
+            - OR null if there is no clear single contact page.
+            
+            """;
+
+    private static final String SINGLE_INPUT = """
+            INPUT DATA:
+            URL:
+            %s
+            
+            PAGE_TEXT (first ~2000 chars):
+            %s
+            """;
+
+    private static final String BATCH_OUTPUT_FORMAT = """
+            OUTPUT FORMAT:
+            You will receive %d websites, each marked with "ITEM <index>".
+            Classify EACH website independently, using ONLY its own URL and PAGE_TEXT.
+            Respond ONLY with a single valid JSON object:
+            {
+              "results": [
                 {
+                  "index": number,
                   "is_farm": boolean,
                   "is_seasonal_jobs": boolean,
                   "reason": string,
                   "main_contact_url": string | null
                 }
-                
-                "reason" should be a short explanation like:
-                - "single-farm-website-with-products-and-contact"
-                - "single-farm-website-with-seasonal-jobs"
-                - "nursery-with-own-production"
-                - "winery-with-own-vineyards"
-                - "mushroom-farm-with-production"
-                - "regional-media-portal-not-a-farm"
-                - "tourism-portal-listing-many-farms"
-                - "holiday-farm-focused-on-tourism"
-                - "job-portal-or-social-network"
-                - "staffing-agency-not-a-farm"
-                - "city-government-website"
-                - "no-clear-sign-of-farm"
-                
-                "main_contact_url" should be:
-                - the best URL for direct contact with the farm (e.g. /kontakt, /contact, /impressum),
-                - OR null if there is no clear single contact page.
-                
-                INPUT DATA:
-                URL:
-                %s
-                
-                PAGE_TEXT (first ~2000 chars):
-                %s
-                """.formatted(url, textSnippet);
+              ]
+            }
+            "results" MUST contain exactly one entry per ITEM, with the same index.
+            
+            """;
+
+    private static final String BATCH_ITEM = """
+            ITEM %d
+            URL:
+            %s
+            
+            PAGE_TEXT (first ~2000 chars):
+            %s
+            
+            """;
+
+    private final OpenAiService openAiService;
+    private final ObjectMapper objectMapper;
+    private final FarmClassificationCache classificationCache;
+    private final OpenAiProperties openAiProperties;
+
+    public FarmClassificationResult classifyFarm(String url, String textSnippet) {
+        Optional<FarmClassificationResult> cached = classificationCache.find(url, textSnippet);
+        if (cached.isPresent()) {
+            log.info("OpenAiFarmClassifier: cache hit url={} -> isFarm={}, reason={}",
+                    url, cached.get().isFarm(), cached.get().reason());
+            return cached.get();
+        }
+
+        return classifySingle(url, textSnippet);
+    }
+
+    /**
+     * Klasyfikuje wiele par URL/snippet: reguły promptu idą raz na paczkę
+     * ({@code openai.batch-size} pozycji), a odpowiedź to tablica wyników z indeksami.
+     * Pozycje, których nie da się sparsować z odpowiedzi batch, są klasyfikowane pojedynczo.
+     *
+     * @return wyniki w kolejności wejściowej
+     */
+    public List<FarmClassificationResult> classifyFarms(List<UrlSnippet> items) {
+        if (items == null || items.isEmpty()) {
+            return List.of();
+        }
+
+        FarmClassificationResult[] results = new FarmClassificationResult[items.size()];
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            UrlSnippet item = items.get(i);
+            Optional<FarmClassificationResult> cached = classificationCache.find(item.url(), item.snippet());
+            if (cached.isPresent()) {
+                results[i] = cached.get();
+            } else {
+                pending.add(i);
+            }
+        }
+
+        int batchSize = openAiProperties.batchSize();
+        int fallbacks = 0;
+
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(pending.size(), from + batchSize));
+
+            if (chunk.size() == 1) {
+                UrlSnippet item = items.get(chunk.get(0));
+                results[chunk.get(0)] = classifySingle(item.url(), item.snippet());
+                continue;
+            }
+
+            List<UrlSnippet> batch = chunk.stream().map(items::get).toList();
+            Map<Integer, FarmClassificationResult> parsed = classifyBatch(batch);
+
+            for (int j = 0; j < chunk.size(); j++) {
+                UrlSnippet item = batch.get(j);
+                FarmClassificationResult result = parsed.get(j);
+
+                if (result == null) {
+                    fallbacks++;
+                    results[chunk.get(j)] = classifySingle(item.url(), item.snippet());
+                    continue;
+                }
+
+                log.info("OpenAiFarmClassifier: batch url={} -> isFarm={}, isSeasonalJobs={}, contactUrl={}, reason={}",
+                        item.url(), result.isFarm(), result.isSeasonalJobs(), result.mainContactUrl(), result.reason());
+                classificationCache.put(item.url(), item.snippet(), result);
+                results[chunk.get(j)] = result;
+            }
+        }
+
+        log.info("OpenAiFarmClassifier: classified {} items (cached={}, batchSize={}, singleFallbacks={})",
+                items.size(), items.size() - pending.size(), batchSize, fallbacks);
+
+        return List.of(results);
+    }
+
+    private FarmClassificationResult classifySingle(String url, String textSnippet) {
+        String prompt = CLASSIFICATION_RULES
+                + SINGLE_OUTPUT_FORMAT
+                + FIELD_GUIDE
+                + SINGLE_INPUT.formatted(url, textSnippet);
 
         String json = openAiService.classify(prompt);
         if (json == null || json.isBlank()) {
@@ -210,27 +337,13 @@ public class OpenAiFarmClassifier {
         }
 
         try {
-            JsonNode node = objectMapper.readTree(json);
-
-            boolean isFarm = node.path("is_farm").asBoolean(false);
-            boolean isSeasonalJobs = node.path("is_seasonal_jobs").asBoolean(false);
-            String reason = node.path("reason").asText("no-reason");
-            JsonNode contactNode = node.path("main_contact_url");
-
-            String mainContactUrl = contactNode.isMissingNode() || contactNode.isNull()
-                    ? null
-                    : contactNode.asText(null);
-
-            FarmClassificationResult result = new FarmClassificationResult(
-                    isFarm,
-                    isSeasonalJobs,
-                    reason,
-                    mainContactUrl
-            );
+            FarmClassificationResult result = toResult(objectMapper.readTree(json));
 
             log.info("OpenAiFarmClassifier: url={} -> isFarm={}, isSeasonalJobs={}, contactUrl={}, reason={}",
                     url, result.isFarm(), result.isSeasonalJobs(), result.mainContactUrl(), result.reason());
 
+            classificationCache.put(url, textSnippet, result);
+
             return result;
 
         } catch (Exception e) {
@@ -238,4 +351,68 @@ public class OpenAiFarmClassifier {
             return new FarmClassificationResult(false, false, "parse-error: " + e.getMessage(), null);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return index w paczce -> wynik; brak wpisu = pozycja do ponownej, pojedynczej klasyfikacji
+     */
+    private Map<Integer, FarmClassificationResult> classifyBatch(List<UrlSnippet> batch) {
+        StringBuilder prompt = new StringBuilder(CLASSIFICATION_RULES)
+                .append(BATCH_OUTPUT_FORMAT.formatted(batch.size()))
+                .append(FIELD_GUIDE)
+                .append("INPUT DATA:\n");
+        for (int i = 0; i < batch.size(); i++) {
+            prompt.append(BATCH_ITEM.formatted(i, batch.get(i).url(), batch.get(i).snippet()));
+        }
+
+        Map<Integer, FarmClassificationResult> parsed = new HashMap<>();
+
+        String json = openAiService.classify(prompt.toString());
+        if (json == null || json.isBlank()) {
+            log.warn("OpenAiFarmClassifier: empty JSON for batch of {}, falling back to single calls", batch.size());
+            return parsed;
+        }
+
+        try {
+            JsonNode results = objectMapper.readTree(json).path("results");
+            if (!results.isArray()) {
+                log.warn("OpenAiFarmClassifier: batch response without results array, falling back. json='{}'", json);
+                return parsed;
+            }
+
+            for (JsonNode node : results) {
+                JsonNode index = node.path("index");
+                if (!index.canConvertToInt() || !node.path("is_farm").isBoolean()) {
+                    continue;
+                }
+                int i = index.asInt();
+                if (i < 0 || i >= batch.size() || parsed.containsKey(i)) {
+                    continue;
+                }
+                parsed.put(i, toResult(node));
+            }
+
+        } catch (Exception e) {
+            log.warn("OpenAiFarmClassifier: failed to parse batch JSON from OpenAI. json='{}'", json, e);
+        }
+
+        return parsed;
+    }
+
+    private FarmClassificationResult toResult(JsonNode node) {
+        boolean isFarm = node.path("is_farm").asBoolean(false);
+        boolean isSeasonalJobs = node.path("is_seasonal_jobs").asBoolean(false);
+        String reason = node.path("reason").asText("no-reason");
+        JsonNode contactNode = node.path("main_contact_url");
+
+        String mainContactUrl = contactNode.isMissingNode() || contactNode.isNull()
+                ? null
+                : contactNode.asText(null);
+
+        return new FarmClassificationResult(
+                isFarm,
+                isSeasonalJobs,
+                reason,
+                mainContactUrl
+        );
+    }
+}
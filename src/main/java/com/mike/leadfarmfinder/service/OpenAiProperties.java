@@ -6,6 +6,13 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public record OpenAiProperties(
         String apiKey,
         String baseUrl,
-        String model
+        String model,
+        int batchSize
 ) {
+
+    public OpenAiProperties {
+        if (batchSize <= 0) {
+            batchSize = 8;
+        }
+    }
 }
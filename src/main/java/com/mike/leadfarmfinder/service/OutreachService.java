@@ -6,9 +6,13 @@ import com.mike.leadfarmfinder.repository.FarmLeadRepository;
 import com.mike.leadfarmfinder.service.outreach.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailSendException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Service
@@ -22,6 +26,8 @@ public class OutreachService {
     private final LeadEmailNormalizer leadEmailNormalizer;
     private final LeadEligibilityPolicy leadEligibilityPolicy;
     private final MailComposer mailComposer;
+    private final OutreachRateLimiter outreachRateLimiter;
+    private final ObjectProvider<BulkMailSenderGateway> bulkMailSenderGateway;
 
     public void sendFirstEmail(FarmLead lead) {
         send(lead, EmailType.FIRST);
@@ -31,21 +37,97 @@ public class OutreachService {
         send(lead, EmailType.FOLLOW_UP);
     }
 
+    /**
+     * Ile pierwszych maili można wysłać jednym {@link #sendFirstEmails(List)}; 1 = brak wysyłki bulk u providera.
+     * <p>
+     * Nie więcej niż burst providera ({@code dispatch.provider-burst}) — większa paczka czekałaby na tokeny
+     * dla wszystkich odbiorców i poszła do providera naraz, z pominięciem tempa wysyłki.
+     */
+    public int firstEmailBatchSize() {
+        BulkMailSenderGateway bulk = bulkMailSenderGateway.getIfAvailable();
+        return bulk == null ? 1 : Math.max(1, Math.min(bulk.maxBatchSize(), outreachRateLimiter.providerBurst()));
+    }
+
+    /**
+     * Jak {@link #sendFirstEmail(FarmLead)} dla wielu leadów, ale jednym wywołaniem {@link BulkMailSenderGateway}.
+     */
+    public void sendFirstEmails(List<FarmLead> leads) {
+        BulkMailSenderGateway bulk = bulkMailSenderGateway.getIfAvailable();
+        int batchSize = firstEmailBatchSize();
+        if (bulk == null || batchSize == 1 || leads.size() == 1) {
+            leads.forEach(this::sendFirstEmail);
+            return;
+        }
+        if (leads.size() > batchSize) {
+            for (int from = 0; from < leads.size(); from += batchSize) {
+                sendFirstEmails(leads.subList(from, Math.min(leads.size(), from + batchSize)));
+            }
+            return;
+        }
+        if (!isOutreachEnabledOrLog()) return;
+
+        LocalDateTime now = LocalDateTime.now();
+
+        List<FarmLead> prepared = new ArrayList<>(leads.size());
+        List<PreparedMail> mails = new ArrayList<>(leads.size());
+        for (FarmLead lead : leads) {
+            PreparedMail mail = prepare(lead, EmailType.FIRST, now);
+            if (mail != null) {
+                prepared.add(lead);
+                mails.add(mail);
+            }
+        }
+        if (mails.isEmpty()) return;
+
+        List<SendResult> results;
+        if (outreachProperties.isSimulateOnly()) {
+            log.debug("OutreachService: simulate-only=true, skipping real bulk send of {} emails", mails.size());
+            results = mails.stream().map(mail -> new SendResult(true, false)).toList();
+        } else {
+            try {
+                // limit providera liczy każdego odbiorcę, nie wywołanie API
+                for (int i = 0; i < mails.size(); i++) {
+                    outreachRateLimiter.acquireProvider();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrupted while waiting for send rate limit, bulk of " + mails.size() + " not sent", e);
+            }
+            results = bulk.sendBulk(mails);
+        }
+
+        for (int i = 0; i < prepared.size(); i++) {
+            applyResult(prepared.get(i), EmailType.FIRST, now, mails.get(i).to(), results.get(i));
+        }
+    }
+
     private void send(FarmLead lead, EmailType type) {
         if (!isOutreachEnabledOrLog()) return;
 
         LocalDateTime now = LocalDateTime.now();
 
-        if (!leadEligibilityPolicy.isEligibleOrLog(lead, type, now)) return;
+        PreparedMail mail = prepare(lead, type, now);
+        if (mail == null) return;
+
+        SendResult result = sendOrSimulate(mail);
+        applyResult(lead, type, now, mail.to(), result);
+    }
+
+    /**
+     * @return mail gotowy do wysyłki albo {@code null}, gdy lead się nie kwalifikuje (powód jest w logu)
+     */
+    private PreparedMail prepare(FarmLead lead, EmailType type, LocalDateTime now) {
+        if (!leadEligibilityPolicy.isEligibleOrLog(lead, type, now)) return null;
 
         String to = leadEmailNormalizer.normalizeAndValidateOrDeactivate(lead);
-        if (to == null) return;
+        if (to == null) return null;
 
         PreparedMail mail = mailComposer.compose(lead, to, type);
         previewLogger.logPreview(mail);
+        return mail;
+    }
 
-        SendResult result = sendOrSimulate(mail);
-
+    private void applyResult(FarmLead lead, EmailType type, LocalDateTime now, String to, SendResult result) {
         if (result.hardBounce()) {
             markHardBounce(lead);
             return;
@@ -74,11 +156,20 @@ public class OutreachService {
         return true;
     }
 
+    /**
+     * @throws MailSendException gdy wątek przerwano w czekaniu na limit — flaga przerwania zostaje ustawiona
+     */
     private SendResult sendOrSimulate(PreparedMail mail) {
         if (outreachProperties.isSimulateOnly()) {
             log.debug("OutreachService: simulate-only=true, skipping real send");
             return new SendResult(true, false);
         }
+        try {
+            outreachRateLimiter.acquireProvider();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for send rate limit. leadId=" + mail.leadId(), e);
+        }
         return mailSenderGateway.send(mail);
     }
 
@@ -95,4 +186,4 @@ public class OutreachService {
         }
         lead.setLastEmailSentAt(now);
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,9 @@ package com.mike.leadfarmfinder.service.ajb;
 import com.mike.leadfarmfinder.config.AgrarjobboerseProperties;
 import com.mike.leadfarmfinder.dto.AjbRunSummary;
 import com.mike.leadfarmfinder.entity.FarmLead;
-import com.mike.leadfarmfinder.repository.FarmLeadRepository;
 import com.mike.leadfarmfinder.service.EmailExtractor;
+import com.mike.leadfarmfinder.service.KnownEmailIndex;
+import com.mike.leadfarmfinder.service.LeadIngestionService;
 import com.mike.leadfarmfinder.util.TokenGenerator;
 import com.microsoft.playwright.*;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -28,7 +30,8 @@ public class AgrarjobboerseScraperService {
     private final AjbCursorService cursorService;
 
     private final EmailExtractor emailExtractor;
-    private final FarmLeadRepository farmLeadRepository;
+    private final KnownEmailIndex knownEmailIndex;
+    private final LeadIngestionService leadIngestionService;
 
     public AjbRunSummary runOnce() {
         if (!props.isEnabled()) {
@@ -99,6 +102,8 @@ public class AgrarjobboerseScraperService {
                         offersWithEmails++;
                         emailsExtracted += emails.size();
 
+                        List<FarmLead> newLeads = new ArrayList<>();
+
                         for (String raw : emails) {
                             if (raw == null || raw.isBlank()) continue;
 
@@ -106,7 +111,7 @@ public class AgrarjobboerseScraperService {
                             if (!uniqueRunEmails.add(email)) continue;
                             emailsUnique++;
 
-                            if (farmLeadRepository.existsByEmailIgnoreCase(email)) {
+                            if (knownEmailIndex.contains(email)) {
                                 emailsAlreadyInDb++;
                                 continue;
                             }
@@ -116,17 +121,21 @@ public class AgrarjobboerseScraperService {
                                 continue;
                             }
 
-                            FarmLead lead = FarmLead.builder()
+                            newLeads.add(FarmLead.builder()
                                     .email(email)
                                     .sourceUrl(offerUrl)
                                     .createdAt(LocalDateTime.now())
                                     .active(true)
                                     .bounce(false)
                                     .unsubscribeToken(TokenGenerator.generateShortToken())
-                                    .build();
+                                    .build());
+                        }
 
-                            farmLeadRepository.save(lead);
-                            leadsSaved++;
+                        if (!newLeads.isEmpty()) {
+                            // jeden INSERT na ofertę; adresy wstawione w międzyczasie przez inny proces pomija ON CONFLICT
+                            int inserted = leadIngestionService.insertNew(newLeads).size();
+                            leadsSaved += inserted;
+                            emailsAlreadyInDb += newLeads.size() - inserted;
                         }
 
                         sleepJitter();
@@ -1,12 +1,15 @@
 package com.mike.leadfarmfinder.service.directory;
 
 import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.dto.UrlSnippet;
 import com.mike.leadfarmfinder.service.FarmScraperService;
 import com.mike.leadfarmfinder.service.OpenAiFarmClassifier;
 import com.mike.leadfarmfinder.service.discovery.DiscoveredUrlWriter;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryDuplicateChecker;
 import com.mike.leadfarmfinder.service.discovery.DiscoverySnippetFetcher;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryUrlNormalizer;
+import com.mike.leadfarmfinder.service.http.PageCache;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,13 +17,19 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DirectoryCrawlerService {
 
+    private static final int DUPLICATE_CHECK_CHUNK_SIZE = 50;
+
     private final List<DirectorySource> sources;
     private final DiscoveryDuplicateChecker duplicateChecker;
     private final DiscoveryUrlNormalizer urlNormalizer;
@@ -28,6 +37,7 @@ public class DirectoryCrawlerService {
     private final FarmScraperService farmScraperService;
     private final DiscoverySnippetFetcher snippetFetcher;
     private final OpenAiFarmClassifier farmClassifier;
+    private final PageFetcher pageFetcher;
 
     public List<DirectoryCrawlResult> crawlAll(int maxUrlsPerRun) {
         log.info("DirectoryCrawlerService: starting, sources={}, maxUrlsPerRun={}",
@@ -66,6 +76,13 @@ public class DirectoryCrawlerService {
      * To odróżnia OSM od innych source-ów które przechodzą przez classifier.
      */
     public DirectoryCrawlResult crawlSource(DirectorySource source, int budget) {
+        // snippet fetch i scrape tej samej farmy pobierają te same strony — wspólny cache na przebieg źródła
+        try (PageCache.Run ignored = pageFetcher.openRun("directory-" + source.sourceName())) {
+            return crawl(source, budget);
+        }
+    }
+
+    private DirectoryCrawlResult crawl(DirectorySource source, int budget) {
         Instant start = Instant.now();
         String name = source.sourceName();
 
@@ -87,50 +104,94 @@ public class DirectoryCrawlerService {
         int ok = 0;
         int errors = 0;
 
-        for (String rawUrl : rawUrls) {
-            if (processed >= budget) {
-                log.info("DirectoryCrawlerService: source={} budget reached, stopping", name);
-                break;
-            }
+        Set<String> seenThisRun = new HashSet<>();
 
-            String url = urlNormalizer.normalizeUrl(rawUrl);
-            if (url == null) {
-                log.debug("DirectoryCrawlerService: skipping malformed url={}", rawUrl);
-                continue;
+        for (int from = 0; from < rawUrls.size() && processed < budget; from += DUPLICATE_CHECK_CHUNK_SIZE) {
+            List<String> chunk = rawUrls.subList(from, Math.min(rawUrls.size(), from + DUPLICATE_CHECK_CHUNK_SIZE));
+
+            Map<String, String> domainByUrl = new LinkedHashMap<>();
+            for (String rawUrl : chunk) {
+                String url = urlNormalizer.normalizeUrl(rawUrl);
+                if (url == null) {
+                    log.debug("DirectoryCrawlerService: skipping malformed url={}", rawUrl);
+                    continue;
+                }
+                domainByUrl.putIfAbsent(url, urlNormalizer.extractNormalizedDomain(url));
             }
 
-            String domain = urlNormalizer.extractNormalizedDomain(url);
+            Map<String, DiscoveryDuplicateChecker.SeenDecision> decisions =
+                    duplicateChecker.checkAlreadySeenBatch(domainByUrl);
 
-            DiscoveryDuplicateChecker.SeenDecision decision =
-                    duplicateChecker.checkAlreadySeen(url, domain);
+            List<String> selected = new ArrayList<>();
+            for (Map.Entry<String, String> entry : domainByUrl.entrySet()) {
+                if (processed >= budget) {
+                    log.info("DirectoryCrawlerService: source={} budget reached, stopping", name);
+                    break;
+                }
 
-            if (decision != DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN) {
-                log.debug("DirectoryCrawlerService: skipping url={} ({})", url, decision);
-                skippedDuplicate++;
-                continue;
-            }
+                String url = entry.getKey();
+                String domain = entry.getValue();
 
-            processed++;
+                DiscoveryDuplicateChecker.SeenDecision decision =
+                        decisions.getOrDefault(url, DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
 
-            try {
-                String snippet = snippetFetcher.fetchTextSnippet(url);
-                FarmClassificationResult classification = farmClassifier.classifyFarm(url, snippet);
-                discoveredUrlWriter.save(url, classification);
-
-                if (!classification.isFarm()) {
-                    rejectedByClassifier++;
-                    log.info("DirectoryCrawlerService: REJECTED by classifier url={} reason={}",
-                            url, classification.reason());
+                // batch był sprawdzony przed zapisami z tej paczki — pilnujemy też domen przetworzonych w tym runie
+                if (decision == DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN
+                        && domain != null && !domain.isBlank() && !seenThisRun.add(domain)) {
+                    decision = DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_DOMAIN;
+                }
+
+                if (decision != DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN) {
+                    log.debug("DirectoryCrawlerService: skipping url={} ({})", url, decision);
+                    skippedDuplicate++;
                     continue;
                 }
 
-                farmScraperService.scrapeFarmLeads(url);
-                ok++;
-                log.debug("DirectoryCrawlerService: scraped ok url={}", url);
+                processed++;
+                selected.add(url);
+            }
 
+            List<UrlSnippet> withSnippets = new ArrayList<>();
+            for (String url : selected) {
+                try {
+                    withSnippets.add(new UrlSnippet(url, snippetFetcher.fetchTextSnippet(url)));
+                } catch (Exception e) {
+                    errors++;
+                    log.warn("DirectoryCrawlerService: failed url={}: {}", url, e.getMessage());
+                }
+            }
+
+            List<FarmClassificationResult> classifications;
+            try {
+                classifications = classify(withSnippets);
             } catch (Exception e) {
-                errors++;
-                log.warn("DirectoryCrawlerService: failed url={}: {}", url, e.getMessage());
+                errors += withSnippets.size();
+                log.warn("DirectoryCrawlerService: classification failed for {} urls: {}", withSnippets.size(), e.getMessage());
+                continue;
+            }
+
+            for (int i = 0; i < withSnippets.size(); i++) {
+                String url = withSnippets.get(i).url();
+
+                try {
+                    FarmClassificationResult classification = classifications.get(i);
+                    discoveredUrlWriter.save(url, classification);
+
+                    if (!classification.isFarm()) {
+                        rejectedByClassifier++;
+                        log.info("DirectoryCrawlerService: REJECTED by classifier url={} reason={}",
+                                url, classification.reason());
+                        continue;
+                    }
+
+                    farmScraperService.scrapeFarmLeads(url);
+                    ok++;
+                    log.debug("DirectoryCrawlerService: scraped ok url={}", url);
+
+                } catch (Exception e) {
+                    errors++;
+                    log.warn("DirectoryCrawlerService: failed url={}: {}", url, e.getMessage());
+                }
             }
         }
 
@@ -142,6 +203,19 @@ public class DirectoryCrawlerService {
                 rejectedByClassifier, ok, errors, durationMs);
     }
 
+    /**
+     * Kilka kandydatów z paczki idzie do klasyfikatora jednym wywołaniem batch.
+     */
+    private List<FarmClassificationResult> classify(List<UrlSnippet> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        if (items.size() == 1) {
+            return List.of(farmClassifier.classifyFarm(items.get(0).url(), items.get(0).snippet()));
+        }
+        return farmClassifier.classifyFarms(items);
+    }
+
     private long elapsed(Instant start) {
         return Duration.between(start, Instant.now()).toMillis();
     }
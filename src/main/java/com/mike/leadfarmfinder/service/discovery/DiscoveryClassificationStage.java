@@ -0,0 +1,134 @@
+package com.mike.leadfarmfinder.service.discovery;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Równoległy etap przetwarzania kandydatów z jednej strony SERP
+ * (snippet fetch + klasyfikacja) na wirtualnych wątkach.
+ * <p>
+ * Globalny limit współbieżności: {@code leadfinder.discovery.classification-concurrency}.
+ * Limit "grzecznościowy" na host: {@code leadfinder.discovery.classification-max-per-host}.
+ * Wyniki zwracane są w kolejności wejściowej, więc wywołujący zachowuje
+ * deterministyczną kolejność (po score).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DiscoveryClassificationStage {
+
+    private final LeadFinderProperties leadFinderProperties;
+
+    public <T, R> List<R> processAll(List<T> items,
+                                     Function<T, String> urlOf,
+                                     Function<T, R> task,
+                                     Function<T, R> onError) {
+        if (items == null || items.isEmpty()) {
+            return List.of();
+        }
+
+        int concurrency = Math.max(1, leadFinderProperties.getDiscovery().getClassificationConcurrency());
+        int maxPerHost = Math.max(1, leadFinderProperties.getDiscovery().getClassificationMaxPerHost());
+
+        if (concurrency == 1 || items.size() == 1) {
+            return items.stream().map(item -> runSafely(item, task, onError)).toList();
+        }
+
+        Semaphore globalPermits = new Semaphore(concurrency);
+        Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+        List<Future<R>> futures = new ArrayList<>(items.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T item : items) {
+                Semaphore hostSemaphore = hostPermits.computeIfAbsent(
+                        extractHost(urlOf.apply(item)),
+                        h -> new Semaphore(maxPerHost)
+                );
+                futures.add(executor.submit(() -> runWithPermits(item, task, onError, globalPermits, hostSemaphore)));
+            }
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(awaitResult(futures.get(i), items.get(i), onError));
+        }
+
+        log.debug("DiscoveryClassificationStage: processed {} items (concurrency={}, maxPerHost={}, hosts={})",
+                items.size(), concurrency, maxPerHost, hostPermits.size());
+
+        return results;
+    }
+
+    private <T, R> R runWithPermits(T item,
+                                    Function<T, R> task,
+                                    Function<T, R> onError,
+                                    Semaphore globalPermits,
+                                    Semaphore hostPermits) throws InterruptedException {
+        hostPermits.acquire();
+        try {
+            globalPermits.acquire();
+            try {
+                return runSafely(item, task, onError);
+            } finally {
+                globalPermits.release();
+            }
+        } finally {
+            hostPermits.release();
+        }
+    }
+
+    private <T, R> R runSafely(T item, Function<T, R> task, Function<T, R> onError) {
+        try {
+            return task.apply(item);
+        } catch (Exception e) {
+            log.warn("DiscoveryClassificationStage: task failed item={} msg={}", item, e.getMessage());
+            return onError.apply(item);
+        }
+    }
+
+    private <T, R> R awaitResult(Future<R> future, T item, Function<T, R> onError) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onError.apply(item);
+        } catch (ExecutionException e) {
+            log.warn("DiscoveryClassificationStage: task failed item={} msg={}", item, e.getCause() != null
+                    ? e.getCause().getMessage()
+                    : e.getMessage());
+            return onError.apply(item);
+        }
+    }
+
+    private String extractHost(String url) {
+        if (url == null) {
+            return "";
+        }
+        try {
+            String host = new URI(url).getHost();
+            if (host == null) {
+                return url;
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            return host.startsWith("www.") ? host.substring(4) : host;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+}
@@ -1,34 +1,23 @@
 package com.mike.leadfarmfinder.service.discovery;
 
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Optional;
 
 @Component
+@RequiredArgsConstructor
 public class DiscoveryContentTypeChecker {
 
-    private static final String USER_AGENT = "Mozilla/5.0 (compatible; LeadFarmFinderBot/1.0)";
-    private static final String ACCEPT_HEADER = "text/html,application/xhtml+xml;q=0.9,*/*;q=0.1";
-
     private static final Duration PRECHECK_TIMEOUT = Duration.ofSeconds(5);
-    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(3);
-
-    private final HttpClient httpClient;
 
-    public DiscoveryContentTypeChecker() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(CONNECT_TIMEOUT)
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
-    }
+    private final PageFetcher pageFetcher;
 
     public DiscoveryContentTypeResult check(String url) {
         Optional<URI> uri = parseUri(url);
@@ -68,51 +57,32 @@ public class DiscoveryContentTypeChecker {
     }
 
     private Optional<DiscoveryContentTypeResult> tryHead(URI uri) {
-        HttpRequest request = HttpRequest.newBuilder(uri)
-                .timeout(PRECHECK_TIMEOUT)
-                .header("User-Agent", USER_AGENT)
-                .header("Accept", ACCEPT_HEADER)
-                .method("HEAD", HttpRequest.BodyPublishers.noBody())
-                .build();
-
-        return sendProbe(request);
+        return sendProbe(() -> pageFetcher.head(uri.toString(), PRECHECK_TIMEOUT));
     }
 
     private Optional<DiscoveryContentTypeResult> tryGetHeadersOnly(URI uri) {
-        HttpRequest request = HttpRequest.newBuilder(uri)
-                .timeout(PRECHECK_TIMEOUT)
-                .header("User-Agent", USER_AGENT)
-                .header("Accept", ACCEPT_HEADER)
-                .GET()
-                .build();
-
-        return sendProbe(request);
+        return sendProbe(() -> pageFetcher.getHeaders(uri.toString(), PRECHECK_TIMEOUT));
     }
 
-    private Optional<DiscoveryContentTypeResult> sendProbe(HttpRequest request) {
+    private Optional<DiscoveryContentTypeResult> sendProbe(Probe probe) {
         try {
-            HttpResponse<Void> response = httpClient.send(request, BodyHandlers.discarding());
-            int statusCode = response.statusCode();
+            FetchedPage response = probe.send();
 
-            if (statusCode < 200 || statusCode >= 300) {
+            if (!response.isSuccess()) {
                 return Optional.empty();
             }
 
-            String rawContentType = response.headers()
-                    .firstValue("Content-Type")
-                    .map(String::trim)
-                    .filter(value -> !value.isEmpty())
-                    .orElse(null);
-
-            return Optional.of(classifyContentType(rawContentType));
+            return Optional.of(classifyContentType(response.contentType()));
         } catch (IOException e) {
             return Optional.empty();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return Optional.empty();
         }
     }
 
+    @FunctionalInterface
+    private interface Probe {
+        FetchedPage send() throws IOException;
+    }
+
     static DiscoveryContentTypeResult classifyContentType(String rawContentTypeHeader) {
         if (rawContentTypeHeader == null || rawContentTypeHeader.isBlank()) {
             return DiscoveryContentTypeResult.unknown();
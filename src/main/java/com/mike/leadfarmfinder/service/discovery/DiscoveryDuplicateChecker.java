@@ -4,10 +4,22 @@ import com.mike.leadfarmfinder.repository.DiscoveredUrlRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
 @Component
 @RequiredArgsConstructor
 public class DiscoveryDuplicateChecker {
 
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
     private final DiscoveredUrlRepository discoveredUrlRepository;
 
     public SeenDecision checkAlreadySeen(String normalizedUrl, String normalizedDomain) {
@@ -25,9 +37,62 @@ public class DiscoveryDuplicateChecker {
         return SeenDecision.NOT_SEEN;
     }
 
+    /**
+     * Wersja batch: jedno zapytanie {@code IN (...)} na URL-e i jedno na domeny
+     * (dzielone na paczki po {@value #IN_CLAUSE_CHUNK_SIZE}), zamiast dwóch {@code exists} na URL.
+     *
+     * @param domainByNormalizedUrl znormalizowany URL -> znormalizowana domena (może być null)
+     * @return decyzja dla każdego URL-a, w kolejności wejściowej
+     */
+    public Map<String, SeenDecision> checkAlreadySeenBatch(Map<String, String> domainByNormalizedUrl) {
+        if (domainByNormalizedUrl == null || domainByNormalizedUrl.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> urls = new HashSet<>(domainByNormalizedUrl.keySet());
+        Set<String> domains = new HashSet<>();
+        for (String domain : domainByNormalizedUrl.values()) {
+            if (domain != null && !domain.isBlank()) {
+                domains.add(domain);
+            }
+        }
+
+        Set<String> existingUrls = queryInChunks(urls, discoveredUrlRepository::findExistingUrls);
+        Set<String> existingDomains = queryInChunks(domains, discoveredUrlRepository::findExistingDomains);
+
+        Map<String, SeenDecision> decisions = new LinkedHashMap<>();
+        domainByNormalizedUrl.forEach((url, domain) -> {
+            if (existingUrls.contains(url)) {
+                decisions.put(url, SeenDecision.SEEN_BY_URL);
+            } else if (domain != null && existingDomains.contains(domain)) {
+                decisions.put(url, SeenDecision.SEEN_BY_DOMAIN);
+            } else {
+                decisions.put(url, SeenDecision.NOT_SEEN);
+            }
+        });
+
+        return decisions;
+    }
+
+    private Set<String> queryInChunks(Collection<String> keys, Function<Collection<String>, List<String>> query) {
+        Set<String> found = new HashSet<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+
+        List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + IN_CLAUSE_CHUNK_SIZE));
+            query.apply(chunk).stream()
+                    .filter(Objects::nonNull)
+                    .forEach(found::add);
+        }
+        return found;
+    }
+
     public enum SeenDecision {
         NOT_SEEN,
         SEEN_BY_URL,
         SEEN_BY_DOMAIN
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,14 @@
 package com.mike.leadfarmfinder.service.discovery;
 
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.HttpStatusException;
-import org.jsoup.Jsoup;
-import org.jsoup.UnsupportedMimeTypeException;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -17,19 +17,13 @@ import java.util.Set;
 @Slf4j
 public class DiscoverySnippetFetcher {
 
-    private static final String USER_AGENT =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
-                    "AppleWebKit/537.36 (KHTML, like Gecko) " +
-                    "Chrome/129.0.0.0 Safari/537.36";
-
-    private static final String REFERRER = "https://www.google.com";
-
-    private static final int FETCH_TIMEOUT_MILLIS = 12_000;
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(12);
     private static final int MIN_TEXT_LENGTH = 120;
     private static final int MAX_TEXT_LENGTH = 2_000;
     private static final int MAX_ATTEMPTS_PER_URL = 2;
 
     private final DiscoveryContentTypeChecker contentTypeChecker;
+    private final PageFetcher pageFetcher;
 
     private record FetchResult(String snippet, boolean hostBlocked) {
         static FetchResult blocked() { return new FetchResult("", true); }
@@ -82,14 +76,24 @@ public class DiscoverySnippetFetcher {
 
         for (int attempt = 1; attempt <= MAX_ATTEMPTS_PER_URL; attempt++) {
             try {
-                Document document = Jsoup.connect(url)
-                        .userAgent(USER_AGENT)
-                        .referrer(REFERRER)
-                        .timeout(FETCH_TIMEOUT_MILLIS)
-                        .followRedirects(true)
-                        .ignoreHttpErrors(false)
-                        .get();
+                FetchedPage page = pageFetcher.get(url, FETCH_TIMEOUT);
+
+                if (!page.isSuccess()) {
+                    log.warn("DiscoverySnippetFetcher: failed to fetch text from {}: HTTP {}",
+                            url, page.status());
+                    if (page.status() == 403 || page.status() == 418) {
+                        return FetchResult.blocked(); // anty-bot — cały host blokujemy
+                    }
+                    return FetchResult.empty(); // 404, 500, inne — nie retry, nie zmieni się
+                }
+
+                if (!page.isHtmlLike()) {
+                    log.warn("DiscoverySnippetFetcher: failed to fetch text from {}: unsupported mime {}",
+                            url, page.contentType());
+                    return FetchResult.empty(); // mime się nie zmieni przy retry
+                }
 
+                Document document = page.document();
                 document.select("script,style,noscript").remove();
 
                 String text = document.text();
@@ -108,19 +112,6 @@ public class DiscoverySnippetFetcher {
 
                 return FetchResult.of(snippet);
 
-            } catch (UnsupportedMimeTypeException e) {
-                log.warn("DiscoverySnippetFetcher: failed to fetch text from {}: unsupported mime {}",
-                        url, e.getMimeType());
-                return FetchResult.empty(); // mime się nie zmieni przy retry
-
-            } catch (HttpStatusException e) {
-                log.warn("DiscoverySnippetFetcher: failed to fetch text from {}: HTTP {}",
-                        url, e.getStatusCode());
-                if (e.getStatusCode() == 403 || e.getStatusCode() == 418) {
-                    return FetchResult.blocked(); // anty-bot — cały host blokujemy
-                }
-                return FetchResult.empty(); // 404, 500, inne — nie retry, nie zmieni się
-
             } catch (Exception e) {
                 log.warn("DiscoverySnippetFetcher: failed to fetch text from {} (attempt {}/{}): {}",
                         url, attempt, MAX_ATTEMPTS_PER_URL, e.getMessage());
@@ -144,6 +135,7 @@ public class DiscoverySnippetFetcher {
                 || chainMessages.contains("Connection refused")
                 || chainMessages.contains("Connection reset")
                 || chainMessages.contains("UnknownHostException")
+                || chainMessages.contains("UnresolvedAddressException")
                 || chainMessages.contains("No route to host");
     }
 
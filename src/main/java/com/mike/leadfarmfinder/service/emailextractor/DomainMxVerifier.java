@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -17,7 +19,21 @@ public class DomainMxVerifier {
 
         if (!props.mxCheckEnabled()) return true;
 
-        MxLookUp.MxStatus mx = mxLookUp.checkDomain(domain);
+        return isAllowed(mxLookUp.checkDomain(domain), domain, rowEmailForLog);
+    }
+
+    /**
+     * Jak {@link #isDomainAllowed(String, String)}, ale bez blokowania na DNS — pozwala sprawdzić wszystkie domeny strony naraz.
+     */
+    public CompletableFuture<Boolean> isDomainAllowedAsync(String domain, String rowEmailForLog) {
+
+        if (!props.mxCheckEnabled()) return CompletableFuture.completedFuture(true);
+
+        return mxLookUp.checkDomainAsync(domain)
+                .thenApply(mx -> isAllowed(mx, domain, rowEmailForLog));
+    }
+
+    private boolean isAllowed(MxLookUp.MxStatus mx, String domain, String rowEmailForLog) {
 
         if (mx == MxLookUp.MxStatus.INVALID) return false;
 
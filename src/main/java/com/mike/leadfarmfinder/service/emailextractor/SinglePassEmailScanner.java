@@ -0,0 +1,305 @@
+package com.mike.leadfarmfinder.service.emailextractor;
+
+import com.mike.leadfarmfinder.service.CloudflareEmailDecoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Jednoprzebiegowy skaner kandydatów na e-mail — zastępuje łańcuch
+ * {@code TextObfuscationNormalizer} + {@code RegexTextExtractor} + {@code MailToExtractor} + {@code CloudflareCfEmailExtractor}
+ * (zostały w testach jako wzorzec dla testów zgodności i benchmarku).
+ * <p>
+ * Jedna liniowa pętla po {@link CharSequence} rozpoznaje: zwykłe adresy (ta sama gramatyka co
+ * {@code [a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}}), {@code mailto:}, {@code data-cfemail}
+ * oraz zaciemnienia {@code (at)/[dot]/ at / dot }. Stringi powstają tylko dla znalezionych kandydatów.
+ */
+@Component
+public class SinglePassEmailScanner {
+
+    private static final String MAILTO = "mailto:";
+    private static final String CF_EMAIL = "data-cfemail=\"";
+
+    public List<String> scan(CharSequence html) {
+        List<String> candidates = new ArrayList<>();
+        scan(html, candidates::add);
+        return candidates;
+    }
+
+    /**
+     * Kandydaci w kolejności wystąpienia w dokumencie (surowi — walidacja jest w {@code EmailExtractor}).
+     */
+    public void scan(CharSequence html, Consumer<String> candidates) {
+        if (html == null || html.isEmpty()) return;
+
+        int n = html.length();
+        StringBuilder run = new StringBuilder(64);
+        boolean runHasAt = false;
+        char[] replacement = new char[1];
+
+        int i = 0;
+        while (i < n) {
+            char c = html.charAt(i);
+
+            if ((c == 'm' || c == 'M') && regionMatches(html, i, MAILTO, true)) {
+                runHasAt = flush(run, runHasAt, candidates);
+                emitMailto(html, i + MAILTO.length(), candidates, replacement);
+                // adres w środku mailto: skanujemy dalej normalnie — jak regex po całym HTML
+                i += MAILTO.length();
+                continue;
+            }
+
+            if (c == 'd' && regionMatches(html, i, CF_EMAIL, false)) {
+                runHasAt = flush(run, runHasAt, candidates);
+                i = emitCfEmail(html, i + CF_EMAIL.length(), candidates);
+                continue;
+            }
+
+            if (isWhitespace(c) || isOpenBracket(c)) {
+                int end = matchObfuscation(html, i, replacement);
+                if (end > i) {
+                    run.append(replacement[0]);
+                    runHasAt |= replacement[0] == '@';
+                    i = end;
+                    continue;
+                }
+            }
+
+            if (isLocalChar(c) || c == '@') {
+                run.append(c);
+                runHasAt |= c == '@';
+            } else {
+                runHasAt = flush(run, runHasAt, candidates);
+            }
+            i++;
+        }
+        flush(run, runHasAt, candidates);
+    }
+
+    /**
+     * Ta sama normalizacja co dawny {@code TextObfuscationNormalizer#normalize(String)}, dla krótkich wartości (np. mailto).
+     */
+    static String normalizeObfuscation(CharSequence value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        char[] replacement = new char[1];
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (isWhitespace(c) || isOpenBracket(c)) {
+                int end = matchObfuscation(value, i, replacement);
+                if (end > i) {
+                    sb.append(replacement[0]);
+                    i = end;
+                    continue;
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    // zawsze zwraca false — wygodne do resetu flagi runHasAt
+    private static boolean flush(StringBuilder run, boolean runHasAt, Consumer<String> candidates) {
+        if (runHasAt) {
+            emitAddresses(run, candidates);
+        }
+        run.setLength(0);
+        return false;
+    }
+
+    /**
+     * Odpowiednik {@code Matcher.find()} dla wzorca adresu, ale tylko w obrębie jednego „słowa” złożonego
+     * ze znaków adresu (wzorzec i tak nie może go przekroczyć).
+     */
+    private static void emitAddresses(StringBuilder run, Consumer<String> candidates) {
+        int localStart = 0;
+        int at = run.indexOf("@");
+        while (at >= 0) {
+            if (at > localStart) {
+                int end = domainEnd(run, at + 1);
+                if (end > 0) {
+                    candidates.accept(run.substring(localStart, end));
+                    localStart = end;
+                    at = run.indexOf("@", end);
+                    continue;
+                }
+            }
+            // local part nie może zawierać '@' — następny kandydat zaczyna się za nim
+            localStart = at + 1;
+            at = run.indexOf("@", at + 1);
+        }
+    }
+
+    /**
+     * {@code [a-zA-Z0-9.-]+\.[a-zA-Z]{2,}} z backtrackingiem: ostatnia kropka, po której są min. 2 litery.
+     *
+     * @return indeks końca dopasowania albo -1
+     */
+    private static int domainEnd(CharSequence run, int from) {
+        int spanEnd = from;
+        while (spanEnd < run.length() && isDomainChar(run.charAt(spanEnd))) {
+            spanEnd++;
+        }
+
+        for (int dot = spanEnd - 3; dot > from; dot--) {
+            if (run.charAt(dot) == '.' && isAsciiLetter(run.charAt(dot + 1)) && isAsciiLetter(run.charAt(dot + 2))) {
+                int end = dot + 3;
+                while (end < spanEnd && isAsciiLetter(run.charAt(end))) {
+                    end++;
+                }
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    private static void emitMailto(CharSequence html, int from, Consumer<String> candidates, char[] replacement) {
+        int end = from;
+        while (end < html.length()) {
+            char c = html.charAt(end);
+            if (c == '"' || c == '\'' || c == '>' || isWhitespace(c)) break;
+            end++;
+        }
+        if (end == from) return;
+
+        int valueEnd = end;
+        for (int q = from; q < end; q++) {
+            if (html.charAt(q) == '?') {
+                valueEnd = q;
+                break;
+            }
+        }
+
+        String raw = normalizeObfuscation(html.subSequence(from, valueEnd));
+        if (!raw.isBlank()) candidates.accept(raw);
+    }
+
+    /**
+     * @return pozycja, od której skanujemy dalej
+     */
+    private static int emitCfEmail(CharSequence html, int from, Consumer<String> candidates) {
+        int end = from;
+        while (end < html.length() && isHexDigit(html.charAt(end))) {
+            end++;
+        }
+        if (end == from || end >= html.length() || html.charAt(end) != '"') {
+            return from;
+        }
+
+        emitDecodedCfEmail(html.subSequence(from, end), candidates);
+        return end + 1;
+    }
+
+    /**
+     * Wartość atrybutu {@code data-cfemail} (np. z DOM) — nieprawidłowy hex jest pomijany.
+     */
+    public void decodeCloudflare(CharSequence hex, Consumer<String> candidates) {
+        emitDecodedCfEmail(hex, candidates);
+    }
+
+    private static void emitDecodedCfEmail(CharSequence hex, Consumer<String> candidates) {
+        if (hex == null || hex.length() < 2 || hex.length() % 2 != 0) return;
+        for (int k = 0; k < hex.length(); k++) {
+            if (!isHexDigit(hex.charAt(k))) return;
+        }
+        String decoded = CloudflareEmailDecoder.decode(hex.toString());
+        if (decoded != null && !decoded.isBlank()) candidates.accept(decoded);
+    }
+
+    /**
+     * Rozpoznaje {@code \s*[([{<]\s*(at|dot)\s*[)\]}>]\s*} albo {@code \s+(at|dot)\s+} od pozycji {@code i}.
+     *
+     * @return koniec tokenu (wyłącznie) albo {@code i}, gdy nic nie pasuje; znak zastępczy trafia do {@code replacement[0]}
+     */
+    private static int matchObfuscation(CharSequence s, int i, char[] replacement) {
+        int n = s.length();
+
+        int j = skipWhitespace(s, i);
+        if (j < n && isOpenBracket(s.charAt(j))) {
+            int k = skipWhitespace(s, j + 1);
+            int wordEnd = matchAtOrDot(s, k, replacement);
+            if (wordEnd > k) {
+                k = skipWhitespace(s, wordEnd);
+                if (k < n && isCloseBracket(s.charAt(k))) {
+                    return skipWhitespace(s, k + 1);
+                }
+            }
+        }
+
+        if (j > i) {
+            int wordEnd = matchAtOrDot(s, j, replacement);
+            if (wordEnd > j) {
+                int k = skipWhitespace(s, wordEnd);
+                if (k > wordEnd) {
+                    return k;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static int matchAtOrDot(CharSequence s, int i, char[] replacement) {
+        if (regionMatches(s, i, "at", true)) {
+            replacement[0] = '@';
+            return i + 2;
+        }
+        if (regionMatches(s, i, "dot", true)) {
+            replacement[0] = '.';
+            return i + 3;
+        }
+        return i;
+    }
+
+    private static boolean regionMatches(CharSequence s, int offset, String token, boolean ignoreCase) {
+        if (offset + token.length() > s.length()) return false;
+        for (int k = 0; k < token.length(); k++) {
+            char a = s.charAt(offset + k);
+            char b = token.charAt(k);
+            if (a != b && !(ignoreCase && Character.toLowerCase(a) == b)) return false;
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(CharSequence s, int i) {
+        while (i < s.length() && isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // \s w java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    private static boolean isOpenBracket(char c) {
+        return c == '(' || c == '[' || c == '{' || c == '<';
+    }
+
+    private static boolean isCloseBracket(char c) {
+        return c == ')' || c == ']' || c == '}' || c == '>';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '.' || c == '-';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isAsciiDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
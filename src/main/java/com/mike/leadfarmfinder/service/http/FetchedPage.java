@@ -0,0 +1,75 @@
+package com.mike.leadfarmfinder.service.http;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Odpowiedź z {@link PageFetcher}: status, finalny URL po redirectach, Content-Type i (zdekompresowane) body.
+ * Dla HEAD / probe bez body {@code body} jest puste.
+ */
+public record FetchedPage(
+        String requestedUrl,
+        String finalUrl,
+        int status,
+        String contentType,
+        byte[] body
+) {
+
+    public FetchedPage {
+        body = body == null ? new byte[0] : body;
+    }
+
+    public boolean isSuccess() {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Ta sama reguła co w Jsoup: brak Content-Type, text/*, xml lub xhtml.
+     */
+    public boolean isHtmlLike() {
+        if (contentType == null || contentType.isBlank()) {
+            return true;
+        }
+        String mime = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return mime.startsWith("text/")
+                || mime.equals("application/xml")
+                || mime.endsWith("+xml");
+    }
+
+    public Document document() {
+        try {
+            return Jsoup.parse(new ByteArrayInputStream(body), charset(), finalUrl);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String charset() {
+        if (contentType == null) {
+            return null;
+        }
+        for (String part : contentType.split(";")) {
+            String p = part.trim();
+            if (p.regionMatches(true, 0, "charset=", 0, 8)) {
+                String value = p.substring(8).replace("\"", "").trim();
+                return isSupportedCharset(value) ? value : null;
+            }
+        }
+        return null;
+    }
+
+    // nieznany charset w nagłówku -> null, Jsoup wykryje z <meta> / BOM
+    private static boolean isSupportedCharset(String name) {
+        try {
+            return !name.isEmpty() && Charset.isSupported(name);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
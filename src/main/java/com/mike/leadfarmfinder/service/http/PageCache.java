@@ -0,0 +1,222 @@
+package com.mike.leadfarmfinder.service.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Krótkotrwały cache odpowiedzi GET (status, finalny URL, body) na czas jednego przebiegu discovery/scrape.
+ * <p>
+ * Klucz = znormalizowany URL (żądany oraz finalny po redirectach). Każdy {@link Run} ma własne wpisy
+ * i liczniki, więc równoległe przebiegi (cron pipeline, ręczny run, katalogi) nie widzą swoich stron.
+ * Run jest przypięty do wątku, który go otworzył, i do wątków workerów tworzonych w jego trakcie;
+ * {@link #open(String)} wywołane wewnątrz otwartego przebiegu dołącza do niego (np. scrape w środku
+ * pipeline'u). Zamknięcie przebiegu loguje oszczędności (requesty i bajty) i czyści jego cache.
+ */
+@Slf4j
+public class PageCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // dziedziczony, bo pipeline, crawler i fetch kontaktów tworzą wątki workerów w trakcie przebiegu
+    private final InheritableThreadLocal<Run> currentRun = new InheritableThreadLocal<>();
+
+    public PageCache(boolean enabled, int maxEntries, long maxBytes) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    public Run open(String label) {
+        Run current = activeRun();
+        if (current != null) {
+            return current.join();
+        }
+        Run run = new Run(label);
+        currentRun.set(run);
+        return run;
+    }
+
+    /**
+     * @param withBody {@code false} dla HEAD / probe nagłówków — liczymy zaoszczędzony request, ale nie bajty
+     */
+    Optional<FetchedPage> find(String url, boolean withBody) {
+        Run run = enabled ? activeRun() : null;
+        return run == null ? Optional.empty() : run.find(url, withBody);
+    }
+
+    void put(FetchedPage page) {
+        Run run = enabled ? activeRun() : null;
+        if (run == null || page == null || !isCacheableStatus(page.status()) || page.body().length > maxBytes) {
+            return;
+        }
+        run.put(page);
+    }
+
+    private Run activeRun() {
+        Run run = currentRun.get();
+        return run == null || run.isClosed() ? null : run;
+    }
+
+    // 408/429/5xx są chwilowe — przy następnym podejściu strona może już odpowiedzieć
+    private static boolean isCacheableStatus(int status) {
+        return status >= 200 && status < 500 && status != 408 && status != 429;
+    }
+
+    static String key(String url) {
+        if (url == null) {
+            return "";
+        }
+        String trimmed = url.trim();
+        try {
+            URI uri = URI.create(trimmed);
+            String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+            String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            boolean defaultPort = port == -1
+                    || ("https".equals(scheme) && port == 443)
+                    || ("http".equals(scheme) && port == 80);
+
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+
+            StringBuilder sb = new StringBuilder(scheme).append("://").append(host);
+            if (!defaultPort) {
+                sb.append(':').append(port);
+            }
+            sb.append(path);
+            if (uri.getRawQuery() != null) {
+                sb.append('?').append(uri.getRawQuery());
+            }
+            return sb.toString();
+        } catch (IllegalArgumentException e) {
+            return trimmed;
+        }
+    }
+
+    /**
+     * Przebieg z własnym cache i licznikami. Uchwyty zwrócone przez zagnieżdżone {@link #open(String)}
+     * tylko dołączają — cache czyści dopiero zamknięcie uchwytu, który przebieg otworzył.
+     */
+    public final class Run implements AutoCloseable {
+
+        private final Run owner;
+        private final String label;
+        private final long startedNanos;
+
+        private final LinkedHashMap<String, FetchedPage> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long cachedBytes;
+
+        private long requestsSaved;
+        private long bytesSaved;
+        private long misses;
+
+        private boolean closed;
+
+        private Run(String label) {
+            this.owner = this;
+            this.label = label;
+            this.startedNanos = System.nanoTime();
+        }
+
+        private Run(Run owner) {
+            this.owner = owner;
+            this.label = owner.label;
+            this.startedNanos = owner.startedNanos;
+        }
+
+        public Stats stats() {
+            synchronized (owner) {
+                return new Stats(owner.requestsSaved, owner.bytesSaved, owner.misses, owner.entries.size(), owner.cachedBytes);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (owner != this) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (enabled) {
+                    log.info("PageCache: run '{}' finished in {} ms requestsSaved={} bytesSaved={} misses={} entries={}",
+                            label, (System.nanoTime() - startedNanos) / 1_000_000L,
+                            requestsSaved, bytesSaved, misses, entries.size());
+                }
+                entries.clear();
+                cachedBytes = 0;
+            }
+            if (currentRun.get() == this) {
+                currentRun.remove();
+            }
+        }
+
+        private Run join() {
+            return new Run(this);
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private synchronized Optional<FetchedPage> find(String url, boolean withBody) {
+            if (closed) {
+                return Optional.empty();
+            }
+            FetchedPage cached = entries.get(key(url));
+            if (cached == null) {
+                misses++;
+                return Optional.empty();
+            }
+
+            requestsSaved++;
+            if (withBody) {
+                bytesSaved += cached.body().length;
+            }
+            return Optional.of(new FetchedPage(url, cached.finalUrl(), cached.status(), cached.contentType(),
+                    withBody ? cached.body() : null));
+        }
+
+        private synchronized void put(FetchedPage page) {
+            if (closed) {
+                return;
+            }
+            store(key(page.requestedUrl()), page);
+            if (page.finalUrl() != null) {
+                store(key(page.finalUrl()), page);
+            }
+            evict();
+        }
+
+        private void store(String key, FetchedPage page) {
+            FetchedPage previous = entries.put(key, page);
+            if (previous != null) {
+                cachedBytes -= previous.body().length;
+            }
+            cachedBytes += page.body().length;
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<String, FetchedPage>> it = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || cachedBytes > maxBytes) && it.hasNext()) {
+                cachedBytes -= it.next().getValue().body().length;
+                it.remove();
+            }
+        }
+    }
+
+    public record Stats(long requestsSaved, long bytesSaved, long misses, int entries, long cachedBytes) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.mike.leadfarmfinder.service.http;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Wspólny klient HTTP dla snippet fetch, probe, crawl i scrape.
+ * <p>
+ * Jeden {@link HttpClient} (HTTP/2 z fallbackiem na 1.1, keep-alive, wspólna pula połączeń i sesji TLS),
+ * gzip/deflate oraz limit równoległych requestów na host ({@code leadfinder.http.max-connections-per-host}).
+ * W trakcie przebiegu otwartego przez {@link #openRun(String)} odpowiedzi idą przez {@link PageCache}.
+ */
+@Component
+@Slf4j
+public class PageFetcher {
+
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
+                    "AppleWebKit/537.36 (KHTML, like Gecko) " +
+                    "Chrome/129.0.0.0 Safari/537.36";
+
+    private static final String REFERRER = "https://www.google.com";
+    private static final String ACCEPT_HEADER = "text/html,application/xhtml+xml;q=0.9,*/*;q=0.1";
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final HttpClient httpClient;
+    private final int maxConnectionsPerHost;
+    private final int maxBodyBytes;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final PageCache pageCache;
+
+    public PageFetcher(LeadFinderProperties leadFinderProperties) {
+        LeadFinderProperties.Http http = leadFinderProperties.getHttp();
+        this.maxConnectionsPerHost = Math.max(1, http.getMaxConnectionsPerHost());
+        this.maxBodyBytes = Math.max(1, http.getMaxBodyBytes());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1, http.getConnectTimeoutMillis())))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.pageCache = new PageCache(http.isPageCacheEnabled(), http.getPageCacheMaxEntries(), http.getPageCacheMaxBytes());
+    }
+
+    /**
+     * Otwiera przebieg z cache stron — ta sama strona pobrana przez snippet fetcher, probe,
+     * crawler i scraper idzie przez sieć raz. Używać w try-with-resources.
+     */
+    public PageCache.Run openRun(String label) {
+        return pageCache.open(label);
+    }
+
+    /**
+     * GET z body. Statusy 4xx/5xx nie rzucają wyjątku — decyzja należy do wywołującego.
+     */
+    public FetchedPage get(String url, Duration timeout) throws IOException {
+        Optional<FetchedPage> cached = pageCache.find(url, true);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        FetchedPage page = send(url, "GET", timeout, true);
+        pageCache.put(page);
+        return page;
+    }
+
+    public FetchedPage head(String url, Duration timeout) throws IOException {
+        Optional<FetchedPage> cached = pageCache.find(url, false);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return send(url, "HEAD", timeout, false);
+    }
+
+    /**
+     * GET, z którego bierzemy tylko status i nagłówki (gdy serwer nie obsługuje HEAD).
+     */
+    public FetchedPage getHeaders(String url, Duration timeout) throws IOException {
+        Optional<FetchedPage> cached = pageCache.find(url, false);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return send(url, "GET", timeout, false);
+    }
+
+    private FetchedPage send(String url, String method, Duration timeout, boolean readBody) throws IOException {
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid url: " + url, e);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Referer", REFERRER)
+                .header("Accept", ACCEPT_HEADER)
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .method(method, HttpRequest.BodyPublishers.noBody());
+
+        // h2c upgrade na czystym http potrafi zepsuć stare serwery — HTTP/2 tylko po TLS (ALPN)
+        if ("http".equalsIgnoreCase(uri.getScheme())) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+
+        Semaphore permits = hostPermits.computeIfAbsent(hostKey(uri), h -> new Semaphore(maxConnectionsPerHost));
+        acquire(permits, uri, timeout);
+        // HttpRequest.timeout obejmuje tylko czekanie na nagłówki — body czytamy w tym samym future,
+        // więc get(timeout) jest limitem na całą odpowiedź (wolno sączący serwer nie blokuje workera)
+        int bodyLimit = readBody ? maxBodyBytes : 0;
+        CompletableFuture<HttpResponse<byte[]>> future =
+                httpClient.sendAsync(builder.build(), info -> new LimitedBodySubscriber(bodyLimit));
+        try {
+            HttpResponse<byte[]> response = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            String contentType = response.headers().firstValue("Content-Type")
+                    .map(String::trim)
+                    .filter(v -> !v.isEmpty())
+                    .orElse(null);
+
+            byte[] body = readBody
+                    ? decodeLimited(response.body(), response.headers().firstValue("Content-Encoding").orElse(null))
+                    : new byte[0];
+
+            return new FetchedPage(url, response.uri().toString(), response.statusCode(), contentType, body);
+
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HttpTimeoutException("Fetching " + url + " exceeded " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to fetch " + url, cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire(Semaphore permits, URI uri, Duration timeout) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for a connection slot host=" + uri.getHost());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection slot host=" + uri.getHost(), e);
+        }
+    }
+
+    private byte[] decodeLimited(byte[] raw, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return raw;
+        }
+        return readLimited(decode(new ByteArrayInputStream(raw), contentEncoding));
+    }
+
+    private InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(raw);
+            case "deflate" -> new InflaterInputStream(raw);
+            default -> raw;
+        };
+    }
+
+    // jak maxBodySize w Jsoup: resztę ucinamy zamiast rzucać
+    private byte[] readLimited(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        try {
+            while (total < maxBodyBytes && (read = in.read(buffer, 0, Math.min(buffer.length, maxBodyBytes - total))) != -1) {
+                out.write(buffer, 0, read);
+                total += read;
+            }
+        } catch (EOFException e) {
+            // skompresowane body ucięte na max-body-bytes — zostaje to, co zdążyło się rozpakować
+        }
+        return out.toByteArray();
+    }
+
+    private String hostKey(URI uri) {
+        String host = uri.getHost();
+        return host == null ? "" : host.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Zbiera body do {@code maxBytes}, potem anuluje subskrypcję (reszta nie jest pobierana).
+     */
+    private static final class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final int maxBytes;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        private LimitedBodySubscriber(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                int take = Math.min(buffer.remaining(), maxBytes - out.size());
+                byte[] chunk = new byte[take];
+                buffer.get(chunk);
+                out.write(chunk, 0, take);
+            }
+            if (out.size() >= maxBytes) {
+                subscription.cancel();
+                result.complete(out.toByteArray());
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(out.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import java.util.List;
+
+/**
+ * Wysyłka wielu maili jednym wywołaniem providera (np. SES {@code SendBulkEmail}).
+ */
+public interface BulkMailSenderGateway {
+
+    int maxBatchSize();
+
+    /**
+     * @return wynik dla każdego maila, w tej samej kolejności co {@code mails}
+     */
+    List<SendResult> sendBulk(List<PreparedMail> mails);
+}
@@ -0,0 +1,153 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Szablon maila rozbity raz na segmenty: stały tekst i sloty ({@code {{EMAIL}}}, {@code {{UNSUBSCRIBE_URL}}}).
+ * <p>
+ * Render to jedno przejście appendów do {@link StringBuilder} o znanym rozmiarze, zamiast
+ * {@code String.replace} per zmienna (każdy tworzy nową kopię całej treści).
+ * Wersja HTML ma stały tekst wyescapowany już przy kompilacji; escapowane są tylko wartości slotów.
+ * Nieznane placeholdery zostają w treści bez zmian — tak jak przy {@code String.replace}.
+ */
+public final class CompiledMailTemplate {
+
+    public enum Slot {
+        EMAIL, UNSUBSCRIBE_URL
+    }
+
+    private final String source;
+    private final String[] texts;
+    private final String[] htmlTexts;
+    private final Slot[] slots;
+    private final int textLength;
+    private final int htmlTextLength;
+
+    private CompiledMailTemplate(String source, List<String> texts, List<Slot> slots) {
+        this.source = source;
+        this.texts = texts.toArray(String[]::new);
+        this.slots = slots.toArray(Slot[]::new);
+        this.htmlTexts = new String[this.texts.length];
+
+        int length = 0;
+        int htmlLength = 0;
+        for (int i = 0; i < this.texts.length; i++) {
+            htmlTexts[i] = escapeHtml(this.texts[i]);
+            length += this.texts[i].length();
+            htmlLength += htmlTexts[i].length();
+        }
+        this.textLength = length;
+        this.htmlTextLength = htmlLength;
+    }
+
+    public static CompiledMailTemplate compile(String source) {
+        String template = source == null ? "" : source;
+        List<String> texts = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+
+        StringBuilder text = new StringBuilder();
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            Slot slot = slotOf(template.substring(open + 2, close));
+            if (slot == null) {
+                // nie nasz placeholder: zostaje jako tekst, szukamy dalej za "{{"
+                text.append(template, pos, open + 2);
+                pos = open + 2;
+                continue;
+            }
+            text.append(template, pos, open);
+            texts.add(text.toString());
+            slots.add(slot);
+            text.setLength(0);
+            pos = close + 2;
+        }
+        text.append(template, pos, template.length());
+        texts.add(text.toString());
+
+        return new CompiledMailTemplate(source, texts, slots);
+    }
+
+    /**
+     * @return oryginalna treść szablonu (z placeholderami), np. do rejestracji jako template SES
+     */
+    public String source() {
+        return source;
+    }
+
+    public String render(String email, String unsubscribeUrl) {
+        String emailValue = email != null ? email : "";
+        String urlValue = unsubscribeUrl != null ? unsubscribeUrl : "";
+
+        StringBuilder out = new StringBuilder(textLength + slotsLength(emailValue, urlValue));
+        for (int i = 0; i < slots.length; i++) {
+            out.append(texts[i]);
+            out.append(slots[i] == Slot.EMAIL ? emailValue : urlValue);
+        }
+        out.append(texts[slots.length]);
+        return out.toString();
+    }
+
+    /**
+     * Treść jako fragment HTML: {@code & < >} wyescapowane, nowe linie jako {@code <br>}.
+     */
+    public String renderHtml(String email, String unsubscribeUrl) {
+        String emailValue = email != null ? email : "";
+        String urlValue = unsubscribeUrl != null ? unsubscribeUrl : "";
+
+        // +16: zapas na encje w wartościach slotów, które są escapowane dopiero tutaj
+        StringBuilder out = new StringBuilder(htmlTextLength + slotsLength(emailValue, urlValue) + 16);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(htmlTexts[i]);
+            appendEscapedHtml(out, slots[i] == Slot.EMAIL ? emailValue : urlValue);
+        }
+        out.append(htmlTexts[slots.length]);
+        return out.toString();
+    }
+
+    public static String escapeHtml(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        appendEscapedHtml(out, text);
+        return out.toString();
+    }
+
+    private static void appendEscapedHtml(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '\n' -> out.append("<br>\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private int slotsLength(String email, String unsubscribeUrl) {
+        int length = 0;
+        for (Slot slot : slots) {
+            length += slot == Slot.EMAIL ? email.length() : unsubscribeUrl.length();
+        }
+        return length;
+    }
+
+    private static Slot slotOf(String name) {
+        return switch (name) {
+            case "EMAIL" -> Slot.EMAIL;
+            case "UNSUBSCRIBE_URL" -> Slot.UNSUBSCRIBE_URL;
+            default -> null;
+        };
+    }
+}
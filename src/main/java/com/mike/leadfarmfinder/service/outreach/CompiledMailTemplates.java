@@ -0,0 +1,49 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.EmailTemplateVariants;
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Szablony z {@link EmailTemplateVariants} i {@link OutreachProperties} skompilowane raz przy starcie.
+ */
+@Slf4j
+@Component
+public class CompiledMailTemplates {
+
+    private final Map<String, CompiledMailTemplate> bySource = new ConcurrentHashMap<>();
+
+    public CompiledMailTemplates(OutreachProperties outreachProperties, EmailTemplateVariants emailTemplateVariants) {
+        compileAll(emailTemplateVariants.getFirst());
+        compileAll(emailTemplateVariants.getFollowUp());
+        compileAll(List.of(nullToEmpty(outreachProperties.getFirstEmailBodyTemplate()),
+                nullToEmpty(outreachProperties.getFollowUpEmailBodyTemplate())));
+        log.info("CompiledMailTemplates: compiled {} templates", bySource.size());
+    }
+
+    /**
+     * @param source treść szablonu z configu; {@code null} = pusty szablon
+     */
+    public CompiledMailTemplate get(String source) {
+        // szablon spoza configu (np. zmieniony w runtime) kompilujemy przy pierwszym użyciu
+        return bySource.computeIfAbsent(nullToEmpty(source), CompiledMailTemplate::compile);
+    }
+
+    private void compileAll(List<String> sources) {
+        if (sources == null) {
+            return;
+        }
+        for (String source : sources) {
+            get(source);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -6,9 +6,7 @@ import com.mike.leadfarmfinder.entity.FarmLead;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -18,17 +16,17 @@ public class DefaultMailComposer implements MailComposer {
     private final EmailTemplateVariants emailTemplateVariants;
     private final MailTemplateVariantSelector templateVariantSelector;
     private final UnsubscribeUrlBuilder unsubscribeUrlBuilder;
+    private final CompiledMailTemplates compiledMailTemplates;
 
     @Override
     public PreparedMail compose(FarmLead lead, String normalizeTo, EmailType type) {
         String from = outreachProperties.getFromAddress();
 
         String unsubscribeUrl = unsubscribeUrlBuilder.build(lead);
-        Map<String, String> vars = buildTemplateVars(normalizeTo, unsubscribeUrl);
 
         String subject = resolveSubject(type);
-        String template = resolveBodyTemplate(lead, type);
-        String body = renderTemplate(template, vars);
+        CompiledMailTemplate template = compiledMailTemplates.get(resolveBodyTemplate(lead, type));
+        String body = template.render(normalizeTo, unsubscribeUrl);
 
         return new PreparedMail(
                 from,
@@ -37,17 +35,11 @@ public class DefaultMailComposer implements MailComposer {
                 body,
                 unsubscribeUrl,
                 lead.getId(),
-                type.name()
+                type.name(),
+                template
         );
     }
 
-    private Map<String, String> buildTemplateVars(String email, String unsubscribeUrl) {
-        Map<String, String> vars = new HashMap<>();
-        vars.put("EMAIL", email);
-        vars.put("UNSUBSCRIBE_URL", unsubscribeUrl);
-        return vars;
-    }
-
     private String resolveSubject(EmailType type) {
         return type == EmailType.FIRST
                 ? outreachProperties.getDefaultSubject()
@@ -73,15 +65,4 @@ public class DefaultMailComposer implements MailComposer {
                 ? outreachProperties.getFirstEmailBodyTemplate()
                 : outreachProperties.getFollowUpEmailBodyTemplate();
     }
-
-    private String renderTemplate(String template, Map<String, String> variables) {
-        if (template == null) return "";
-        String result = template;
-        for (var entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace(placeholder, value);
-        }
-        return result;
-    }
 }
\ No newline at end of file
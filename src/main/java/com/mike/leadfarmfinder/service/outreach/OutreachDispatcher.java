@@ -0,0 +1,133 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.service.OutreachService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wysyła batch leadów równolegle ({@code leadfinder.outreach.dispatch.workers}) przez {@link OutreachService}.
+ * <p>
+ * Tempo nie wynika z liczby wątków ani ze sleepów — pilnuje go {@link OutreachRateLimiter} przed każdym
+ * wywołaniem {@link MailSenderGateway}, więc workery wypełniają dozwolony limit mimo opóźnień SMTP/SES.
+ * <p>
+ * Limit domeny odbiorcy sprawdzany jest przed przydzieleniem leada do wolnego workera: lead z domeny bez
+ * wolnego tokenu (np. t-online.de) wraca na koniec kolejki, a worker bierze następny. Czeka tylko dispatcher,
+ * i to dopiero wtedy, gdy w kolejce zostały same leady z przyhamowanych domen.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutreachDispatcher {
+
+    private final OutreachService outreachService;
+    private final OutreachProperties outreachProperties;
+    private final OutreachRateLimiter outreachRateLimiter;
+
+    public DispatchResult dispatch(List<FarmLead> leads, EmailType type) {
+        if (leads == null || leads.isEmpty()) {
+            return new DispatchResult(0, 0);
+        }
+
+        // pierwsze maile w paczkach pod bulk API providera (SES SendBulkEmail), reszta pojedynczo
+        int chunkSize = type == EmailType.FIRST ? Math.max(1, outreachService.firstEmailBatchSize()) : 1;
+        Deque<FarmLead> queue = new ArrayDeque<>(leads);
+
+        int workers = Math.max(1, Math.min(outreachProperties.getDispatch().getWorkers(), leads.size()));
+        Semaphore freeWorkers = new Semaphore(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                workers,
+                Thread.ofVirtual().name("outreach-send-", 0).factory());
+
+        int succeeded = 0;
+        int failed = 0;
+        try {
+            List<List<FarmLead>> chunks = new ArrayList<>();
+            List<Future<?>> sends = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                // token domeny bierzemy dopiero, gdy jest wolny worker — inaczej lead czekałby w kolejce executora
+                freeWorkers.acquire();
+                List<FarmLead> chunk = nextChunk(queue, chunkSize);
+                chunks.add(chunk);
+                sends.add(executor.submit(() -> {
+                    try {
+                        send(chunk, type);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < sends.size(); i++) {
+                List<FarmLead> chunk = chunks.get(i);
+                try {
+                    sends.get(i).get();
+                    succeeded += chunk.size();
+                } catch (ExecutionException e) {
+                    failed += chunk.size();
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.warn("OutreachDispatcher: error sending {} to leadIds={} msg={}",
+                            type, chunk.stream().map(FarmLead::getId).toList(), cause.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("OutreachDispatcher: interrupted, cancelling remaining sends");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new DispatchResult(succeeded, failed);
+    }
+
+    /**
+     * Do {@code chunkSize} leadów z kolejki, których domena mieści się w limicie; pozostałe przesuwa na koniec.
+     * Czeka tylko wtedy, gdy żaden lead z kolejki nie może jeszcze iść.
+     */
+    private List<FarmLead> nextChunk(Deque<FarmLead> queue, int chunkSize) throws InterruptedException {
+        List<FarmLead> chunk = new ArrayList<>(chunkSize);
+        while (chunk.isEmpty()) {
+            long waitNanos = Long.MAX_VALUE;
+            for (int remaining = queue.size(); remaining > 0 && chunk.size() < chunkSize; remaining--) {
+                FarmLead lead = queue.pollFirst();
+                long leadWaitNanos = outreachRateLimiter.tryAcquireDomain(lead.getEmail());
+                if (leadWaitNanos == 0) {
+                    chunk.add(lead);
+                } else {
+                    queue.addLast(lead);
+                    waitNanos = Math.min(waitNanos, leadWaitNanos);
+                }
+            }
+            if (chunk.isEmpty()) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+        return chunk;
+    }
+
+    private void send(List<FarmLead> chunk, EmailType type) {
+        if (type == EmailType.FOLLOW_UP) {
+            chunk.forEach(outreachService::sendFollowUpEmail);
+        } else if (chunk.size() == 1) {
+            outreachService.sendFirstEmail(chunk.get(0));
+        } else {
+            outreachService.sendFirstEmails(chunk);
+        }
+    }
+
+    public record DispatchResult(int succeeded, int failed) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.EmailProperties;
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limity tempa wysyłki: jeden bucket dla providera (np. max send rate konta SES, limit SMTP)
+ * i osobne buckety dla skonfigurowanych domen odbiorców (np. t-online.de throttluje szybciej niż provider).
+ * <p>
+ * Bez wpisu dla providera tempo wynika z {@code delay-between-emails-millis} — tak jak przy sekwencyjnym cronie.
+ * <p>
+ * Limit domeny jest sprawdzany bez czekania ({@link #tryAcquireDomain(String)}) — na wolną domenę czeka
+ * {@link OutreachDispatcher}, nie worker. Na provider worker czeka ({@link #acquireProvider()}), bo dotyczy każdej wysyłki.
+ */
+@Component
+@Slf4j
+public class OutreachRateLimiter {
+
+    private final TokenBucket providerBucket;
+    private final Map<String, TokenBucket> domainBuckets = new HashMap<>();
+    private final int providerBurst;
+
+    public OutreachRateLimiter(OutreachProperties outreachProperties, EmailProperties emailProperties) {
+        OutreachProperties.Dispatch dispatch = outreachProperties.getDispatch();
+        String provider = emailProperties.provider() == null ? "smtp" : emailProperties.provider().toLowerCase(Locale.ROOT);
+
+        Double providerRate = dispatch.getProviderRatePerSecond().get(provider);
+        if (providerRate == null && outreachProperties.getDelayBetweenEmailsMillis() > 0) {
+            providerRate = 1000.0 / outreachProperties.getDelayBetweenEmailsMillis();
+        }
+        this.providerBucket = bucketOrNull(providerRate, dispatch.getProviderBurst());
+
+        dispatch.getDomainRatePerSecond().forEach((domain, rate) -> {
+            TokenBucket bucket = bucketOrNull(rate, dispatch.getDomainBurst());
+            if (bucket != null) {
+                domainBuckets.put(domain.toLowerCase(Locale.ROOT), bucket);
+            }
+        });
+
+        this.providerBurst = providerBucket == null ? Integer.MAX_VALUE : Math.max(1, dispatch.getProviderBurst());
+
+        log.info("OutreachRateLimiter: provider={} rate={}/s burst={}, domain limits={}",
+                provider, providerRate == null ? "unlimited" : providerRate, providerBurst, dispatch.getDomainRatePerSecond());
+    }
+
+    /**
+     * Pobiera token domeny {@code recipient} bez czekania.
+     *
+     * @return 0, gdy wysyłka mieści się w limicie domeny (albo domena nie ma limitu), w przeciwnym razie
+     * czas w nanosekundach do następnego tokenu
+     */
+    public long tryAcquireDomain(String recipient) {
+        TokenBucket domainBucket = domainBuckets.get(domainOf(recipient));
+        return domainBucket == null ? 0 : domainBucket.tryAcquire();
+    }
+
+    /**
+     * Blokuje do momentu, aż kolejna wysyłka mieści się w limicie providera.
+     */
+    public void acquireProvider() throws InterruptedException {
+        if (providerBucket != null) {
+            providerBucket.acquire();
+        }
+    }
+
+    /**
+     * Ilu odbiorców limiter providera przepuszcza naraz bez czekania ({@code dispatch.provider-burst});
+     * {@link Integer#MAX_VALUE}, gdy provider nie ma limitu. Limity domen mają własną pojemność.
+     */
+    public int providerBurst() {
+        return providerBurst;
+    }
+
+    private static TokenBucket bucketOrNull(Double ratePerSecond, int burst) {
+        return ratePerSecond == null || ratePerSecond <= 0 ? null : new TokenBucket(ratePerSecond, burst);
+    }
+
+    private static String domainOf(String recipient) {
+        if (recipient == null) {
+            return "";
+        }
+        int at = recipient.lastIndexOf('@');
+        return at < 0 ? "" : recipient.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+    }
+}
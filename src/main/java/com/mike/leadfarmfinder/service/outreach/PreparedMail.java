@@ -1,5 +1,9 @@
 package com.mike.leadfarmfinder.service.outreach;
 
+/**
+ * @param template skompilowany szablon, z którego powstało {@code body};
+ *                 {@code null}, gdy treść nie pochodzi z szablonu — wtedy wysyłka bulk nie jest możliwa
+ */
 public record PreparedMail(
         String from,
         String to,
@@ -7,6 +11,18 @@ public record PreparedMail(
         String body,
         String unsubscribeUrl,
         Long leadId,
-        String emailType
+        String emailType,
+        CompiledMailTemplate template
 ) {
+    public PreparedMail(String from, String to, String subject, String body, String unsubscribeUrl,
+                        Long leadId, String emailType) {
+        this(from, to, subject, body, unsubscribeUrl, leadId, emailType, null);
+    }
+
+    /**
+     * @return treść szablonu z placeholderami ({@code {{EMAIL}}}, {@code {{UNSUBSCRIBE_URL}}}) albo {@code null}
+     */
+    public String bodyTemplate() {
+        return template == null ? null : template.source();
+    }
 }
@@ -0,0 +1,246 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.AwsSesProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.model.AlreadyExistsException;
+import software.amazon.awssdk.services.sesv2.model.BulkEmailEntry;
+import software.amazon.awssdk.services.sesv2.model.BulkEmailEntryResult;
+import software.amazon.awssdk.services.sesv2.model.BulkEmailStatus;
+import software.amazon.awssdk.services.sesv2.model.CreateEmailTemplateRequest;
+import software.amazon.awssdk.services.sesv2.model.MessageHeader;
+import software.amazon.awssdk.services.sesv2.model.MessageTag;
+import software.amazon.awssdk.services.sesv2.model.SendBulkEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendBulkEmailResponse;
+import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Pierwsze maile przez SES {@code SendBulkEmail}: do 50 odbiorców na wywołanie zamiast {@code SendEmail} per lead.
+ * <p>
+ * Każdy wariant szablonu (subject + treść) jest rejestrowany w SES jako template o nazwie z hasha treści,
+ * więc zmiana treści w configu daje nowy template, a restart nie wymaga aktualizacji istniejącego.
+ * Placeholdery {@code {{EMAIL}}}/{@code {{UNSUBSCRIBE_URL}}} są te same co w {@code DefaultMailComposer},
+ * SES wypełnia je danymi per odbiorca — w template idą jako {@code {{{...}}}}, bo Handlebars w {@code {{...}}}
+ * escapuje HTML (np. {@code &} w URL-u wypisania). Maile bez szablonu i follow-upy (HTML) idą przez {@link SesMailSenderGateway}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "leadfinder.email.provider", havingValue = "ses")
+public class SesBulkMailSenderGateway implements BulkMailSenderGateway {
+
+    static final int MAX_DESTINATIONS_PER_CALL = 50;
+
+    // {{EMAIL}} / {{UNSUBSCRIBE_URL}}, ale nie już potrójne {{{...}}}
+    private static final Pattern UNESCAPED_PLACEHOLDER =
+            Pattern.compile("(?<!\\{)\\{\\{(EMAIL|UNSUBSCRIBE_URL)}}(?!})");
+
+    private final SesV2Client sesV2Client;
+    private final AwsSesProperties awsSesProperties;
+    private final SesMailSenderGateway singleSender;
+    private final ObjectMapper objectMapper;
+
+    private final Set<String> registeredTemplates = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_DESTINATIONS_PER_CALL;
+    }
+
+    @Override
+    public List<SendResult> sendBulk(List<PreparedMail> mails) {
+        SendResult[] results = new SendResult[mails.size()];
+
+        // ten sam nadawca + template -> jedno SendBulkEmail (po max 50 adresów)
+        Map<BulkKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < mails.size(); i++) {
+            PreparedMail mail = mails.get(i);
+            if (!isBulkCapable(mail)) {
+                results[i] = singleSender.send(mail);
+                continue;
+            }
+            groups.computeIfAbsent(BulkKey.of(mail), k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<BulkKey, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            for (int from = 0; from < indexes.size(); from += MAX_DESTINATIONS_PER_CALL) {
+                List<Integer> chunk = indexes.subList(from, Math.min(indexes.size(), from + MAX_DESTINATIONS_PER_CALL));
+                List<PreparedMail> chunkMails = chunk.stream().map(mails::get).toList();
+
+                List<SendResult> chunkResults = sendChunk(group.getKey(), chunkMails);
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = chunkResults.get(k);
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private List<SendResult> sendChunk(BulkKey key, List<PreparedMail> mails) {
+        try {
+            String templateName = ensureTemplate(key);
+            SendBulkEmailResponse response = sesV2Client.sendBulkEmail(buildRequest(key, templateName, mails));
+            return mapResults(mails, response.bulkEmailEntryResults());
+
+        } catch (SesV2Exception e) {
+            String errorCode = e.awsErrorDetails() != null ? e.awsErrorDetails().errorCode() : "UNKNOWN";
+            String errorMessage = e.awsErrorDetails() != null ? e.awsErrorDetails().errorMessage() : e.getMessage();
+            log.warn("Outreach: SES rejected bulk send of {} emails: code={}, message={}",
+                    mails.size(), errorCode, errorMessage);
+            return failedAll(mails.size());
+        } catch (Exception e) {
+            log.warn("Outreach: FAILED bulk send of {} emails: {}", mails.size(), e.getMessage(), e);
+            return failedAll(mails.size());
+        }
+    }
+
+    private List<SendResult> mapResults(List<PreparedMail> mails, List<BulkEmailEntryResult> entryResults) {
+        List<SendResult> results = new ArrayList<>(mails.size());
+        for (int i = 0; i < mails.size(); i++) {
+            PreparedMail mail = mails.get(i);
+            BulkEmailEntryResult entry = i < entryResults.size() ? entryResults.get(i) : null;
+
+            if (entry != null && entry.status() == BulkEmailStatus.SUCCESS) {
+                log.info("Outreach: email accepted by SES (bulk) for leadId={}, providerMessageId={}",
+                        mail.leadId(), entry.messageId());
+                results.add(new SendResult(true, false, entry.messageId()));
+            } else {
+                log.warn("Outreach: SES rejected bulk entry for leadId={}: status={}, error={}",
+                        mail.leadId(), entry == null ? "MISSING" : entry.statusAsString(), entry == null ? null : entry.error());
+                results.add(new SendResult(false, false));
+            }
+        }
+        return results;
+    }
+
+    private SendBulkEmailRequest buildRequest(BulkKey key, String templateName, List<PreparedMail> mails)
+            throws JsonProcessingException {
+        List<BulkEmailEntry> entries = new ArrayList<>(mails.size());
+        for (PreparedMail mail : mails) {
+            entries.add(buildEntry(mail));
+        }
+
+        SendBulkEmailRequest.Builder builder = SendBulkEmailRequest.builder()
+                .fromEmailAddress(key.from())
+                .defaultContent(c -> c.template(t -> t
+                        .templateName(templateName)
+                        .templateData("{}")))
+                .bulkEmailEntries(entries);
+
+        if (key.emailType() != null && !key.emailType().isBlank()) {
+            builder.defaultEmailTags(MessageTag.builder().name("emailType").value(key.emailType()).build());
+        }
+
+        if (awsSesProperties.configurationSet() != null
+                && !awsSesProperties.configurationSet().isBlank()) {
+            builder.configurationSetName(awsSesProperties.configurationSet());
+        }
+
+        return builder.build();
+    }
+
+    private BulkEmailEntry buildEntry(PreparedMail mail) throws JsonProcessingException {
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("EMAIL", mail.to());
+        data.put("UNSUBSCRIBE_URL", mail.unsubscribeUrl() != null ? mail.unsubscribeUrl() : "");
+        String templateData = objectMapper.writeValueAsString(data);
+
+        BulkEmailEntry.Builder entry = BulkEmailEntry.builder()
+                .destination(d -> d.toAddresses(mail.to()))
+                .replacementEmailContent(c -> c.replacementTemplate(t -> t.replacementTemplateData(templateData)));
+
+        if (mail.leadId() != null) {
+            entry.replacementTags(MessageTag.builder().name("leadId").value(String.valueOf(mail.leadId())).build());
+        }
+
+        if (mail.unsubscribeUrl() != null && !mail.unsubscribeUrl().isBlank()) {
+            entry.replacementHeaders(
+                    MessageHeader.builder().name("List-Unsubscribe").value("<" + mail.unsubscribeUrl() + ">").build(),
+                    MessageHeader.builder().name("List-Unsubscribe-Post").value("List-Unsubscribe=One-Click").build()
+            );
+        }
+
+        return entry.build();
+    }
+
+    private String ensureTemplate(BulkKey key) {
+        String name = templateName(key);
+        if (registeredTemplates.contains(name)) {
+            return name;
+        }
+
+        try {
+            sesV2Client.createEmailTemplate(CreateEmailTemplateRequest.builder()
+                    .templateName(name)
+                    .templateContent(c -> c
+                            .subject(key.subject())
+                            .text(sesTemplateText(key.bodyTemplate())))
+                    .build());
+            log.info("Outreach: registered SES template {}", name);
+        } catch (AlreadyExistsException e) {
+            // nazwa = hash treści, więc istniejący template ma tę samą treść
+            log.debug("Outreach: SES template {} already exists", name);
+        }
+
+        registeredTemplates.add(name);
+        return name;
+    }
+
+    static String templateName(BulkKey key) {
+        String type = key.emailType() == null ? "mail" : key.emailType().toLowerCase().replace('_', '-');
+        return "lff-" + type + "-" + sha256(key.subject() + "\u0000" + sesTemplateText(key.bodyTemplate())).substring(0, 16);
+    }
+
+    static String sesTemplateText(String bodyTemplate) {
+        return UNESCAPED_PLACEHOLDER.matcher(bodyTemplate).replaceAll("{{{$1}}}");
+    }
+
+    private static boolean isBulkCapable(PreparedMail mail) {
+        return mail.bodyTemplate() != null
+                && !mail.bodyTemplate().isBlank()
+                && !EmailType.FOLLOW_UP.name().equals(mail.emailType());
+    }
+
+    private static List<SendResult> failedAll(int count) {
+        List<SendResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new SendResult(false, false));
+        }
+        return results;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    record BulkKey(String from, String subject, String bodyTemplate, String emailType) {
+        static BulkKey of(PreparedMail mail) {
+            return new BulkKey(mail.from(), mail.subject(), mail.bodyTemplate(), mail.emailType());
+        }
+    }
+}
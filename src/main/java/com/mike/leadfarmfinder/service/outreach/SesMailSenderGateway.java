@@ -113,11 +113,10 @@ public class SesMailSenderGateway implements MailSenderGateway {
     }
 
     private String buildHtmlBody(PreparedMail mail) {
-        String htmlBody = mail.body()
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\n", "<br>\n");
+        // stały tekst szablonu jest wyescapowany przy kompilacji; escapujemy tylko wartości slotów
+        String htmlBody = mail.template() != null
+                ? mail.template().renderHtml(mail.to(), mail.unsubscribeUrl())
+                : CompiledMailTemplate.escapeHtml(mail.body());
 
         if (mail.unsubscribeUrl() == null || mail.unsubscribeUrl().isBlank()) {
             return "<html><body>" + htmlBody + "</body></html>";
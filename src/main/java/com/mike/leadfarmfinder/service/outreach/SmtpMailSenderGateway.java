@@ -4,6 +4,7 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -21,6 +22,7 @@ import org.springframework.stereotype.Component;
 public class SmtpMailSenderGateway implements MailSenderGateway {
 
     private final JavaMailSender mailSender;
+    private final ObjectProvider<SmtpTransportPool> transportPool;
 
     @Override
     public SendResult send(PreparedMail mail) {
@@ -63,7 +65,12 @@ public class SmtpMailSenderGateway implements MailSenderGateway {
             message.addHeader("List-Unsubscribe-Post", "List-Unsubscribe=One-Click");
         }
 
-        mailSender.send(message);
+        SmtpTransportPool pool = transportPool.getIfAvailable();
+        if (pool != null) {
+            pool.send(message);
+        } else {
+            mailSender.send(message);
+        }
     }
 
     private boolean isHardBounce(Throwable ex) {
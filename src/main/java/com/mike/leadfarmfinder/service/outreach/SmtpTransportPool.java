@@ -0,0 +1,188 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pula połączonych i zalogowanych {@link Transport} do serwera SMTP.
+ * <p>
+ * {@code JavaMailSender.send} robi TCP + STARTTLS + AUTH dla każdego maila; tutaj jedna sesja wysyła
+ * do {@code max-messages-per-session} maili. Sesja jest zamykana po błędzie, po limicie maili
+ * i gdy leżała bezczynnie dłużej niż {@code max-idle-seconds}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "leadfinder.outreach.smtp-pool.enabled", havingValue = "true")
+// tylko obok SmtpMailSenderGateway — przy SES pula nie ma czego wysyłać
+@ConditionalOnProperty(name = "leadfinder.email.provider", havingValue = "smtp", matchIfMissing = true)
+public class SmtpTransportPool {
+
+    private final TransportConnector connector;
+    private final int maxMessagesPerSession;
+    private final long maxIdleNanos;
+
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ArrayDeque<>();
+
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private final AtomicLong sessionsClosed = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesOnReusedSession = new AtomicLong();
+    private final AtomicLong sendErrors = new AtomicLong();
+
+    @Autowired
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, OutreachProperties outreachProperties) {
+        this(() -> {
+            Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+            transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+            return transport;
+        }, outreachProperties.getSmtpPool());
+    }
+
+    SmtpTransportPool(TransportConnector connector, OutreachProperties.SmtpPool config) {
+        this.connector = connector;
+        this.maxMessagesPerSession = Math.max(1, config.getMaxMessagesPerSession());
+        this.maxIdleNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.getMaxIdleSeconds()));
+        this.permits = new Semaphore(Math.max(1, config.getSize()), true);
+    }
+
+    /**
+     * Wysyła gotową wiadomość jedną z sesji puli.
+     *
+     * @throws MailSendException przy błędzie wysyłki (przyczyną jest oryginalny {@link MessagingException},
+     *                           więc np. {@code SMTPAddressFailedException} jest w łańcuchu cause)
+     */
+    public void send(MimeMessage message) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for SMTP session", e);
+        }
+
+        PooledTransport session = null;
+        try {
+            session = borrow();
+            message.saveChanges();
+            session.transport.sendMessage(message, message.getAllRecipients());
+            session.messages++;
+            messagesSent.incrementAndGet();
+            if (session.messages > 1) {
+                messagesOnReusedSession.incrementAndGet();
+            }
+            giveBack(session);
+        } catch (MessagingException e) {
+            sendErrors.incrementAndGet();
+            // po błędzie stan sesji jest nieznany (np. zerwane połączenie, RSET nie przeszedł) - nie wraca do puli
+            close(session);
+            throw new MailSendException("SMTP send failed: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            sendErrors.incrementAndGet();
+            close(session);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Stats stats() {
+        int idleSessions;
+        synchronized (idle) {
+            idleSessions = idle.size();
+        }
+        return new Stats(sessionsOpened.get(), sessionsClosed.get(), messagesSent.get(),
+                messagesOnReusedSession.get(), sendErrors.get(), idleSessions);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (idle) {
+            idle.forEach(this::close);
+            idle.clear();
+        }
+        log.info("SmtpTransportPool: closed, stats={}", stats());
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        long now = System.nanoTime();
+        while (true) {
+            PooledTransport candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                break;
+            }
+            if (now - candidate.returnedAtNanos > maxIdleNanos || !candidate.transport.isConnected()) {
+                close(candidate);
+                continue;
+            }
+            return candidate;
+        }
+
+        Transport transport = connector.connect();
+        sessionsOpened.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private void giveBack(PooledTransport session) {
+        if (session.messages >= maxMessagesPerSession) {
+            close(session);
+            return;
+        }
+        session.returnedAtNanos = System.nanoTime();
+        synchronized (idle) {
+            // najświeższa sesja na początek: rzadziej trafiamy na połączenie zerwane przez serwer
+            idle.addFirst(session);
+        }
+    }
+
+    private void close(PooledTransport session) {
+        if (session == null) {
+            return;
+        }
+        sessionsClosed.incrementAndGet();
+        try {
+            session.transport.close();
+        } catch (MessagingException e) {
+            log.debug("SmtpTransportPool: error while closing session: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    interface TransportConnector {
+        Transport connect() throws MessagingException;
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messages;
+        private long returnedAtNanos;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    /**
+     * @param messagesOnReusedSession maile wysłane bez nowego handshake'u (sesja była już użyta)
+     */
+    public record Stats(long sessionsOpened, long sessionsClosed, long messagesSent,
+                        long messagesOnReusedSession, long sendErrors, int idleSessions) {
+    }
+}
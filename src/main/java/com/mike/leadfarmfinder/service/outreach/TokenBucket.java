@@ -0,0 +1,53 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prosty token bucket: {@code ratePerSecond} tokenów na sekundę, maksymalnie {@code burst} naraz.
+ * <p>
+ * {@link #acquire()} czeka poza blokadą, więc wątki czekające na inny bucket nie blokują się nawzajem;
+ * {@link #tryAcquire()} nie czeka wcale.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be > 0");
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos = tryAcquire();
+            if (waitNanos == 0) {
+                return;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * @return 0, gdy token został pobrany, w przeciwnym razie czas do pojawienia się następnego tokenu
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+}
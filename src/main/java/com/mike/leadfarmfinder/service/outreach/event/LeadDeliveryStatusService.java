@@ -28,14 +28,25 @@ public class LeadDeliveryStatusService {
         }
 
         FarmLead lead = leadOpt.get();
+
+        if (applyEvent(lead, classifiedEvent, LocalDateTime.now())) {
+            farmLeadRepository.save(lead);
+        }
+    }
+
+    /**
+     * Przejście statusu dostarczenia w pamięci (bez zapisu) — wspólne dla pojedynczego i batchowego konsumenta.
+     *
+     * @return {@code false}, gdy event nie zmienia leada (DELIVERED po terminalnej porażce)
+     */
+    public boolean applyEvent(FarmLead lead, ClassifiedMailEvent classifiedEvent, LocalDateTime now) {
+        MailEventMessage event = classifiedEvent.getOriginalEvent();
         MailDeliveryStatus newStatus = classifiedEvent.getDeliveryStatus();
 
         if (isDeliveredAfterTerminalFailure(lead, newStatus)) {
-            return;
+            return false;
         }
 
-        LocalDateTime now = LocalDateTime.now();
-
         lead.setLastDeliveryStatus(newStatus.name());
         lead.setLastDeliveryEventAt(now);
         lead.setDeliveryProviderMessageId(event.getSesMessageId());
@@ -56,7 +67,7 @@ public class LeadDeliveryStatusService {
             case SPAM_BLOCK -> applySpamBlock(lead, event, classifiedEvent, now);
         }
 
-        farmLeadRepository.save(lead);
+        return true;
     }
 
     private Optional<FarmLead> findLead(MailEventMessage event) {
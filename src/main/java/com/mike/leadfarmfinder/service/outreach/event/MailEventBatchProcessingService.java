@@ -0,0 +1,245 @@
+package com.mike.leadfarmfinder.service.outreach.event;
+
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties;
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Paczka eventów SES w jednej transakcji: jedno zapytanie po leady, przejścia statusów w pamięci
+ * ({@link LeadDeliveryStatusService#applyEvent}), zapis zmienionych leadów przy flushu (JDBC batch).
+ * <p>
+ * Idempotencja: para {@code (sesMessageId, eventType)} jest zapisywana w {@code processed_mail_events}
+ * w tej samej transakcji — ponownie dostarczony event (retry całej paczki, duplikat z SNS) jest pomijany.
+ * Sam {@code sesMessageId} nie wystarczy: DELIVERY i COMPLAINT tego samego maila mają to samo id.
+ * Wpisy starsze niż {@code leadfinder.rabbit.processed-events-retention-days} są usuwane raz dziennie.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MailEventBatchProcessingService {
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO processed_mail_events (ses_message_id, event_type)
+            SELECT e.ses_message_id, e.event_type
+            FROM unnest(?::varchar[], ?::varchar[]) AS e(ses_message_id, event_type)
+            ON CONFLICT (ses_message_id, event_type) DO NOTHING
+            RETURNING ses_message_id, event_type
+            """;
+
+    private static final String PURGE_SQL = "DELETE FROM processed_mail_events WHERE processed_at < ?";
+
+    private final MailEventClassificationService classificationService;
+    private final LeadDeliveryStatusService leadDeliveryStatusService;
+    private final FarmLeadRepository farmLeadRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LeadFinderRabbitProperties rabbitProperties;
+
+    /**
+     * @return liczba eventów faktycznie zastosowanych (bez duplikatów i eventów bez leada)
+     */
+    @Transactional
+    public int processBatch(List<MailEventMessage> messages) {
+        List<MailEventMessage> fresh = claimNew(messages);
+        if (fresh.isEmpty()) {
+            log.info("MailEventBatchProcessingService: batch of {} events, all duplicates", messages.size());
+            return 0;
+        }
+
+        LeadLookup leads = loadLeads(fresh);
+        LocalDateTime now = LocalDateTime.now();
+
+        int applied = 0;
+        for (MailEventMessage message : fresh) {
+            ClassifiedMailEvent classified = classificationService.classify(message);
+            log.debug("MailEventBatchProcessingService: type={}, leadId={}, sesMessageId={}, classifiedStatus={}, reason={}",
+                    message.getEventType(),
+                    message.getLeadId(),
+                    message.getSesMessageId(),
+                    classified.getDeliveryStatus(),
+                    classified.getClassificationReason());
+
+            FarmLead lead = leads.find(message);
+            // kolejne eventy tego samego leada widzą stan po poprzednich — jak przy przetwarzaniu po kolei
+            if (lead != null && leadDeliveryStatusService.applyEvent(lead, classified, now)) {
+                applied++;
+            }
+        }
+
+        // leady są zarządzane przez JPA: zmienione idą jednym batchem UPDATE przy commit
+        log.info("MailEventBatchProcessingService: batch of {} events -> {} new, {} applied to {} loaded leads",
+                messages.size(), fresh.size(), applied, leads.size());
+        return applied;
+    }
+
+    /**
+     * Zapisuje event jako obsłużony bez zmian w leadzie (np. po wysłaniu na DLQ), żeby retry paczki go pominął.
+     */
+    @Transactional
+    public void markProcessed(MailEventMessage message) {
+        claimNew(List.of(message));
+    }
+
+    /**
+     * Klucz idempotencji jest potrzebny tylko, dopóki ten sam event może wrócić (retry paczki, DLQ, ponowna
+     * dostawa z SNS) — retencja nigdy nie jest krótsza niż okno retry kolejki.
+     */
+    @Scheduled(cron = "${leadfinder.rabbit.processed-events-purge-cron:0 45 5 * * *}")
+    public void purgeProcessedEvents() {
+        try {
+            int removed = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minus(retention())));
+            log.info("MailEventBatchProcessingService: purged {} processed mail events", removed);
+        } catch (Exception e) {
+            log.warn("MailEventBatchProcessingService: purge of processed mail events failed: {}", e.getMessage());
+        }
+    }
+
+    Duration retention() {
+        Integer days = rabbitProperties.getProcessedEventsRetentionDays();
+        Duration configured = Duration.ofDays(days == null ? 30 : Math.max(1, days));
+
+        long retryTtlMs = rabbitProperties.getRetryTtlMs() == null ? 0 : rabbitProperties.getRetryTtlMs();
+        long attempts = rabbitProperties.getMaxRetryAttempts() == null ? 0 : rabbitProperties.getMaxRetryAttempts();
+        Duration retryWindow = Duration.ofMillis(retryTtlMs * (attempts + 1)).multipliedBy(2);
+
+        return configured.compareTo(retryWindow) > 0 ? configured : retryWindow;
+    }
+
+    private List<MailEventMessage> claimNew(List<MailEventMessage> messages) {
+        Map<String, MailEventMessage> withId = new LinkedHashMap<>();
+        List<MailEventMessage> withoutId = new ArrayList<>();
+        for (MailEventMessage message : messages) {
+            if (message.getSesMessageId() == null || message.getSesMessageId().isBlank()) {
+                // bez id nie ma czego deduplikować
+                withoutId.add(message);
+            } else {
+                withId.putIfAbsent(key(message.getSesMessageId(), eventTypeOf(message)), message);
+            }
+        }
+        if (withId.isEmpty()) {
+            return withoutId;
+        }
+
+        String[] ids = new String[withId.size()];
+        String[] types = new String[withId.size()];
+        int i = 0;
+        for (MailEventMessage message : withId.values()) {
+            ids[i] = message.getSesMessageId();
+            types[i] = eventTypeOf(message);
+            i++;
+        }
+
+        PreparedStatementSetter arrays = ps -> {
+            Connection con = ps.getConnection();
+            ps.setArray(1, con.createArrayOf("varchar", ids));
+            ps.setArray(2, con.createArrayOf("varchar", types));
+        };
+
+        Set<String> claimed = new HashSet<>();
+        jdbcTemplate.query(CLAIM_SQL, arrays,
+                rs -> { claimed.add(key(rs.getString("ses_message_id"), rs.getString("event_type"))); });
+
+        List<MailEventMessage> fresh = new ArrayList<>(messages.size());
+        for (MailEventMessage message : messages) {
+            if (message.getSesMessageId() == null || message.getSesMessageId().isBlank()) {
+                fresh.add(message);
+                continue;
+            }
+            String key = key(message.getSesMessageId(), eventTypeOf(message));
+            // remove: duplikat w tej samej paczce przechodzi tylko raz
+            if (claimed.remove(key)) {
+                fresh.add(message);
+            }
+        }
+        return fresh;
+    }
+
+    private LeadLookup loadLeads(List<MailEventMessage> messages) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (MailEventMessage message : messages) {
+            Long id = parseLeadId(message);
+            if (id != null) {
+                ids.add(id);
+            } else if (message.getLeadEmail() != null && !message.getLeadEmail().isBlank()) {
+                emails.add(message.getLeadEmail().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (ids.isEmpty() && emails.isEmpty()) {
+            return new LeadLookup(Map.of(), Map.of());
+        }
+
+        // pusta lista w IN nie jest przenośna między bazami — wartość, której nie ma w tabeli
+        List<FarmLead> loaded = farmLeadRepository.findAllByIdInOrEmailLowerIn(
+                ids.isEmpty() ? Set.of(-1L) : ids,
+                emails.isEmpty() ? Set.of("") : emails);
+
+        Map<Long, FarmLead> byId = new HashMap<>();
+        Map<String, FarmLead> byEmail = new HashMap<>();
+        for (FarmLead lead : loaded) {
+            byId.put(lead.getId(), lead);
+            if (lead.getEmail() != null) {
+                byEmail.put(lead.getEmail().toLowerCase(Locale.ROOT), lead);
+            }
+        }
+        return new LeadLookup(byId, byEmail);
+    }
+
+    private static Long parseLeadId(MailEventMessage message) {
+        if (message.getLeadId() == null || message.getLeadId().isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(message.getLeadId());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid leadId in mail event: {}", message.getLeadId());
+            return null;
+        }
+    }
+
+    private static String eventTypeOf(MailEventMessage message) {
+        return message.getEventType() == null ? "UNKNOWN" : message.getEventType().name();
+    }
+
+    private static String key(String sesMessageId, String eventType) {
+        return sesMessageId + '|' + eventType;
+    }
+
+    // te same reguły co LeadDeliveryStatusService#findLead: poprawne leadId wygrywa, email tylko bez niego
+    private record LeadLookup(Map<Long, FarmLead> byId, Map<String, FarmLead> byEmail) {
+
+        FarmLead find(MailEventMessage message) {
+            Long id = parseLeadId(message);
+            if (id != null) {
+                return byId.get(id);
+            }
+            if (message.getLeadEmail() != null && !message.getLeadEmail().isBlank()) {
+                return byEmail.get(message.getLeadEmail().toLowerCase(Locale.ROOT));
+            }
+            return null;
+        }
+
+        int size() {
+            return byId.size();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.mike.leadfarmfinder.service.outreach.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties.WireFormat;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Konwerter wiadomości RabbitMQ: {@link MailEventMessage} w formacie JSON albo kompaktowym binarnym
+ * ({@code leadfinder.rabbit.wire-format}).
+ * <p>
+ * Odczyt zawsze rozpoznaje oba formaty po content type, więc wiadomości JSON, które już leżą w kolejce,
+ * retry queue albo DLQ, są czytane także po przełączeniu na {@link WireFormat#BINARY} (i odwrotnie).
+ * <p>
+ * Format binarny (schemat v1): {@code 'L' 'E' [wersja]}, varint z maską obecnych pól, potem pola w stałej
+ * kolejności — stringi jako varint długości + UTF-8, typ eventu jako jeden bajt, {@code occurredAt}
+ * jako varlong sekund (UTC) + varint nanosekund.
+ */
+public class MailEventMessageConverter implements MessageConverter {
+
+    public static final String BINARY_CONTENT_TYPE = "application/x-mail-event";
+
+    static final byte MAGIC_0 = 'L';
+    static final byte MAGIC_1 = 'E';
+    static final byte SCHEMA_VERSION = 1;
+
+    private static final int EVENT_TYPE = 1;
+    private static final int LEAD_ID = 1 << 1;
+    private static final int LEAD_EMAIL = 1 << 2;
+    private static final int EMAIL_TYPE = 1 << 3;
+    private static final int SES_MESSAGE_ID = 1 << 4;
+    private static final int BOUNCE_TYPE = 1 << 5;
+    private static final int BOUNCE_SUB_TYPE = 1 << 6;
+    private static final int DIAGNOSTIC_CODE = 1 << 7;
+    private static final int STATUS = 1 << 8;
+    private static final int ACTION = 1 << 9;
+    private static final int RAW_PAYLOAD = 1 << 10;
+    private static final int OCCURRED_AT = 1 << 11;
+
+    private final Jackson2JsonMessageConverter json;
+    private final WireFormat wireFormat;
+
+    public MailEventMessageConverter(ObjectMapper objectMapper, WireFormat wireFormat) {
+        this.json = new Jackson2JsonMessageConverter(objectMapper);
+        this.wireFormat = wireFormat;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (wireFormat != WireFormat.BINARY || !(object instanceof MailEventMessage event)) {
+            return json.toMessage(object, messageProperties);
+        }
+        byte[] body = encode(event);
+        messageProperties.setContentType(BINARY_CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (BINARY_CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return decode(message.getBody());
+        }
+        return json.fromMessage(message);
+    }
+
+    static byte[] encode(MailEventMessage event) {
+        int fields = 0;
+        fields |= event.getEventType() != null ? EVENT_TYPE : 0;
+        fields |= event.getLeadId() != null ? LEAD_ID : 0;
+        fields |= event.getLeadEmail() != null ? LEAD_EMAIL : 0;
+        fields |= event.getEmailType() != null ? EMAIL_TYPE : 0;
+        fields |= event.getSesMessageId() != null ? SES_MESSAGE_ID : 0;
+        fields |= event.getBounceType() != null ? BOUNCE_TYPE : 0;
+        fields |= event.getBounceSubType() != null ? BOUNCE_SUB_TYPE : 0;
+        fields |= event.getDiagnosticCode() != null ? DIAGNOSTIC_CODE : 0;
+        fields |= event.getStatus() != null ? STATUS : 0;
+        fields |= event.getAction() != null ? ACTION : 0;
+        fields |= event.getRawPayload() != null ? RAW_PAYLOAD : 0;
+        fields |= event.getOccurredAt() != null ? OCCURRED_AT : 0;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.write(MAGIC_0);
+        out.write(MAGIC_1);
+        out.write(SCHEMA_VERSION);
+        writeVarLong(out, fields);
+
+        if (event.getEventType() != null) {
+            out.write(eventTypeCode(event.getEventType()));
+        }
+        writeString(out, event.getLeadId());
+        writeString(out, event.getLeadEmail());
+        writeString(out, event.getEmailType());
+        writeString(out, event.getSesMessageId());
+        writeString(out, event.getBounceType());
+        writeString(out, event.getBounceSubType());
+        writeString(out, event.getDiagnosticCode());
+        writeString(out, event.getStatus());
+        writeString(out, event.getAction());
+        writeString(out, event.getRawPayload());
+        if (event.getOccurredAt() != null) {
+            writeVarLong(out, zigZag(event.getOccurredAt().toEpochSecond(ZoneOffset.UTC)));
+            writeVarLong(out, event.getOccurredAt().getNano());
+        }
+        return out.toByteArray();
+    }
+
+    static MailEventMessage decode(byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        try {
+            if (in.get() != MAGIC_0 || in.get() != MAGIC_1) {
+                throw new MessageConversionException("Not a binary mail event message");
+            }
+            byte version = in.get();
+            if (version != SCHEMA_VERSION) {
+                throw new MessageConversionException("Unsupported mail event schema version " + version);
+            }
+            int fields = (int) readVarLong(in);
+
+            MailEventMessage event = new MailEventMessage();
+            if ((fields & EVENT_TYPE) != 0) {
+                event.setEventType(eventType(in.get()));
+            }
+            event.setLeadId(readString(in, fields, LEAD_ID));
+            event.setLeadEmail(readString(in, fields, LEAD_EMAIL));
+            event.setEmailType(readString(in, fields, EMAIL_TYPE));
+            event.setSesMessageId(readString(in, fields, SES_MESSAGE_ID));
+            event.setBounceType(readString(in, fields, BOUNCE_TYPE));
+            event.setBounceSubType(readString(in, fields, BOUNCE_SUB_TYPE));
+            event.setDiagnosticCode(readString(in, fields, DIAGNOSTIC_CODE));
+            event.setStatus(readString(in, fields, STATUS));
+            event.setAction(readString(in, fields, ACTION));
+            event.setRawPayload(readString(in, fields, RAW_PAYLOAD));
+            if ((fields & OCCURRED_AT) != 0) {
+                long epochSecond = unZigZag(readVarLong(in));
+                int nano = (int) readVarLong(in);
+                event.setOccurredAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+            }
+            return event;
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            throw new MessageConversionException("Corrupt binary mail event message", e);
+        }
+    }
+
+    // kody są częścią schematu — nie ordinal(), żeby zmiana kolejności w enumie nie psuła wiadomości w kolejkach
+    private static int eventTypeCode(MailEventType type) {
+        return switch (type) {
+            case DELIVERY -> 1;
+            case BOUNCE -> 2;
+            case COMPLAINT -> 3;
+        };
+    }
+
+    private static MailEventType eventType(byte code) {
+        return switch (code) {
+            case 1 -> MailEventType.DELIVERY;
+            case 2 -> MailEventType.BOUNCE;
+            case 3 -> MailEventType.COMPLAINT;
+            default -> throw new MessageConversionException("Unknown mail event type code " + code);
+        };
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in, int fields, int field) {
+        if ((fields & field) == 0) {
+            return null;
+        }
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new MessageConversionException("Corrupt binary mail event message: string length " + length);
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new MessageConversionException("Corrupt binary mail event message: varint too long");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
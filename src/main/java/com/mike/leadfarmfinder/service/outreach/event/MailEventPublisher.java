@@ -2,25 +2,101 @@ package com.mike.leadfarmfinder.service.outreach.event;
 
 
 import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publikacja eventów mailowych do RabbitMQ.
+ * <p>
+ * Przy {@code leadfinder.rabbit.confirmed-publish-enabled=true} (i correlated publisher confirms) każde
+ * {@link #publish(MailEventMessage)} trafia do kolejki, a jeden wątek wysyła zebrane w oknie
+ * {@code publish-linger-ms} wiadomości na jednym kanale. Wołający czeka na potwierdzenie swojej wiadomości
+ * — nack albo timeout kończy się {@link AmqpException}, więc webhook SES zwraca 500 i SNS ponawia.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MailEventPublisher {
 
+    private static final long IDLE_POLL_MILLIS = 1_000;
+
     private final RabbitTemplate rabbitTemplate;
     private final LeadFinderRabbitProperties rabbitProperties;
 
+    private final BlockingQueue<PendingPublish> pending = new LinkedBlockingQueue<>();
+    private volatile boolean batching;
+    private Thread worker;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong nacked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedMessages = new AtomicLong();
+    private final AtomicLong confirmLatencyTotalNanos = new AtomicLong();
+    private final AtomicLong confirmLatencyMaxNanos = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!rabbitProperties.isConfirmedPublishEnabled()) {
+            return;
+        }
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            log.warn("MailEventPublisher: confirmed publish enabled but publisher-confirm-type is not correlated, "
+                    + "publishing without confirms");
+            return;
+        }
+        batching = true;
+        worker = Thread.ofVirtual().name("mail-event-publisher").start(this::runBatches);
+        log.info("MailEventPublisher: confirmed batch publishing, linger={} ms, maxBatch={}",
+                rabbitProperties.getPublishLingerMs(), rabbitProperties.getPublishMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        batching = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(Duration.ofSeconds(5));
+        }
+        List<PendingPublish> left = new ArrayList<>();
+        pending.drainTo(left);
+        left.forEach(p -> fail(p.result(), new AmqpException("MailEventPublisher is shutting down")));
+    }
+
+    /**
+     * @throws AmqpException w trybie z potwierdzeniami: gdy broker odrzucił wiadomość albo nie potwierdził jej na czas
+     */
     public void publish(MailEventMessage message) {
-        rabbitTemplate.convertAndSend(
-                rabbitProperties.getOutreachEventsExchange(),
-                rabbitProperties.getOutreachEventsRoutingKey(),
-                message
-        );
+        if (batching) {
+            CompletableFuture<Void> result = enqueue(message);
+            await(result, deadline(Duration.ofMillis(rabbitProperties.getPublishConfirmTimeoutMs())));
+        } else {
+            rabbitTemplate.convertAndSend(
+                    rabbitProperties.getOutreachEventsExchange(),
+                    rabbitProperties.getOutreachEventsRoutingKey(),
+                    message
+            );
+            published.incrementAndGet();
+        }
         log.info("Published mail event: type={}, leadId={}, email={}, sesMessageId={}",
                 message.getEventType(),
                 message.getLeadId(),
@@ -28,4 +104,218 @@ public class MailEventPublisher {
                 message.getSesMessageId());
     }
 
-}
\ No newline at end of file
+    /**
+     * Publikuje całą paczkę, a potem czeka na potwierdzenia brokera (correlated publisher confirms)
+     * — jeden round-trip oczekiwania na paczkę zamiast na wiadomość.
+     * <p>
+     * Wymaga {@code spring.rabbitmq.publisher-confirm-type=correlated}; bez tego wysyła bez potwierdzeń.
+     *
+     * @throws AmqpException gdy broker odrzucił (nack) którąkolwiek wiadomość albo nie potwierdził jej w {@code timeout}
+     */
+    public void publishAllConfirmed(List<MailEventMessage> messages, Duration timeout) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        long deadline = deadline(timeout);
+        List<CompletableFuture<Void>> results = new ArrayList<>(messages.size());
+
+        if (batching) {
+            for (MailEventMessage message : messages) {
+                results.add(enqueue(message));
+            }
+        } else if (rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            for (MailEventMessage message : messages) {
+                CompletableFuture<Void> result = new CompletableFuture<>();
+                sendConfirmed(rabbitTemplate, message, result);
+                results.add(result);
+            }
+        } else {
+            for (MailEventMessage message : messages) {
+                rabbitTemplate.convertAndSend(
+                        rabbitProperties.getOutreachEventsExchange(),
+                        rabbitProperties.getOutreachEventsRoutingKey(),
+                        message
+                );
+            }
+            published.addAndGet(messages.size());
+            log.warn("MailEventPublisher: publisher confirms disabled, {} events published unconfirmed", messages.size());
+            return;
+        }
+
+        for (CompletableFuture<Void> result : results) {
+            await(result, deadline);
+        }
+
+        log.info("MailEventPublisher: published and confirmed {} mail events", messages.size());
+    }
+
+    public Stats stats() {
+        long confirmedCount = confirmed.get();
+        long batchCount = batches.get();
+        return new Stats(
+                batching,
+                published.get(),
+                confirmedCount,
+                nacked.get(),
+                failed.get(),
+                pending.size(),
+                batchCount,
+                batchCount == 0 ? 0.0 : (double) batchedMessages.get() / batchCount,
+                confirmedCount == 0 ? 0.0 : confirmLatencyTotalNanos.get() / 1e6 / confirmedCount,
+                confirmLatencyMaxNanos.get() / 1e6
+        );
+    }
+
+    private CompletableFuture<Void> enqueue(MailEventMessage message) {
+        PendingPublish publish = new PendingPublish(message, new CompletableFuture<>());
+        pending.add(publish);
+        return publish.result();
+    }
+
+    private void runBatches() {
+        int maxBatch = Math.max(1, rabbitProperties.getPublishMaxBatchSize());
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(rabbitProperties.getPublishLingerMs());
+        List<PendingPublish> batch = new ArrayList<>(maxBatch);
+
+        while (batching) {
+            try {
+                PendingPublish first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // okno linger: zbieramy, co dojdzie w trakcie, zamiast wysyłać każdą wiadomość osobno
+                long lingerDeadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = lingerDeadline - System.nanoTime();
+                    PendingPublish next = remaining > 0
+                            ? pending.poll(remaining, TimeUnit.NANOSECONDS)
+                            : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> fail(p.result(), new AmqpException("MailEventPublisher is shutting down")));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingPublish> batch) {
+        // wołający po timeoucie dostał już błąd (webhook odpowiedział 500, SNS ponowi) — wysłanie teraz zdublowałoby event
+        List<PendingPublish> live = batch.stream().filter(p -> !p.result().isDone()).toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        try {
+            // jeden kanał na całą paczkę; potwierdzenia przychodzą asynchronicznie do CorrelationData
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish publish : live) {
+                    sendConfirmed(operations, publish.message(), publish.result());
+                }
+                return null;
+            });
+            batches.incrementAndGet();
+            batchedMessages.addAndGet(live.size());
+        } catch (RuntimeException e) {
+            log.error("MailEventPublisher: failed to publish batch of {} mail events", live.size(), e);
+            AmqpException failure = e instanceof AmqpException amqp ? amqp : new AmqpException("Failed to publish mail events", e);
+            live.forEach(p -> fail(p.result(), failure));
+        }
+    }
+
+    /**
+     * Wysyła z {@link CorrelationData} i kończy {@code result} potwierdzeniem brokera. Liczniki rosną tylko przy
+     * faktycznym zakończeniu {@code result}, więc każda wiadomość trafia do dokładnie jednego z
+     * confirmed/nacked/failed — także gdy potwierdzenie przyjdzie już po timeoucie.
+     */
+    private void sendConfirmed(RabbitOperations operations, MailEventMessage message, CompletableFuture<Void> result) {
+        CorrelationData correlation = new CorrelationData();
+        long sentAt = System.nanoTime();
+        operations.convertAndSend(
+                rabbitProperties.getOutreachEventsExchange(),
+                rabbitProperties.getOutreachEventsRoutingKey(),
+                message,
+                correlation
+        );
+        published.incrementAndGet();
+
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            if (error != null) {
+                fail(result, new AmqpException("Publisher confirm failed", error));
+            } else if (!confirm.ack()) {
+                if (result.completeExceptionally(new AmqpException("Broker nacked mail event: " + confirm.reason()))) {
+                    nacked.incrementAndGet();
+                }
+            } else if (result.complete(null)) {
+                long latency = System.nanoTime() - sentAt;
+                confirmed.incrementAndGet();
+                confirmLatencyTotalNanos.addAndGet(latency);
+                confirmLatencyMaxNanos.accumulateAndGet(latency, Math::max);
+            }
+        });
+    }
+
+    private void fail(CompletableFuture<Void> result, AmqpException failure) {
+        if (result.completeExceptionally(failure)) {
+            failed.incrementAndGet();
+        }
+    }
+
+    private void await(CompletableFuture<Void> result, long deadlineNanos) {
+        try {
+            long waitNanos = Math.max(0, deadlineNanos - System.nanoTime());
+            result.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // timeout kończy future — spóźnione potwierdzenie już go nie zmieni
+            fail(result, new AmqpException("Timed out waiting for publisher confirm", e));
+            if (result.isCompletedExceptionally()) {
+                throw asAmqpException(result.exceptionNow());
+            }
+        } catch (ExecutionException e) {
+            throw asAmqpException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for publisher confirm", e);
+        }
+    }
+
+    private static AmqpException asAmqpException(Throwable error) {
+        return error instanceof AmqpException amqp ? amqp : new AmqpException("Publisher confirm failed", error);
+    }
+
+    private static long deadline(Duration timeout) {
+        return System.nanoTime() + timeout.toNanos();
+    }
+
+    private record PendingPublish(MailEventMessage message, CompletableFuture<Void> result) {
+    }
+
+    /**
+     * Liczniki {@code published}/{@code confirmed}/{@code nacked}/{@code failed} są narastające od startu —
+     * tempo (np. wiadomości na sekundę) liczy scraper z różnicy dwóch odczytów.
+     *
+     * @param avgBatchSize        średnio wiadomości na paczkę z okna linger
+     * @param avgConfirmLatencyMs od wysłania do ack brokera
+     */
+    public record Stats(boolean batching,
+                        long published,
+                        long confirmed,
+                        long nacked,
+                        long failed,
+                        int queued,
+                        long batches,
+                        double avgBatchSize,
+                        double avgConfirmLatencyMs,
+                        double maxConfirmLatencyMs) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.mike.leadfarmfinder.service.outreach.event;
+
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batchowy odpowiednik {@link OutreachMailEventListener} ({@code leadfinder.rabbit.batch-listener-enabled=true}).
+ * <p>
+ * Najpierw cała paczka w jednej transakcji. Gdy się nie uda, eventy idą pojedynczo (każdy we własnej transakcji),
+ * żeby jeden zły event nie blokował reszty. Paczka jest ackowana w całości; jeśli któryś event ma jeszcze
+ * próby, cała paczka wraca przez retry queue — już obsłużone eventy są wtedy pomijane jako duplikaty.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "leadfinder.rabbit.batch-listener-enabled", havingValue = "true")
+public class OutreachMailEventBatchListener {
+
+    private final MailEventBatchProcessingService batchProcessingService;
+    private final RabbitRetrySupport retrySupport;
+    private final LeadFinderRabbitProperties rabbitProperties;
+    private final MailEventDlqPublisher dlqPublisher;
+    private final MessageConverter messageConverter;
+
+    @RabbitListener(
+            queues = "${leadfinder.rabbit.outreach-events-queue}",
+            containerFactory = "outreachEventsBatchContainerFactory"
+    )
+    public void handleBatch(List<Message> amqpMessages) {
+        List<MailEventMessage> events = new ArrayList<>(amqpMessages.size());
+        List<Message> sources = new ArrayList<>(amqpMessages.size());
+        for (Message amqpMessage : amqpMessages) {
+            MailEventMessage event = convert(amqpMessage);
+            if (event != null) {
+                events.add(event);
+                sources.add(amqpMessage);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchProcessingService.processBatch(events);
+            return;
+        } catch (Exception e) {
+            log.warn("OutreachMailEventBatchListener: batch of {} events failed, falling back to one by one: {}",
+                    events.size(), e.getMessage());
+        }
+
+        int toRetry = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (!processOne(events.get(i), sources.get(i))) {
+                toRetry++;
+            }
+        }
+
+        if (toRetry > 0) {
+            throw new AmqpRejectAndDontRequeueException(
+                    "Processing failed for " + toRetry + " events, sending batch to retry queue");
+        }
+    }
+
+    /**
+     * @return {@code false}, gdy event trzeba ponowić
+     */
+    private boolean processOne(MailEventMessage event, Message amqpMessage) {
+        try {
+            batchProcessingService.processBatch(List.of(event));
+            return true;
+
+        } catch (Exception e) {
+            long retryCount = retrySupport.getRetryCount(
+                    amqpMessage,
+                    rabbitProperties.getOutreachEventsRetryQueue()
+            );
+
+            log.error("Processing failed. retryCount={}, max={}, leadId={}",
+                    retryCount,
+                    rabbitProperties.getMaxRetryAttempts(),
+                    event.getLeadId(),
+                    e
+            );
+
+            if (retryCount >= rabbitProperties.getMaxRetryAttempts()) {
+                dlqPublisher.publishToDlq(event);
+                markProcessedQuietly(event);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private void markProcessedQuietly(MailEventMessage event) {
+        try {
+            batchProcessingService.markProcessed(event);
+        } catch (Exception e) {
+            // najwyżej event trafi na DLQ drugi raz przy retry paczki
+            log.warn("OutreachMailEventBatchListener: could not mark DLQ event as processed, sesMessageId={}: {}",
+                    event.getSesMessageId(), e.getMessage());
+        }
+    }
+
+    private MailEventMessage convert(Message amqpMessage) {
+        try {
+            return (MailEventMessage) messageConverter.fromMessage(amqpMessage);
+        } catch (Exception e) {
+            // tak jak nieczytelna wiadomość w pojedynczym listenerze: nie da się jej przetworzyć ani ponowić
+            log.error("OutreachMailEventBatchListener: dropping unreadable message {}: {}",
+                    amqpMessage.getMessageProperties().getMessageId(), e.getMessage());
+            return null;
+        }
+    }
+}
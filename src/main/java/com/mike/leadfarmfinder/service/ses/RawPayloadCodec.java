@@ -0,0 +1,60 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties.RawPayloadMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Kodowanie {@code MailEventMessage.rawPayload}.
+ * <p>
+ * W trybie {@link RawPayloadMode#GZIP} wartość to {@code gzip:} + Base64 skompresowanego payloadu;
+ * {@link #decode(String)} rozpoznaje prefiks, więc stare wiadomości (pełny tekst) czyta bez zmian.
+ */
+public final class RawPayloadCodec {
+
+    static final String GZIP_PREFIX = "gzip:";
+
+    private RawPayloadCodec() {
+    }
+
+    public static String encode(RawPayloadMode mode, String rawPayload) {
+        if (rawPayload == null) {
+            return null;
+        }
+        return switch (mode) {
+            case FULL -> rawPayload;
+            case NONE -> null;
+            case GZIP -> GZIP_PREFIX + Base64.getEncoder().encodeToString(gzip(rawPayload));
+        };
+    }
+
+    public static String decode(String stored) {
+        if (stored == null || !stored.startsWith(GZIP_PREFIX)) {
+            return stored;
+        }
+        byte[] compressed = Base64.getDecoder().decode(stored.substring(GZIP_PREFIX.length()));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot decompress raw SES payload", e);
+        }
+    }
+
+    private static byte[] gzip(String rawPayload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rawPayload.length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(rawPayload.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compress raw SES payload", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Strumieniowy odczyt pól eventu SES, których używamy — bez budowania drzewa {@code JsonNode}.
+ * <p>
+ * {@code mail.headers}, {@code mail.commonHeaders}, {@code delivery} itd. są tylko tokenizowane
+ * i pomijane przez {@link JsonParser#skipChildren()}, nic z nich nie jest alokowane.
+ */
+final class SesEventExtractor {
+
+    private SesEventExtractor() {
+    }
+
+    /**
+     * @throws IOException gdy {@code messageJson} nie jest poprawnym JSON-em
+     */
+    static Fields extract(JsonFactory jsonFactory, String messageJson) throws IOException {
+        Fields fields = new Fields();
+        try (JsonParser parser = jsonFactory.createParser(messageJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return fields;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "eventType" -> fields.eventType = text(parser);
+                    case "notificationType" -> fields.notificationType = text(parser);
+                    case "mail" -> readMail(parser, fields);
+                    case "bounce" -> readBounce(parser, fields);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static void readMail(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "messageId" -> fields.sesMessageId = text(parser);
+                case "destination" -> fields.destination = firstText(parser);
+                case "tags" -> readTags(parser, fields);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readTags(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "leadId" -> fields.leadId = firstText(parser);
+                case "emailType" -> fields.emailType = firstText(parser);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readBounce(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "bounceType" -> fields.bounceType = text(parser);
+                case "bounceSubType" -> fields.bounceSubType = text(parser);
+                case "bouncedRecipients" -> fields.diagnosticCode = firstDiagnosticCode(parser);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static String firstDiagnosticCode(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String diagnosticCode = null;
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if ("diagnosticCode".equals(name)) {
+                    diagnosticCode = text(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        skipRestOfArray(parser);
+        return diagnosticCode;
+    }
+
+    // pierwszy element tablicy (jak JsonNode.get(0).asText()), reszta pominięta
+    private static String firstText(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return null;
+        }
+        String first = text(parser);
+        skipRestOfArray(parser);
+        return first;
+    }
+
+    private static void skipRestOfArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.END_ARRAY) {
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+
+    // semantyka JsonNode.asText(): null dla JSON null, "" dla obiektu/tablicy
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    static final class Fields {
+        String eventType;
+        String notificationType;
+        String sesMessageId;
+        String destination;
+        String leadId;
+        String emailType;
+        String bounceType;
+        String bounceSubType;
+        String diagnosticCode;
+
+        String eventTypeOrNotificationType() {
+            return eventType != null ? eventType : notificationType;
+        }
+    }
+}
@@ -1,72 +1,80 @@
 package com.mike.leadfarmfinder.service.ses;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.config.LeadFinderProperties.RawPayloadMode;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventPublisher;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventType;
 import com.mike.leadfarmfinder.service.ses.exception.SesEventBadRequestException;
 import com.mike.leadfarmfinder.service.ses.exception.SesEventProcessingException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.AmqpException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SesSnsEventProcessor {
 
     private final ObjectMapper objectMapper;
     private final MailEventPublisher mailEventPublisher;
+    private final RawPayloadMode rawPayloadMode;
+
+    public SesSnsEventProcessor(ObjectMapper objectMapper,
+                                MailEventPublisher mailEventPublisher,
+                                LeadFinderProperties properties) {
+        this.objectMapper = objectMapper;
+        this.mailEventPublisher = mailEventPublisher;
+        this.rawPayloadMode = properties.getSesEvents().getRawPayload();
+    }
 
     public void processSesEvent(String messageJson, String rawPayload) {
-        JsonNode root = parseSesMessage(messageJson);
-
-        String eventTypeValue = text(root, "eventType");
-        if (eventTypeValue == null) {
-            eventTypeValue = text(root, "notificationType");
+        MailEventMessage event = toMailEvent(messageJson, rawPayload);
+        if (event != null) {
+            publishEvent(event);
         }
+    }
 
-        JsonNode mail = root.path("mail");
-        String sesMessageId = text(mail, "messageId");
-        String destination = firstText(mail.path("destination"));
-        String leadId = firstTagValue(mail.path("tags"), "leadId");
-        String emailType = firstTagValue(mail.path("tags"), "emailType");
+    /**
+     * @return event do publikacji albo {@code null}, gdy typ eventu SES nas nie interesuje
+     * @throws SesEventBadRequestException gdy {@code messageJson} nie jest poprawnym JSON-em
+     */
+    public MailEventMessage toMailEvent(String messageJson, String rawPayload) {
+        SesEventExtractor.Fields fields = parseSesMessage(messageJson);
 
+        String eventTypeValue = fields.eventTypeOrNotificationType();
         if (eventTypeValue == null || eventTypeValue.isBlank()) {
-            return;
+            return null;
         }
 
         MailEventType eventType = mapEventType(eventTypeValue);
         if (eventType == null) {
-            return;
+            return null;
         }
 
-        MailEventMessage event = MailEventMessage.builder()
+        return MailEventMessage.builder()
                 .eventType(eventType)
-                .leadId(leadId)
-                .leadEmail(destination)
-                .emailType(emailType)
-                .sesMessageId(sesMessageId)
-                .bounceType(text(root.path("bounce"), "bounceType"))
-                .bounceSubType(text(root.path("bounce"), "bounceSubType"))
-                .diagnosticCode(firstDiagnosticCode(root.path("bounce").path("bouncedRecipients")))
+                .leadId(fields.leadId)
+                .leadEmail(fields.destination)
+                .emailType(fields.emailType)
+                .sesMessageId(fields.sesMessageId)
+                .bounceType(fields.bounceType)
+                .bounceSubType(fields.bounceSubType)
+                .diagnosticCode(fields.diagnosticCode)
                 .status(null)
                 .action(null)
-                .rawPayload(rawPayload)
+                .rawPayload(RawPayloadCodec.encode(rawPayloadMode, rawPayload))
                 .occurredAt(LocalDateTime.now())
                 .build();
-        publishEvent(event);
     }
 
-    private JsonNode parseSesMessage(String messageJson) {
+    private SesEventExtractor.Fields parseSesMessage(String messageJson) {
         try {
-            return objectMapper.readTree(messageJson);
-        } catch (JsonProcessingException e) {
+            return SesEventExtractor.extract(objectMapper.getFactory(), messageJson);
+        } catch (IOException e) {
             throw new SesEventBadRequestException("Invalid SES SNS Message JSON", e);
         }
     }
@@ -89,26 +97,4 @@ public class SesSnsEventProcessor {
             default -> null;
         };
     }
-
-    private String text(JsonNode node, String field) {
-        JsonNode value = node.get(field);
-        return value == null || value.isNull() ? null : value.asText();
-    }
-
-    private String firstText(JsonNode arrayNode) {
-        return arrayNode.isArray() && arrayNode.size() > 0 ? arrayNode.get(0).asText() : null;
-    }
-
-    private String firstTagValue(JsonNode tagsNode, String key) {
-        JsonNode values = tagsNode.get(key);
-        return values != null && values.isArray() && values.size() > 0 ? values.get(0).asText() : null;
-    }
-
-    private String firstDiagnosticCode(JsonNode bouncedRecipients) {
-        if (bouncedRecipients != null && bouncedRecipients.isArray() && bouncedRecipients.size() > 0) {
-            JsonNode firstRecipient = bouncedRecipients.get(0);
-            return text(firstRecipient, "diagnosticCode");
-        }
-        return null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventPublisher;
+import com.mike.leadfarmfinder.service.ses.exception.SesEventBadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Przenosi notyfikacje z {@link SesWebhookLog} do RabbitMQ paczkami, z potwierdzeniami brokera.
+ * <p>
+ * Checkpoint logu przesuwa się dopiero po potwierdzeniu całej paczki; przy awarii brokera forwarder
+ * ponawia tę samą paczkę z rosnącym odstępem, a webhook dalej przyjmuje notyfikacje do logu.
+ * Start forwardera = replay wszystkiego, co po ostatnim checkpoincie zostało w logu.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "leadfinder.ses-webhook-log.enabled", havingValue = "true")
+public class SesWebhookForwarder {
+
+    private static final long IDLE_WAIT_MILLIS = 1_000;
+    private static final long INITIAL_BACKOFF_MILLIS = 500;
+
+    private final SesWebhookLog webhookLog;
+    private final SesSnsEventProcessor sesSnsEventProcessor;
+    private final MailEventPublisher mailEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final LeadFinderProperties properties;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("ses-webhook-forwarder").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(Duration.ofSeconds(5));
+        }
+        log.info("SesWebhookForwarder: stopped, stats={}", webhookLog.stats());
+    }
+
+    private void run() {
+        LeadFinderProperties.SesWebhookLog config = properties.getSesWebhookLog();
+        Duration confirmTimeout = Duration.ofMillis(config.getConfirmTimeoutMs());
+        long backoff = INITIAL_BACKOFF_MILLIS;
+
+        while (running) {
+            try {
+                SesWebhookLog.Position from = webhookLog.committed();
+                SesWebhookLog.Batch batch = webhookLog.read(from, config.getForwardBatchSize());
+
+                if (batch.payloads().isEmpty()) {
+                    if (!batch.end().equals(from)) {
+                        // puste końcówki segmentów sprzed restartu
+                        webhookLog.commit(batch.end(), 0);
+                    }
+                    webhookLog.awaitAppend(batch.end(), IDLE_WAIT_MILLIS);
+                    continue;
+                }
+
+                mailEventPublisher.publishAllConfirmed(toEvents(batch.payloads()), confirmTimeout);
+                webhookLog.commit(batch.end(), batch.payloads().size());
+                backoff = INITIAL_BACKOFF_MILLIS;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("SesWebhookForwarder: forwarding failed, retrying in {} ms: {}", backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, config.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    private List<MailEventMessage> toEvents(List<String> payloads) {
+        List<MailEventMessage> events = new ArrayList<>(payloads.size());
+        for (String payload : payloads) {
+            try {
+                JsonNode root = objectMapper.readTree(payload);
+                JsonNode message = root.get("Message");
+                MailEventMessage event = message == null || message.isNull()
+                        ? null
+                        : sesSnsEventProcessor.toMailEvent(message.asText(), payload);
+                if (event != null) {
+                    events.add(event);
+                }
+            } catch (JsonProcessingException | SesEventBadRequestException e) {
+                // webhook sprawdził kopertę przed zapisem; tu trafia tylko nieczytelny Message SES
+                log.warn("SesWebhookForwarder: skipping unparseable notification: {}", e.getMessage());
+            }
+        }
+        return events;
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
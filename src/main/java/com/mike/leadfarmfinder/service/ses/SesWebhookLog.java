@@ -0,0 +1,333 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Lokalny, append-only log surowych notyfikacji SNS w segmentach mapowanych do pamięci.
+ * <p>
+ * Webhook dopisuje payload i od razu odpowiada 200; {@link SesWebhookForwarder} czyta log od checkpointu
+ * i publikuje do RabbitMQ. Checkpoint przesuwa się dopiero po potwierdzeniu brokera, więc po restarcie
+ * (albo awarii brokera) niepotwierdzone wpisy są publikowane ponownie — konsument deduplikuje po sesMessageId.
+ * <p>
+ * Rekord: {@code [int length][int crc32][payload UTF-8]}. Długość jest zapisywana na końcu, więc przerwany zapis
+ * wygląda jak {@code length = 0}, czyli koniec segmentu. Po starcie zawsze zaczynamy nowy segment.
+ * <p>
+ * Log ma sens tylko na trwałym wolumenie ({@code dir} jest wymagany) — po restarcie na dysku efemerycznym
+ * niewysłane notyfikacje przepadają, a SNS już dostał 200. Segmenty nieprzekazane do brokera zajmują najwyżej
+ * {@code max-bytes}; pełny log rzuca z {@link #append(String)}, więc webhook odpowiada 500 i SNS ponawia.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "leadfinder.ses-webhook-log.enabled", havingValue = "true")
+public class SesWebhookLog implements AutoCloseable {
+
+    static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final boolean syncEachAppend;
+
+    private final FileChannel checkpointChannel;
+
+    // zapis (synchronized)
+    private long activeSegment;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+    private volatile Position writePosition;
+
+    // odczyt (jeden wątek forwardera)
+    private long mappedReadSegment = -1;
+    private ByteBuffer mappedRead;
+    private volatile Position committed;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+
+    @Autowired
+    public SesWebhookLog(LeadFinderProperties properties) {
+        this(requiredDir(properties.getSesWebhookLog().getDir()),
+                properties.getSesWebhookLog().getSegmentBytes(),
+                properties.getSesWebhookLog().getMaxBytes(),
+                properties.getSesWebhookLog().isSyncEachAppend());
+    }
+
+    SesWebhookLog(Path dir, int segmentBytes, long maxBytes, boolean syncEachAppend) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = Math.max(segmentBytes, maxBytes);
+        this.syncEachAppend = syncEachAppend;
+        try {
+            Files.createDirectories(dir);
+            this.checkpointChannel = FileChannel.open(dir.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            long lastSegment = lastSegmentOnDisk();
+            this.committed = readCheckpoint(lastSegment);
+            openSegment(lastSegment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open SES webhook log in " + dir, e);
+        }
+        log.info("SesWebhookLog: opened dir={}, replay from {}, writing segment {}", dir, committed, activeSegment);
+    }
+
+    /**
+     * Dopisuje payload; po powrocie (przy {@code sync-each-append}) rekord jest na dysku.
+     */
+    public synchronized void append(String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + bytes.length;
+        if (recordBytes > segmentBytes) {
+            throw new IOException("Payload of " + bytes.length + " bytes does not fit in a log segment");
+        }
+        if (activeBuffer.remaining() < recordBytes) {
+            // na dysku są segmenty od checkpointu do aktywnego; nowy dołożyłby kolejny
+            long segmentsAfterRoll = activeSegment + 2 - committed.segment();
+            if (segmentsAfterRoll * segmentBytes > maxBytes) {
+                throw new IOException("SES webhook log is full (" + maxBytes + " bytes not yet forwarded)");
+            }
+            openSegment(activeSegment + 1);
+        }
+
+        int start = activeBuffer.position();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        activeBuffer.putInt(start + 4, (int) crc.getValue());
+        activeBuffer.put(start + HEADER_BYTES, bytes);
+        // długość na końcu: dopiero ona "publikuje" rekord
+        activeBuffer.putInt(start, bytes.length);
+        activeBuffer.position(start + recordBytes);
+
+        if (syncEachAppend) {
+            activeBuffer.force(start, recordBytes);
+        }
+
+        writePosition = new Position(activeSegment, start + recordBytes);
+        appended.incrementAndGet();
+        notifyAll();
+    }
+
+    /**
+     * Czeka na nowy wpis za {@code from}, najwyżej {@code timeoutMillis}.
+     */
+    public synchronized void awaitAppend(Position from, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (writePosition.equals(from)) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return;
+            }
+            wait(remainingMillis);
+        }
+    }
+
+    public Position committed() {
+        return committed;
+    }
+
+    /**
+     * Czyta do {@code max} rekordów od {@code from}. Nie przesuwa checkpointu — to robi {@link #commit(Position, int)}.
+     */
+    public Batch read(Position from, int max) throws IOException {
+        List<String> payloads = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+
+        while (payloads.size() < max) {
+            Position limit = writePosition;
+            if (segment == limit.segment() && offset >= limit.offset()) {
+                break;
+            }
+            if (segment > limit.segment()) {
+                break;
+            }
+
+            ByteBuffer buffer = mapForRead(segment);
+            if (buffer == null || offset + HEADER_BYTES > buffer.capacity()) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                // koniec danych w segmencie sprzed restartu albo po rollu
+                segment++;
+                offset = 0;
+                continue;
+            }
+            if (length < 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                log.error("SesWebhookLog: corrupt record length={} at segment={} offset={}, skipping rest of segment",
+                        length, segment, offset);
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            byte[] bytes = new byte[length];
+            buffer.get(offset + HEADER_BYTES, bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                log.error("SesWebhookLog: checksum mismatch at segment={} offset={}, skipping rest of segment",
+                        segment, offset);
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            payloads.add(new String(bytes, StandardCharsets.UTF_8));
+            offset += HEADER_BYTES + length;
+        }
+
+        return new Batch(payloads, new Position(segment, offset));
+    }
+
+    /**
+     * Zapisuje checkpoint (wszystko przed {@code position} jest opublikowane) i usuwa w pełni przetworzone segmenty.
+     *
+     * @param records liczba rekordów opublikowanych w tej paczce (statystyki)
+     */
+    public void commit(Position position, int records) throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        checkpoint.putLong(position.segment()).putInt(position.offset()).flip();
+        checkpointChannel.write(checkpoint, 0);
+        checkpointChannel.force(false);
+        committed = position;
+        forwarded.addAndGet(records);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                long segment = segmentNumber(file);
+                if (segment >= 0 && segment < position.segment()) {
+                    Files.deleteIfExists(file);
+                    if (segment == mappedReadSegment) {
+                        mappedReadSegment = -1;
+                        mappedRead = null;
+                    }
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(appended.get(), forwarded.get(), writePosition, committed);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeBuffer != null) {
+            activeBuffer.force();
+        }
+        if (activeChannel != null) {
+            activeChannel.close();
+        }
+        checkpointChannel.close();
+    }
+
+    private void openSegment(long segment) throws IOException {
+        if (activeBuffer != null) {
+            activeBuffer.force();
+            activeChannel.close();
+        }
+        activeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        activeSegment = segment;
+        writePosition = new Position(segment, 0);
+    }
+
+    private ByteBuffer mapForRead(long segment) throws IOException {
+        if (segment == mappedReadSegment) {
+            return mappedRead;
+        }
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mappedRead = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mappedReadSegment = segment;
+            return mappedRead;
+        }
+    }
+
+    private Position readCheckpoint(long lastSegment) throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        if (checkpointChannel.read(checkpoint, 0) == 12) {
+            checkpoint.flip();
+            return new Position(checkpoint.getLong(), checkpoint.getInt());
+        }
+        return new Position(firstSegmentOnDisk(lastSegment + 1), 0);
+    }
+
+    private long lastSegmentOnDisk() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(SesWebhookLog::segmentNumber).filter(n -> n >= 0).max().orElse(0);
+        }
+    }
+
+    private long firstSegmentOnDisk(long fallback) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(SesWebhookLog::segmentNumber).filter(n -> n >= 0).min().orElse(fallback);
+        }
+    }
+
+    private static Path requiredDir(String dir) {
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException(
+                    "leadfinder.ses-webhook-log.dir must point to a persistent volume when the webhook log is enabled");
+        }
+        return Path.of(dir);
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public record Position(long segment, int offset) {
+    }
+
+    /**
+     * @param end pozycja za ostatnim przeczytanym rekordem — do {@link #commit(Position, int)} po publikacji
+     */
+    public record Batch(List<String> payloads, Position end) {
+    }
+
+    public record Stats(long appended, long forwarded, Position writePosition, Position committed) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.mike.leadfarmfinder.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.service.ses.SesSnsEventProcessor;
+import com.mike.leadfarmfinder.service.ses.SesWebhookLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SesSnsWebhookControllerTest {
+
+    private static final String NOTIFICATION =
+            "{\"Type\":\"Notification\",\"MessageId\":\"sns-1\",\"Message\":\"{\\\"eventType\\\":\\\"Delivery\\\"}\"}";
+
+    private SesSnsEventProcessor processor;
+    private SesWebhookLog webhookLog;
+    private ObjectProvider<SesWebhookLog> webhookLogProvider;
+    private SesSnsWebhookController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        processor = mock(SesSnsEventProcessor.class);
+        webhookLog = mock(SesWebhookLog.class);
+        webhookLogProvider = mock(ObjectProvider.class);
+        controller = new SesSnsWebhookController(new ObjectMapper(), processor, mock(RestTemplate.class), webhookLogProvider);
+    }
+
+    @Test
+    @DisplayName("should append the raw notification to the log and answer 200 without publishing inline")
+    void shouldAppendToLogWhenEnabled() throws IOException {
+        when(webhookLogProvider.getIfAvailable()).thenReturn(webhookLog);
+
+        ResponseEntity<String> response = controller.handleSnsMessage(NOTIFICATION, "Notification");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(webhookLog).append(NOTIFICATION);
+        verify(processor, never()).processSesEvent(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("should answer 500 so SNS retries when the log cannot take the notification")
+    void shouldReturnServerErrorWhenAppendFails() throws IOException {
+        when(webhookLogProvider.getIfAvailable()).thenReturn(webhookLog);
+        doThrow(new IOException("SES webhook log is full")).when(webhookLog).append(anyString());
+
+        ResponseEntity<String> response = controller.handleSnsMessage(NOTIFICATION, "Notification");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        verify(processor, never()).processSesEvent(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("should process the notification inline when the log is disabled")
+    void shouldProcessInlineWithoutLog() {
+        when(webhookLogProvider.getIfAvailable()).thenReturn(null);
+
+        ResponseEntity<String> response = controller.handleSnsMessage(NOTIFICATION, "Notification");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(processor).processSesEvent("{\"eventType\":\"Delivery\"}", NOTIFICATION);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mike.leadfarmfinder.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plany zapytań {@link FarmLeadRepository} na zasianej tabeli: wyszukiwanie po e-mailu i wybór kandydatów
+ * outreach (keyset) mają iść po indeksie.
+ * <p>
+ * Metody repozytorium są wywoływane naprawdę — {@link CapturingStatementInspector} łapie SQL wygenerowany
+ * przez Hibernate, a test robi {@code EXPLAIN} dokładnie tego SQL z tymi samymi parametrami.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.mike.leadfarmfinder.repository.FarmLeadRepositoryQueryPlanTest$CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers
+class FarmLeadRepositoryQueryPlanTest {
+
+    private static final int SEEDED_LEADS = 20_000;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("leadfarmfinder")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FarmLeadRepository repository;
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO farm_leads (email, source_url, created_at, active, bounce, unsubscribe_token)
+                SELECT 'Info' || g || '@Hof' || (g % 500) || '.de', 'https://hof' || (g % 500) || '.de',
+                       now() - (g || ' minutes')::interval, true, false, 'T' || g
+                FROM generate_series(1, ?) AS g
+                """, SEEDED_LEADS);
+        // co czwarty lead już dostał pierwszy mail — kandydat do follow-up
+        jdbcTemplate.update("""
+                UPDATE farm_leads
+                SET first_email_sent_at = created_at + interval '1 hour', last_email_sent_at = created_at + interval '1 hour'
+                WHERE id % 4 = 0
+                """);
+        jdbcTemplate.execute("ANALYZE farm_leads");
+    }
+
+    @BeforeEach
+    void clearCapturedStatements() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("should compute email_domain as lower-case part after @")
+    void shouldGenerateEmailDomain() {
+        String domain = jdbcTemplate.queryForObject(
+                "SELECT email_domain FROM farm_leads WHERE unsubscribe_token = 'T42'", String.class);
+
+        assertThat(domain).isEqualTo("hof42.de");
+    }
+
+    @Test
+    @DisplayName("findByEmailIgnoreCase should use the lower(email) index")
+    void shouldUseLowerEmailIndex() {
+        assertThat(repository.findByEmailIgnoreCase("INFO4242@hof242.de")).isPresent();
+
+        String plan = explainCaptured("INFO4242@hof242.de");
+
+        assertThat(plan).contains("idx_farm_leads_email_lower").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    @DisplayName("existsByEmailIgnoreCase should use the lower(email) index")
+    void shouldUseLowerEmailIndexForExists() {
+        assertThat(repository.existsByEmailIgnoreCase("info1@hof1.de")).isTrue();
+
+        String plan = explainCaptured("info1@hof1.de");
+
+        assertThat(plan).contains("idx_farm_leads_email_lower").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    @DisplayName("first email candidates should be read from the partial index in keyset order without sorting")
+    void shouldSeekFirstEmailCandidatesOnPartialIndex() {
+        assertThat(repository.findFirstEmailCandidatesAfter(FarmLeadRepository.KEYSET_START, 0L, Limit.of(100)))
+                .hasSize(100);
+
+        String plan = explainCaptured(FarmLeadRepository.KEYSET_START, 0L, 100);
+
+        assertThat(plan).contains("idx_farm_leads_first_email_candidates").doesNotContain("Sort");
+    }
+
+    @Test
+    @DisplayName("follow-up candidates should be read from the partial index in keyset order without sorting")
+    void shouldSeekFollowUpCandidatesOnPartialIndex() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        assertThat(repository.findFollowUpCandidatesAfter(cutoff, FarmLeadRepository.KEYSET_START, 0L, Limit.of(100)))
+                .hasSize(100);
+
+        String plan = explainCaptured(cutoff, FarmLeadRepository.KEYSET_START, 0L, 100);
+
+        assertThat(plan).contains("idx_farm_leads_follow_up_candidates").doesNotContain("Sort");
+    }
+
+    /**
+     * {@code EXPLAIN} ostatniego SELECT-a z farm_leads wysłanego przez Hibernate; {@code args} w kolejności placeholderów.
+     */
+    private static String explainCaptured(Object... args) {
+        String sql = CapturingStatementInspector.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(statement -> statement.contains("farm_leads"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("repository did not query farm_leads"));
+
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        return String.join("\n", lines);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
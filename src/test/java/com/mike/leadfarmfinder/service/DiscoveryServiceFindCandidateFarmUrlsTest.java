@@ -4,6 +4,7 @@ import com.mike.leadfarmfinder.config.LeadFinderProperties;
 import com.mike.leadfarmfinder.dto.FarmClassificationResult;
 import com.mike.leadfarmfinder.entity.SerpQueryCursor;
 import com.mike.leadfarmfinder.service.discovery.DiscoveredUrlWriter;
+import com.mike.leadfarmfinder.service.discovery.DiscoveryClassificationStage;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryDuplicateChecker;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryQueryProvider;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryQueryScheduler;
@@ -22,13 +23,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -67,7 +72,8 @@ class DiscoveryServiceFindCandidateFarmUrlsTest {
                 serpApiService,
                 farmClassifier,
                 leadFinderProperties,
-                discoveryQueryProvider
+                discoveryQueryProvider,
+                new DiscoveryClassificationStage(leadFinderProperties)
         );
     }
 
@@ -132,8 +138,7 @@ class DiscoveryServiceFindCandidateFarmUrlsTest {
             when(urlNormalizer.extractNormalizedDomain(anyString())).thenReturn("farm.example.com");
             when(discoveryUrlFilter.isAllowedDomain(anyString())).thenReturn(true);
             when(discoveryUrlFilter.isHardNegativePath(anyString())).thenReturn(false);
-            when(duplicateChecker.checkAlreadySeen(anyString(), anyString()))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenReturn(Map.of());
             when(urlScorer.computeDomainPriorityScore(anyString())).thenReturn(42);
             when(snippetFetcher.fetchTextSnippet(anyString())).thenReturn("some snippet text");
             when(farmClassifier.classifyFarm(anyString(), anyString()))
@@ -146,6 +151,43 @@ class DiscoveryServiceFindCandidateFarmUrlsTest {
             verify(discoveredUrlWriter, times(1)).save(anyString(), any(FarmClassificationResult.class));
         }
 
+        @Test
+        @DisplayName("should classify several ready snippets with one batch call")
+        void shouldClassifySeveralSnippetsWithOneBatchCall() {
+            LeadFinderProperties.Discovery discovery = baseDiscoveryConfig();
+            discovery.setQueries(List.of("q1"));
+
+            SerpQueryCursor cursor = cursor("q1", 1, 5);
+
+            when(leadFinderProperties.getDiscovery()).thenReturn(discovery);
+            when(discoveryQueryProvider.getQueries()).thenReturn(List.of("q1"));
+            when(queryScheduler.pickNextNonExhaustedQuery(List.of("q1")))
+                    .thenReturn(Optional.of(new DiscoveryQueryScheduler.QueryPick(0, "q1", cursor)));
+            when(queryScheduler.isExhausted(cursor)).thenReturn(false);
+            when(serpApiService.searchUrls(anyString(), anyInt(), anyInt()))
+                    .thenReturn(List.of("https://a.example.com", "https://b.example.com"));
+            when(urlNormalizer.isNotFileUrl(anyString())).thenReturn(true);
+            when(urlNormalizer.normalizeUrl(anyString())).thenAnswer(i -> i.getArgument(0));
+            when(urlNormalizer.extractNormalizedDomain(anyString())).thenAnswer(i ->
+                    i.getArgument(0, String.class).replace("https://", ""));
+            when(discoveryUrlFilter.isAllowedDomain(anyString())).thenReturn(true);
+            when(discoveryUrlFilter.isHardNegativePath(anyString())).thenReturn(false);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenReturn(Map.of());
+            when(urlScorer.computeDomainPriorityScore(anyString())).thenReturn(42);
+            when(snippetFetcher.fetchTextSnippet(anyString())).thenReturn("some snippet text");
+            when(farmClassifier.classifyFarms(anyList())).thenReturn(List.of(
+                    new FarmClassificationResult(true, false, "farm", null),
+                    new FarmClassificationResult(true, true, "farm-with-seasonal-jobs", null)
+            ));
+
+            List<String> result = discoveryService.findCandidateFarmUrls(2);
+
+            assertThat(result).containsExactly("https://a.example.com", "https://b.example.com");
+            verify(farmClassifier, times(1)).classifyFarms(anyList());
+            verify(farmClassifier, never()).classifyFarm(anyString(), anyString());
+            verify(discoveredUrlWriter, times(2)).save(anyString(), any(FarmClassificationResult.class));
+        }
+
         @Test
         @DisplayName("should save cursor and discovery stats after run")
         void shouldSaveCursorAndDiscoveryStatsAfterRun() {
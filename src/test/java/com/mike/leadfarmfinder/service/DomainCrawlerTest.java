@@ -0,0 +1,110 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DomainCrawlerTest {
+
+    private static final String START_URL = "https://hof.de";
+
+    @Mock
+    private PageFetcher pageFetcher;
+
+    private LeadFinderProperties properties;
+    private DomainCrawler crawler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LeadFinderProperties();
+        crawler = new DomainCrawler(pageFetcher, properties);
+    }
+
+    @Test
+    @DisplayName("should return start url and same-domain contact links, impressum first")
+    void shouldPrioritiseImpressum() throws Exception {
+        when(pageFetcher.get(eq(START_URL), any(Duration.class))).thenReturn(page(START_URL, """
+                <a href="/contact">Contact</a>
+                <a href="/kontakt">Kontakt</a>
+                <a href="https://other.de/impressum">Impressum Partner</a>
+                <a href="/team/mitarbeiter">Impressum Team</a>
+                <a href="/shop">Shop</a>
+                <a href="/impressum/">Impressum</a>
+                """));
+
+        Set<String> urls = crawler.crawlContacts(START_URL, 1);
+
+        assertThat(urls).containsExactly(
+                START_URL,
+                START_URL + "/impressum/",
+                START_URL + "/kontakt",
+                START_URL + "/contact"
+        );
+        // ostatni poziom nie jest pobierany — linki z niego i tak nie byłyby użyte
+        verify(pageFetcher, never()).get(eq(START_URL + "/kontakt"), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("should stop adding pages when page budget is reached")
+    void shouldRespectPageBudget() throws Exception {
+        properties.getScraper().setCrawlMaxPages(2);
+        when(pageFetcher.get(eq(START_URL), any(Duration.class))).thenReturn(page(START_URL, """
+                <a href="/kontakt">Kontakt</a>
+                <a href="/impressum">Impressum</a>
+                """));
+
+        Set<String> urls = crawler.crawlContacts(START_URL, 1);
+
+        assertThat(urls).containsExactly(START_URL, START_URL + "/impressum");
+    }
+
+    @Test
+    @DisplayName("should crawl the next level breadth-first and skip visited pages")
+    void shouldCrawlBreadthFirst() throws Exception {
+        when(pageFetcher.get(eq(START_URL), any(Duration.class))).thenReturn(page(START_URL, """
+                <a href="/kontakt">Kontakt</a>
+                """));
+        when(pageFetcher.get(eq(START_URL + "/kontakt"), any(Duration.class))).thenReturn(page(START_URL + "/kontakt", """
+                <a href="/">Home</a>
+                <a href="/kontakt/">Kontakt</a>
+                <a href="/impressum">Impressum</a>
+                """));
+
+        Set<String> urls = crawler.crawlContacts(START_URL, 2);
+
+        assertThat(urls).containsExactly(START_URL, START_URL + "/kontakt", START_URL + "/impressum");
+    }
+
+    @Test
+    @DisplayName("should not fetch anything for depth 0")
+    void shouldNotFetchForDepthZero() throws Exception {
+        Set<String> urls = crawler.crawlContacts(START_URL, 0);
+
+        assertThat(urls).containsExactly(START_URL);
+        verify(pageFetcher, never()).get(anyString(), any(Duration.class));
+    }
+
+    private static FetchedPage page(String url, String links) {
+        String html = "<html><body>" + links + "</body></html>";
+        return new FetchedPage(url, url, 200, "text/html", html.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,6 +3,8 @@ package com.mike.leadfarmfinder.service;
 import com.mike.leadfarmfinder.config.EmailProperties;
 import com.mike.leadfarmfinder.service.emailextractor.*;
 import jakarta.annotation.Resource;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.context.annotation.Bean;
@@ -11,7 +13,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,10 +44,35 @@ class EmailExtractorIntegrationTest {
         ), result);
     }
 
+    @Test
+    void shouldExtractEmailsFromDocumentSkippingScriptsAndStyles() {
+        Document document = Jsoup.parse("""
+                <html>
+                <head>
+                    <script>var sentry = "tracking@firma.de";</script>
+                    <style>/* design@firma.de */</style>
+                </head>
+                <body>
+                    <p>Kontakt: sales (at) firma (dot) de</p>
+                    <a href="mailto:office&#64;example.com?subject=Hallo">Schreiben</a>
+                    <span data-cfemail="6f060109002f0a170e021f030a410c0002">[email protected]</span>
+                </body>
+                </html>
+                """);
+
+        Set<String> result = emailExtractor.extractEmails(document);
+
+        assertEquals(Set.of(
+                "sales@firma.de",
+                "office@example.com",
+                "info@example.com"
+        ), result);
+    }
+
     @Configuration
     @Import({
             EmailExtractor.class,
-            TextObfuscationNormalizer.class,
+            SinglePassEmailScanner.class,
             EmailNormalizer.class,
             EmailValidator.class,
             DomainMxVerifier.class
@@ -72,23 +98,5 @@ class EmailExtractorIntegrationTest {
                 default -> MxLookUp.MxStatus.UNKNOWN;
             };
         }
-
-        @Bean
-        EmailSourceExtractor extractorOne() {
-            return html -> List.of(
-                    "sales@firma.de",
-                    "info@example.com,",
-                    "broken@@example.com",
-                    "bad@invalid.com",
-                    "%20office@example.com"
-            );
-        }
-
-        @Bean
-        EmailSourceExtractor extractorTwo() {
-            return html -> List.of(
-                    "sales (at) firma (dot) de"
-            );
-        }
     }
 }
\ No newline at end of file
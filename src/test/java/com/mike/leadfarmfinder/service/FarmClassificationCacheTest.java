@@ -0,0 +1,120 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.entity.FarmClassificationCacheEntry;
+import com.mike.leadfarmfinder.repository.FarmClassificationCacheRepository;
+import com.mike.leadfarmfinder.service.discovery.DiscoveryUrlNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FarmClassificationCacheTest {
+
+    private static final FarmClassificationResult IS_FARM =
+            new FarmClassificationResult(true, false, "single-farm-website", "https://hof.de/kontakt");
+
+    @Mock
+    private FarmClassificationCacheRepository repository;
+
+    private LeadFinderProperties properties;
+    private FarmClassificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LeadFinderProperties();
+        cache = new FarmClassificationCache(repository, new DiscoveryUrlNormalizer(), properties);
+    }
+
+    @Test
+    @DisplayName("should count miss and serve the stored verdict from memory afterwards")
+    void shouldServeStoredVerdictFromMemory() {
+        when(repository.findByDomainAndSnippetHash(anyString(), anyString())).thenReturn(Optional.empty());
+
+        assertThat(cache.find("https://www.hof.de/", "Hofladen Spargel")).isEmpty();
+        cache.put("https://www.hof.de/", "Hofladen Spargel", IS_FARM);
+
+        assertThat(cache.find("https://hof.de/impressum", "  Hofladen   Spargel ")).contains(IS_FARM);
+
+        FarmClassificationCache.Stats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.dbHits()).isZero();
+        verify(repository, times(1)).save(any(FarmClassificationCacheEntry.class));
+    }
+
+    @Test
+    @DisplayName("should serve non-expired verdict from the database")
+    void shouldServeVerdictFromDatabase() {
+        FarmClassificationCacheEntry entry = FarmClassificationCacheEntry.builder()
+                .domain("hof.de")
+                .snippetHash(FarmClassificationCache.snippetHash("Hofladen"))
+                .farm(true)
+                .reason("single-farm-website")
+                .mainContactUrl("https://hof.de/kontakt")
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build();
+        when(repository.findByDomainAndSnippetHash("hof.de", FarmClassificationCache.snippetHash("Hofladen")))
+                .thenReturn(Optional.of(entry));
+
+        assertThat(cache.find("https://hof.de", "Hofladen")).contains(IS_FARM);
+        assertThat(cache.find("https://hof.de", "Hofladen")).contains(IS_FARM);
+
+        assertThat(cache.stats().dbHits()).isEqualTo(1);
+        assertThat(cache.stats().memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should ignore expired database entry")
+    void shouldIgnoreExpiredEntry() {
+        FarmClassificationCacheEntry expired = FarmClassificationCacheEntry.builder()
+                .domain("hof.de")
+                .farm(true)
+                .createdAt(LocalDateTime.now().minusDays(40))
+                .expiresAt(LocalDateTime.now().minusDays(10))
+                .build();
+        when(repository.findByDomainAndSnippetHash(anyString(), anyString())).thenReturn(Optional.of(expired));
+
+        assertThat(cache.find("https://hof.de", "Hofladen")).isEmpty();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should evict least recently used entries beyond the memory cap")
+    void shouldEvictLeastRecentlyUsed() {
+        properties.getClassificationCache().setMaxInMemoryEntries(1);
+        cache = new FarmClassificationCache(repository, new DiscoveryUrlNormalizer(), properties);
+
+        cache.put("https://a.de", "text", IS_FARM);
+        cache.put("https://b.de", "text", IS_FARM);
+
+        assertThat(cache.stats().inMemoryEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should bypass cache when disabled")
+    void shouldBypassWhenDisabled() {
+        properties.getClassificationCache().setEnabled(false);
+
+        cache.put("https://hof.de", "Hofladen", IS_FARM);
+
+        assertThat(cache.find("https://hof.de", "Hofladen")).isEmpty();
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,146 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.repository.FarmSourceRepository;
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FarmScraperServiceTest {
+
+    private static final String START_URL = "https://hof.de";
+
+    @Mock private LeadIngestionService leadIngestionService;
+    @Mock private EmailExtractor emailExtractor;
+    @Mock private DomainCrawler domainCrawler;
+    @Mock private FarmSourceRepository farmSourceRepository;
+    @Mock private KnownEmailIndex knownEmailIndex;
+    @Mock private PageFetcher pageFetcher;
+
+    @Captor private ArgumentCaptor<Collection<FarmLead>> batch;
+
+    private LeadFinderProperties properties;
+    private FarmScraperService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LeadFinderProperties();
+        service = new FarmScraperService(leadIngestionService, emailExtractor, domainCrawler, farmSourceRepository,
+                properties, knownEmailIndex, pageFetcher);
+
+        when(farmSourceRepository.findByDomain("hof.de")).thenReturn(Optional.empty());
+        when(leadIngestionService.insertNew(anyCollection()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<FarmLead>>getArgument(0)));
+        when(emailExtractor.extractEmails(any(Document.class))).thenAnswer(invocation -> {
+            String text = invocation.<Document>getArgument(0).text();
+            int from = text.indexOf("EMAILS[") + 7;
+            return new LinkedHashSet<>(List.of(text.substring(from, text.indexOf(']', from)).split(",")));
+        });
+    }
+
+    @Test
+    @DisplayName("should keep priority order of pages even when a later page answers first")
+    void shouldMergePagesInPriorityOrder() throws Exception {
+        Map<String, Long> delays = Map.of(
+                START_URL + "/impressum", 300L,
+                START_URL + "/kontakt", 0L
+        );
+        stubPages(delays, Map.of(
+                START_URL + "/impressum", "info@hof.de,post@hof.de,office@hof.de",
+                START_URL + "/kontakt", "kontakt@hof.de,verkauf@hof.de,shop@hof.de"
+        ));
+        when(domainCrawler.crawlContacts(START_URL, 1)).thenReturn(new LinkedHashSet<>(List.of(
+                START_URL + "/impressum", START_URL + "/kontakt")));
+
+        Set<FarmLead> leads = service.scrapeFarmLeads(START_URL);
+
+        assertThat(leads).extracting(FarmLead::getEmail)
+                .containsExactly("info@hof.de", "post@hof.de", "office@hof.de");
+    }
+
+    @Test
+    @DisplayName("should skip pages that miss the domain deadline and keep the ones that arrived")
+    void shouldSkipPagesPastDomainDeadline() throws Exception {
+        properties.getScraper().setDomainFetchDeadlineSeconds(1);
+        stubPages(
+                Map.of(START_URL + "/impressum", 5_000L, START_URL + "/kontakt", 0L),
+                Map.of(
+                        START_URL + "/impressum", "info@hof.de",
+                        START_URL + "/kontakt", "kontakt@hof.de"
+                ));
+        when(domainCrawler.crawlContacts(START_URL, 1)).thenReturn(new LinkedHashSet<>(List.of(
+                START_URL + "/impressum", START_URL + "/kontakt")));
+
+        long start = System.nanoTime();
+        Set<FarmLead> leads = service.scrapeFarmLeads(START_URL);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertThat(leads).extracting(FarmLead::getEmail).containsExactly("kontakt@hof.de");
+        assertThat(elapsedMillis).isLessThan(4_000L);
+    }
+
+    @Test
+    @DisplayName("should hand new emails of a domain to ingestion in one batch, without known or repeated ones")
+    void shouldInsertNewEmailsInOneBatch() throws Exception {
+        stubPages(Map.of(), Map.of(
+                START_URL + "/impressum", "info@hof.de,post@hof.de",
+                START_URL + "/kontakt", "INFO@hof.de,verkauf@hof.de"
+        ));
+        when(domainCrawler.crawlContacts(START_URL, 1)).thenReturn(new LinkedHashSet<>(List.of(
+                START_URL + "/impressum", START_URL + "/kontakt")));
+        when(knownEmailIndex.contains("post@hof.de")).thenReturn(true);
+
+        service.scrapeFarmLeads(START_URL);
+
+        verify(leadIngestionService, times(1)).insertNew(batch.capture());
+        assertThat(batch.getValue()).extracting(FarmLead::getEmail)
+                .containsExactly("info@hof.de", "verkauf@hof.de");
+    }
+
+    private void stubPages(Map<String, Long> delays, Map<String, String> emailsByUrl) throws Exception {
+        when(pageFetcher.get(eq(START_URL), any(Duration.class))).thenReturn(page(START_URL, ""));
+        for (Map.Entry<String, String> entry : emailsByUrl.entrySet()) {
+            long delay = delays.getOrDefault(entry.getKey(), 0L);
+            FetchedPage page = page(entry.getKey(), entry.getValue());
+            when(pageFetcher.get(eq(entry.getKey()), any(Duration.class))).thenAnswer(invocation -> {
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                return page;
+            });
+        }
+    }
+
+    private static FetchedPage page(String url, String emails) {
+        String html = "<html><body>EMAILS[" + emails + "]</body></html>";
+        return new FetchedPage(url, url, 200, "text/html", html.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KnownEmailIndexTest {
+
+    @Mock
+    private FarmLeadRepository farmLeadRepository;
+
+    private KnownEmailIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new KnownEmailIndex(farmLeadRepository);
+    }
+
+    @Test
+    @DisplayName("should load emails from DB only once")
+    void shouldWarmOnlyOnce() {
+        when(farmLeadRepository.findAllEmailsLowercase()).thenReturn(List.of("info@hof.de"));
+
+        index.warmUp();
+        assertThat(index.contains("info@hof.de")).isTrue();
+        assertThat(index.contains("kontakt@hof.de")).isFalse();
+
+        verify(farmLeadRepository, times(1)).findAllEmailsLowercase();
+    }
+
+    @Test
+    @DisplayName("should warm lazily on first lookup")
+    void shouldWarmLazilyOnFirstLookup() {
+        when(farmLeadRepository.findAllEmailsLowercase()).thenReturn(List.of("info@hof.de"));
+
+        assertThat(index.contains("info@hof.de")).isTrue();
+        verify(farmLeadRepository, times(1)).findAllEmailsLowercase();
+    }
+
+    @Test
+    @DisplayName("should match case-insensitively and trim input")
+    void shouldMatchCaseInsensitively() {
+        when(farmLeadRepository.findAllEmailsLowercase()).thenReturn(List.of());
+
+        index.register("  Info@Hof.DE ");
+
+        assertThat(index.contains("info@hof.de")).isTrue();
+        assertThat(index.contains("INFO@HOF.DE")).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should treat null and blank as unknown")
+    void shouldTreatNullAndBlankAsUnknown() {
+        assertThat(index.contains(null)).isFalse();
+        assertThat(index.contains("   ")).isFalse();
+    }
+}
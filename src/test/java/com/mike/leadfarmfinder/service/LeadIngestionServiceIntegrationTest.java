@@ -0,0 +1,142 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class LeadIngestionServiceIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("leadfarmfinder")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private KnownEmailIndex knownEmailIndex;
+    private LeadIngestionService service;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM farm_leads");
+        knownEmailIndex = new KnownEmailIndex(Mockito.mock(FarmLeadRepository.class));
+        service = new LeadIngestionService(jdbcTemplate, knownEmailIndex);
+    }
+
+    @Test
+    @DisplayName("should insert the whole batch and return leads with generated ids")
+    void shouldInsertBatch() {
+        List<FarmLead> inserted = service.insertNew(List.of(lead("info@hof.de"), lead("kontakt@obsthof.de")));
+
+        assertThat(inserted).extracting(FarmLead::getEmail).containsExactly("info@hof.de", "kontakt@obsthof.de");
+        assertThat(inserted).allSatisfy(lead -> {
+            assertThat(lead.getId()).isNotNull();
+            assertThat(lead.getUnsubscribeToken()).isNotBlank();
+        });
+        assertThat(countLeads()).isEqualTo(2);
+        assertThat(knownEmailIndex.contains("kontakt@obsthof.de")).isTrue();
+    }
+
+    @Test
+    @DisplayName("should return only new leads when the batch overlaps existing rows and itself")
+    void shouldSkipExistingAndRepeatedEmails() {
+        service.insertNew(List.of(lead("info@hof.de")));
+
+        List<FarmLead> inserted = service.insertNew(List.of(
+                lead("info@hof.de"),
+                lead("saison@hof.de"),
+                lead("saison@hof.de")
+        ));
+
+        assertThat(inserted).extracting(FarmLead::getEmail).containsExactly("saison@hof.de");
+        assertThat(countLeads()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should store lowercased emails so case variants hit the same conflict and leave callers' leads untouched")
+    void shouldNormaliseEmailCase() {
+        FarmLead mixedCase = lead("  Info@Hof.de ");
+
+        List<FarmLead> first = service.insertNew(List.of(mixedCase));
+        List<FarmLead> second = service.insertNew(List.of(lead("info@hof.de")));
+
+        assertThat(first).extracting(FarmLead::getEmail).containsExactly("info@hof.de");
+        assertThat(second).isEmpty();
+        assertThat(countLeads()).isEqualTo(1);
+        assertThat(mixedCase.getEmail()).isEqualTo("  Info@Hof.de ");
+        assertThat(mixedCase.getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("should insert each email exactly once when batches race")
+    void shouldInsertOnceUnderConcurrentBatches() throws Exception {
+        List<String> emails = IntStream.range(0, 50).mapToObj(i -> "lead" + i + "@hof.de").toList();
+        List<String> reversed = emails.reversed();
+        Callable<Integer> ingest = () -> service.insertNew(emails.stream().map(this::lead).toList()).size();
+        // ta sama paczka w odwrotnej kolejności — bez sortowania mogłaby zakleszczyć się na unikalnym indeksie
+        Callable<Integer> ingestReversed = () -> service.insertNew(reversed.stream().map(this::lead).toList()).size();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = executor.invokeAll(List.of(ingest, ingestReversed, ingest, ingestReversed));
+
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertThat(total).isEqualTo(emails.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(countLeads()).isEqualTo(emails.size());
+    }
+
+    private FarmLead lead(String email) {
+        return FarmLead.builder()
+                .email(email)
+                .sourceUrl("https://hof.de/impressum")
+                .build();
+    }
+
+    private int countLeads() {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM farm_leads", Integer.class);
+        return count == null ? 0 : count;
+    }
+}
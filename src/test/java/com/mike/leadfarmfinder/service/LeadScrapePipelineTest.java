@@ -0,0 +1,103 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeadScrapePipelineTest {
+
+    @Mock private DiscoveryService discoveryService;
+    @Mock private FarmScraperService farmScraperService;
+
+    private LeadScrapePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new LeadScrapePipeline(discoveryService, farmScraperService,
+                new PageFetcher(new LeadFinderProperties()));
+    }
+
+    @Test
+    @DisplayName("should scrape every url published by discovery exactly once")
+    @SuppressWarnings("unchecked")
+    void shouldScrapeEveryPublishedUrlOnce() {
+        when(discoveryService.findCandidateFarmUrls(anyInt(), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<String> listener = invocation.getArgument(1);
+            listener.accept("https://a.example.com");
+            listener.accept("https://b.example.com");
+            listener.accept("https://a.example.com");
+            return List.of("https://a.example.com", "https://b.example.com", "https://c.example.com");
+        });
+        when(farmScraperService.scrapeFarmLeads(anyString())).thenReturn(Set.of(new FarmLead()));
+
+        LeadScrapePipeline.RunSummary summary = pipeline.run(10, 2, 1);
+
+        verify(farmScraperService, times(1)).scrapeFarmLeads("https://a.example.com");
+        verify(farmScraperService, times(1)).scrapeFarmLeads("https://b.example.com");
+        verify(farmScraperService, times(1)).scrapeFarmLeads("https://c.example.com");
+        assertThat(summary.urlsDiscovered()).isEqualTo(3);
+        assertThat(summary.scrapedOk()).isEqualTo(3);
+        assertThat(summary.leadsFound()).isEqualTo(3);
+        assertThat(summary.discoveryFailed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should count scrape errors and still scrape urls published before discovery failed")
+    @SuppressWarnings("unchecked")
+    void shouldCountErrorsAndKeepPublishedUrlsOnDiscoveryFailure() {
+        when(discoveryService.findCandidateFarmUrls(anyInt(), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<String> listener = invocation.getArgument(1);
+            listener.accept("https://ok.example.com");
+            listener.accept("https://boom.example.com");
+            throw new IllegalStateException("serp down");
+        });
+        when(farmScraperService.scrapeFarmLeads("https://ok.example.com")).thenReturn(Set.of());
+        when(farmScraperService.scrapeFarmLeads("https://boom.example.com"))
+                .thenThrow(new RuntimeException("timeout"));
+
+        LeadScrapePipeline.RunSummary summary = pipeline.run(10, 1, 5);
+
+        assertThat(summary.urlsDiscovered()).isEqualTo(2);
+        assertThat(summary.scrapedOk()).isEqualTo(1);
+        assertThat(summary.scrapeErrors()).isEqualTo(1);
+        assertThat(summary.discoveryFailed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("should not publish more urls than maxUrls")
+    @SuppressWarnings("unchecked")
+    void shouldRespectMaxUrls() {
+        when(discoveryService.findCandidateFarmUrls(anyInt(), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<String> listener = invocation.getArgument(1);
+            listener.accept("https://a.example.com");
+            listener.accept("https://b.example.com");
+            listener.accept("https://c.example.com");
+            return List.of();
+        });
+        when(farmScraperService.scrapeFarmLeads(anyString())).thenReturn(Set.of());
+
+        LeadScrapePipeline.RunSummary summary = pipeline.run(2, 2, 2);
+
+        assertThat(summary.urlsDiscovered()).isEqualTo(2);
+        verify(farmScraperService, times(2)).scrapeFarmLeads(anyString());
+    }
+}
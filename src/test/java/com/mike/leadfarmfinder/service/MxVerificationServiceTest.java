@@ -0,0 +1,119 @@
+package com.mike.leadfarmfinder.service;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MxVerificationServiceTest {
+
+    private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    private final Map<String, MxLookUp.MxStatus> dns = Map.of(
+            "gmx.de", MxLookUp.MxStatus.VALID,
+            "web.de", MxLookUp.MxStatus.VALID,
+            "no-mail.de", MxLookUp.MxStatus.INVALID
+    );
+
+    private LeadFinderProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LeadFinderProperties();
+    }
+
+    @Test
+    @DisplayName("should resolve each domain once and serve repeats from cache, including negative results")
+    void shouldCachePositiveAndNegativeResults() {
+        MxVerificationService service = new MxVerificationService(countingLookup(), properties);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.checkDomain("gmx.de")).isEqualTo(MxLookUp.MxStatus.VALID);
+            assertThat(service.checkDomain("GMX.de.")).isEqualTo(MxLookUp.MxStatus.VALID);
+            assertThat(service.checkDomain("no-mail.de")).isEqualTo(MxLookUp.MxStatus.INVALID);
+        }
+
+        assertThat(lookups.get("gmx.de")).hasValue(1);
+        assertThat(lookups.get("no-mail.de")).hasValue(1);
+        assertThat(service.stats().misses()).isEqualTo(2);
+        assertThat(service.stats().hits()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("should not cache a status whose TTL is zero")
+    void shouldRetryUnknownWhenTtlIsZero() {
+        properties.getMxCache().setUnknownTtlMinutes(0);
+        MxVerificationService service = new MxVerificationService(countingLookup(), properties);
+
+        service.checkDomain("timeout.de");
+        service.checkDomain("timeout.de");
+
+        assertThat(lookups.get("timeout.de")).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should evict the least recently used domain when the cache is full")
+    void shouldEvictLeastRecentlyUsed() {
+        properties.getMxCache().setMaxEntries(1);
+        MxVerificationService service = new MxVerificationService(countingLookup(), properties);
+
+        service.checkDomain("gmx.de");
+        service.checkDomain("web.de");
+        service.checkDomain("gmx.de");
+
+        assertThat(lookups.get("gmx.de")).hasValue(2);
+        assertThat(service.stats().entries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should share one DNS lookup between concurrent requests for the same domain")
+    void shouldCoalesceConcurrentLookups() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MxLookUp blocking = domain -> {
+            lookups.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return MxLookUp.MxStatus.VALID;
+        };
+        MxVerificationService service = new MxVerificationService(blocking, properties);
+
+        CompletableFuture<MxLookUp.MxStatus> first = service.checkDomainAsync("web.de");
+        CompletableFuture<MxLookUp.MxStatus> second = service.checkDomainAsync("web.de");
+        assertThat(first).isNotDone();
+
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(MxLookUp.MxStatus.VALID);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(MxLookUp.MxStatus.VALID);
+        assertThat(lookups.get("web.de")).hasValue(1);
+        assertThat(service.stats().coalesced()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should treat a failing lookup as UNKNOWN")
+    void shouldMapLookupFailureToUnknown() {
+        MxVerificationService service = new MxVerificationService(domain -> {
+            throw new IllegalStateException("resolver down");
+        }, properties);
+
+        assertThat(service.checkDomain("gmx.de")).isEqualTo(MxLookUp.MxStatus.UNKNOWN);
+    }
+
+    private MxLookUp countingLookup() {
+        return domain -> {
+            lookups.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+            return dns.getOrDefault(domain, MxLookUp.MxStatus.UNKNOWN);
+        };
+    }
+}
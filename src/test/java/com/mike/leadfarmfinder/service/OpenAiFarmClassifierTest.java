@@ -0,0 +1,107 @@
+package com.mike.leadfarmfinder.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.dto.UrlSnippet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OpenAiFarmClassifierTest {
+
+    @Mock
+    private OpenAiService openAiService;
+    @Mock
+    private FarmClassificationCache classificationCache;
+
+    private OpenAiFarmClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new OpenAiFarmClassifier(
+                openAiService,
+                new ObjectMapper(),
+                classificationCache,
+                new OpenAiProperties("key", "https://api.openai.com/v1", "model", 8)
+        );
+    }
+
+    @Test
+    @DisplayName("should classify several snippets with one OpenAI call and keep input order")
+    void shouldClassifyBatchWithOneCall() {
+        when(classificationCache.find(anyString(), anyString())).thenReturn(Optional.empty());
+        when(openAiService.classify(anyString())).thenReturn("""
+                {"results": [
+                  {"index": 1, "is_farm": false, "is_seasonal_jobs": false, "reason": "city-government-website", "main_contact_url": null},
+                  {"index": 0, "is_farm": true, "is_seasonal_jobs": true, "reason": "single-farm-website", "main_contact_url": "https://hof.de/kontakt"}
+                ]}
+                """);
+
+        List<FarmClassificationResult> results = classifier.classifyFarms(List.of(
+                new UrlSnippet("https://hof.de", "Spargelhof Erntehelfer"),
+                new UrlSnippet("https://stadt.de", "Stadtverwaltung")
+        ));
+
+        assertThat(results).containsExactly(
+                new FarmClassificationResult(true, true, "single-farm-website", "https://hof.de/kontakt"),
+                new FarmClassificationResult(false, false, "city-government-website", null)
+        );
+        verify(openAiService, times(1)).classify(argThat(p -> p.contains("ITEM 0") && p.contains("ITEM 1")));
+        verify(classificationCache, times(2)).put(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should fall back to a single call for items missing from the batch response")
+    void shouldFallBackToSingleCallForInvalidItems() {
+        when(classificationCache.find(anyString(), anyString())).thenReturn(Optional.empty());
+        when(openAiService.classify(argThat(p -> p != null && p.contains("ITEM 0")))).thenReturn("""
+                {"results": [
+                  {"index": 0, "is_farm": true, "is_seasonal_jobs": false, "reason": "farm", "main_contact_url": null},
+                  {"index": 1, "is_farm": "maybe"}
+                ]}
+                """);
+        when(openAiService.classify(argThat(p -> p != null && !p.contains("ITEM 0")))).thenReturn("""
+                {"is_farm": false, "is_seasonal_jobs": false, "reason": "no-clear-sign-of-farm", "main_contact_url": null}
+                """);
+
+        List<FarmClassificationResult> results = classifier.classifyFarms(List.of(
+                new UrlSnippet("https://hof.de", "Hofladen"),
+                new UrlSnippet("https://blog.de", "Rezepte")
+        ));
+
+        assertThat(results).extracting(FarmClassificationResult::isFarm).containsExactly(true, false);
+        assertThat(results.get(1).reason()).isEqualTo("no-clear-sign-of-farm");
+        verify(openAiService, times(2)).classify(anyString());
+    }
+
+    @Test
+    @DisplayName("should serve cached items without calling OpenAI")
+    void shouldServeCachedItemsWithoutCall() {
+        FarmClassificationResult cached = new FarmClassificationResult(true, false, "cached", null);
+        when(classificationCache.find(anyString(), anyString())).thenReturn(Optional.of(cached));
+
+        List<FarmClassificationResult> results = classifier.classifyFarms(List.of(
+                new UrlSnippet("https://a.de", "a"),
+                new UrlSnippet("https://b.de", "b")
+        ));
+
+        assertThat(results).containsExactly(cached, cached);
+        verify(openAiService, never()).classify(anyString());
+    }
+}
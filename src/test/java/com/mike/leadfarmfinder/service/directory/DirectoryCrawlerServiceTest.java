@@ -1,12 +1,15 @@
 package com.mike.leadfarmfinder.service.directory;
 
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
 import com.mike.leadfarmfinder.dto.FarmClassificationResult;
+import com.mike.leadfarmfinder.dto.UrlSnippet;
 import com.mike.leadfarmfinder.service.FarmScraperService;
 import com.mike.leadfarmfinder.service.OpenAiFarmClassifier;
 import com.mike.leadfarmfinder.service.discovery.DiscoveredUrlWriter;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryDuplicateChecker;
 import com.mike.leadfarmfinder.service.discovery.DiscoverySnippetFetcher;
 import com.mike.leadfarmfinder.service.discovery.DiscoveryUrlNormalizer;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,11 +17,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -49,7 +57,8 @@ class DirectoryCrawlerServiceTest {
                 discoveredUrlWriter,
                 farmScraperService,
                 snippetFetcher,
-                farmClassifier
+                farmClassifier,
+                new PageFetcher(new LeadFinderProperties())
         );
         when(source.sourceName()).thenReturn("test-source");
     }
@@ -64,8 +73,7 @@ class DirectoryCrawlerServiceTest {
             when(source.fetchFarmUrls()).thenReturn(List.of("https://farm.de"));
             when(urlNormalizer.normalizeUrl("https://farm.de")).thenReturn("https://farm.de");
             when(urlNormalizer.extractNormalizedDomain("https://farm.de")).thenReturn("farm.de");
-            when(duplicateChecker.checkAlreadySeen("https://farm.de", "farm.de"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_URL);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_URL));
 
             List<DirectoryCrawlResult> results = service.crawlAll(10);
 
@@ -81,8 +89,7 @@ class DirectoryCrawlerServiceTest {
             when(source.fetchFarmUrls()).thenReturn(List.of("https://farm.de"));
             when(urlNormalizer.normalizeUrl("https://farm.de")).thenReturn("https://farm.de");
             when(urlNormalizer.extractNormalizedDomain("https://farm.de")).thenReturn("farm.de");
-            when(duplicateChecker.checkAlreadySeen("https://farm.de", "farm.de"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
             when(snippetFetcher.fetchTextSnippet("https://farm.de")).thenReturn("Hofladen Bayern Direktverkauf");
             when(farmClassifier.classifyFarm("https://farm.de", "Hofladen Bayern Direktverkauf"))
                     .thenReturn(IS_FARM);
@@ -102,8 +109,7 @@ class DirectoryCrawlerServiceTest {
             when(source.fetchFarmUrls()).thenReturn(List.of("https://stadtportal.de"));
             when(urlNormalizer.normalizeUrl("https://stadtportal.de")).thenReturn("https://stadtportal.de");
             when(urlNormalizer.extractNormalizedDomain("https://stadtportal.de")).thenReturn("stadtportal.de");
-            when(duplicateChecker.checkAlreadySeen("https://stadtportal.de", "stadtportal.de"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
             when(snippetFetcher.fetchTextSnippet("https://stadtportal.de")).thenReturn("Stadtverwaltung Bürgermeister");
             when(farmClassifier.classifyFarm("https://stadtportal.de", "Stadtverwaltung Bürgermeister"))
                     .thenReturn(NOT_FARM);
@@ -125,10 +131,9 @@ class DirectoryCrawlerServiceTest {
             when(urlNormalizer.normalizeUrl(anyString())).thenAnswer(i -> i.getArgument(0));
             when(urlNormalizer.extractNormalizedDomain(anyString())).thenAnswer(i ->
                     i.getArgument(0, String.class).replace("https://", ""));
-            when(duplicateChecker.checkAlreadySeen(anyString(), anyString()))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
             when(snippetFetcher.fetchTextSnippet(anyString())).thenReturn("Hofladen Bayern");
-            when(farmClassifier.classifyFarm(anyString(), anyString())).thenReturn(IS_FARM);
+            when(farmClassifier.classifyFarms(anyList())).thenAnswer(allClassifiedAs(IS_FARM));
             doThrow(new RuntimeException("timeout")).when(farmScraperService).scrapeFarmLeads("https://farm-a.de");
 
             List<DirectoryCrawlResult> results = service.crawlAll(10);
@@ -148,10 +153,9 @@ class DirectoryCrawlerServiceTest {
             when(urlNormalizer.normalizeUrl(anyString())).thenAnswer(i -> i.getArgument(0));
             when(urlNormalizer.extractNormalizedDomain(anyString())).thenAnswer(i ->
                     i.getArgument(0, String.class).replace("https://", ""));
-            when(duplicateChecker.checkAlreadySeen(anyString(), anyString()))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap())).thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
             when(snippetFetcher.fetchTextSnippet(anyString())).thenReturn("Hofladen Bayern");
-            when(farmClassifier.classifyFarm(anyString(), anyString())).thenReturn(IS_FARM);
+            when(farmClassifier.classifyFarms(anyList())).thenAnswer(allClassifiedAs(IS_FARM));
 
             List<DirectoryCrawlResult> results = service.crawlAll(2);
 
@@ -160,6 +164,49 @@ class DirectoryCrawlerServiceTest {
             verify(farmScraperService, never()).scrapeFarmLeads("https://farm-c.de");
         }
 
+        @Test
+        @DisplayName("checks duplicates with one batch call and skips second url of a domain processed in this run")
+        void checksDuplicatesInBatchAndSkipsDomainProcessedInRun() {
+            when(source.fetchFarmUrls()).thenReturn(List.of("https://farm.de", "https://farm.de/kontakt"));
+            when(urlNormalizer.normalizeUrl(anyString())).thenAnswer(i -> i.getArgument(0));
+            when(urlNormalizer.extractNormalizedDomain(anyString())).thenReturn("farm.de");
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap()))
+                    .thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
+            when(snippetFetcher.fetchTextSnippet("https://farm.de")).thenReturn("Hofladen Bayern");
+            when(farmClassifier.classifyFarm("https://farm.de", "Hofladen Bayern")).thenReturn(IS_FARM);
+
+            List<DirectoryCrawlResult> results = service.crawlAll(10);
+
+            assertThat(results.get(0).urlsProcessed()).isEqualTo(1);
+            assertThat(results.get(0).urlsSkippedDuplicate()).isEqualTo(1);
+            verify(duplicateChecker, times(1)).checkAlreadySeenBatch(anyMap());
+            verify(duplicateChecker, never()).checkAlreadySeen(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("classifies several new urls with one batch call")
+        void classifiesSeveralUrlsWithOneBatchCall() {
+            when(source.fetchFarmUrls()).thenReturn(List.of("https://farm-a.de", "https://stadt-b.de"));
+            when(urlNormalizer.normalizeUrl(anyString())).thenAnswer(i -> i.getArgument(0));
+            when(urlNormalizer.extractNormalizedDomain(anyString())).thenAnswer(i ->
+                    i.getArgument(0, String.class).replace("https://", ""));
+            when(duplicateChecker.checkAlreadySeenBatch(anyMap()))
+                    .thenAnswer(allDecisions(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN));
+            when(snippetFetcher.fetchTextSnippet(anyString())).thenReturn("text");
+            when(farmClassifier.classifyFarms(List.of(
+                    new UrlSnippet("https://farm-a.de", "text"),
+                    new UrlSnippet("https://stadt-b.de", "text")
+            ))).thenReturn(List.of(IS_FARM, NOT_FARM));
+
+            List<DirectoryCrawlResult> results = service.crawlAll(10);
+
+            assertThat(results.get(0).urlsScrapedOk()).isEqualTo(1);
+            assertThat(results.get(0).urlsRejectedByClassifier()).isEqualTo(1);
+            verify(farmClassifier, never()).classifyFarm(anyString(), anyString());
+            verify(farmScraperService).scrapeFarmLeads("https://farm-a.de");
+            verify(discoveredUrlWriter).save("https://stadt-b.de", NOT_FARM);
+        }
+
         @Test
         @DisplayName("returns empty result when source throws exception")
         void returnsEmptyResultWhenSourceThrows() {
@@ -173,4 +220,21 @@ class DirectoryCrawlerServiceTest {
             verify(farmScraperService, never()).scrapeFarmLeads(anyString());
         }
     }
-}
\ No newline at end of file
+
+    private static Answer<Map<String, DiscoveryDuplicateChecker.SeenDecision>> allDecisions(
+            DiscoveryDuplicateChecker.SeenDecision decision) {
+        return invocation -> {
+            Map<String, String> domainByUrl = invocation.getArgument(0);
+            Map<String, DiscoveryDuplicateChecker.SeenDecision> result = new LinkedHashMap<>();
+            domainByUrl.keySet().forEach(url -> result.put(url, decision));
+            return result;
+        };
+    }
+
+    private static Answer<List<FarmClassificationResult>> allClassifiedAs(FarmClassificationResult result) {
+        return invocation -> {
+            List<UrlSnippet> items = invocation.getArgument(0);
+            return items.stream().map(item -> result).toList();
+        };
+    }
+}
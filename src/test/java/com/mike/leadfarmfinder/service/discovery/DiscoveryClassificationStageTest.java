@@ -0,0 +1,127 @@
+package com.mike.leadfarmfinder.service.discovery;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiscoveryClassificationStageTest {
+
+    private LeadFinderProperties properties;
+    private DiscoveryClassificationStage stage;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LeadFinderProperties();
+        properties.getDiscovery().setClassificationConcurrency(4);
+        properties.getDiscovery().setClassificationMaxPerHost(1);
+        stage = new DiscoveryClassificationStage(properties);
+    }
+
+    @Test
+    @DisplayName("should return results in input order regardless of completion order")
+    void shouldReturnResultsInInputOrder() {
+        List<String> urls = List.of(
+                "https://a.example.com",
+                "https://b.example.com",
+                "https://c.example.com",
+                "https://d.example.com"
+        );
+
+        List<String> results = stage.processAll(
+                urls,
+                u -> u,
+                u -> {
+                    sleep(u.contains("a.") ? 150 : 10);
+                    return u + "#done";
+                },
+                u -> u + "#error"
+        );
+
+        assertThat(results).containsExactly(
+                "https://a.example.com#done",
+                "https://b.example.com#done",
+                "https://c.example.com#done",
+                "https://d.example.com#done"
+        );
+    }
+
+    @Test
+    @DisplayName("should map failing task to error result without failing others")
+    void shouldMapFailingTaskToErrorResult() {
+        List<String> results = stage.processAll(
+                List.of("https://ok.example.com", "https://boom.example.com"),
+                u -> u,
+                u -> {
+                    if (u.contains("boom")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return "ok";
+                },
+                u -> "error"
+        );
+
+        assertThat(results).containsExactly("ok", "error");
+    }
+
+    @Test
+    @DisplayName("should never exceed global concurrency cap")
+    void shouldNeverExceedGlobalConcurrencyCap() {
+        properties.getDiscovery().setClassificationConcurrency(2);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<String> urls = List.of(
+                "https://a.example.com", "https://b.example.com", "https://c.example.com",
+                "https://d.example.com", "https://e.example.com", "https://f.example.com"
+        );
+
+        stage.processAll(urls, u -> u, u -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            sleep(30);
+            inFlight.decrementAndGet();
+            return u;
+        }, u -> u);
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should serialize tasks for the same host")
+    void shouldSerializeTasksForSameHost() {
+        ConcurrentHashMap<String, AtomicInteger> inFlightPerHost = new ConcurrentHashMap<>();
+        AtomicInteger maxPerHost = new AtomicInteger();
+
+        List<String> urls = List.of(
+                "https://farm.example.com/a",
+                "https://www.farm.example.com/b",
+                "https://farm.example.com/c"
+        );
+
+        stage.processAll(urls, u -> u, u -> {
+            AtomicInteger counter = inFlightPerHost.computeIfAbsent("farm", k -> new AtomicInteger());
+            maxPerHost.accumulateAndGet(counter.incrementAndGet(), Math::max);
+            sleep(30);
+            counter.decrementAndGet();
+            return u;
+        }, u -> u);
+
+        assertThat(maxPerHost.get()).isEqualTo(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
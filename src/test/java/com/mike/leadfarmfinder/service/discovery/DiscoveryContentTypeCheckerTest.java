@@ -1,5 +1,7 @@
 package com.mike.leadfarmfinder.service.discovery;
 
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
@@ -88,7 +90,7 @@ class DiscoveryContentTypeCheckerTest {
                 exchange.close();
             });
 
-            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker();
+            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker(new PageFetcher(new LeadFinderProperties()));
             DiscoveryContentTypeResult r = checker.check(baseUrl() + "/p");
 
             assertThat(r.reason()).isEqualTo(DiscoveryContentTypeResult.Reason.OK);
@@ -108,7 +110,7 @@ class DiscoveryContentTypeCheckerTest {
                 exchange.close();
             });
 
-            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker();
+            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker(new PageFetcher(new LeadFinderProperties()));
             DiscoveryContentTypeResult r = checker.check(baseUrl() + "/p");
 
             assertThat(r.reason()).isEqualTo(DiscoveryContentTypeResult.Reason.OK);
@@ -127,7 +129,7 @@ class DiscoveryContentTypeCheckerTest {
                 exchange.close();
             });
 
-            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker();
+            DiscoveryContentTypeChecker checker = new DiscoveryContentTypeChecker(new PageFetcher(new LeadFinderProperties()));
             DiscoveryContentTypeResult r = checker.check(baseUrl() + "/p");
 
             assertThat(r.reason()).isEqualTo(DiscoveryContentTypeResult.Reason.PDF);
@@ -6,6 +6,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -50,4 +54,39 @@ class DiscoveryDuplicateCheckerTest {
 
         assertThat(result).isEqualTo(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldResolveBatchWithTwoQueriesInInputOrder() {
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("https://a.de", "a.de");
+        input.put("https://b.de/x", "b.de");
+        input.put("https://c.de", "c.de");
+        input.put("https://d.de", null);
+
+        when(repository.findExistingUrls(anyCollection())).thenReturn(List.of("https://a.de"));
+        when(repository.findExistingDomains(anyCollection())).thenReturn(List.of("a.de", "b.de"));
+
+        var checker = new DiscoveryDuplicateChecker(repository);
+
+        var result = checker.checkAlreadySeenBatch(input);
+
+        assertThat(result).containsExactly(
+                Map.entry("https://a.de", DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_URL),
+                Map.entry("https://b.de/x", DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_DOMAIN),
+                Map.entry("https://c.de", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN),
+                Map.entry("https://d.de", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN)
+        );
+        verify(repository, times(1)).findExistingUrls(anyCollection());
+        verify(repository, times(1)).findExistingDomains(anyCollection());
+        verify(repository, never()).existsByUrl(any());
+        verify(repository, never()).existsByDomain(any());
+    }
+
+    @Test
+    void shouldSkipQueriesForEmptyBatch() {
+        var checker = new DiscoveryDuplicateChecker(repository);
+
+        assertThat(checker.checkAlreadySeenBatch(Map.of())).isEmpty();
+        verifyNoInteractions(repository);
+    }
+}
@@ -18,6 +18,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -70,7 +71,8 @@ class DiscoveryServiceLogicRulesTest {
                 serpApiService,
                 farmClassifier,
                 leadFinderProperties,
-                discoveryQueryProvider
+                discoveryQueryProvider,
+                new DiscoveryClassificationStage(leadFinderProperties)
         );
     }
 
@@ -205,12 +207,15 @@ class DiscoveryServiceLogicRulesTest {
             when(urlNormalizer.extractNormalizedDomain("https://new.example.com")).thenReturn("new.example.com");
             when(urlNormalizer.extractNormalizedDomain("https://hard.example.com/blog")).thenReturn("hard.example.com");
 
-            when(duplicateChecker.checkAlreadySeen("https://seen.example.com", "seen.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_URL);
-            when(duplicateChecker.checkAlreadySeen("https://new.example.com", "new.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
-            when(duplicateChecker.checkAlreadySeen("https://hard.example.com/blog", "hard.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(Map.of(
+                    "https://seen.example.com", "seen.example.com",
+                    "https://new.example.com", "new.example.com",
+                    "https://hard.example.com/blog", "hard.example.com"
+            ))).thenReturn(Map.of(
+                    "https://seen.example.com", DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_URL,
+                    "https://new.example.com", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN,
+                    "https://hard.example.com/blog", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN
+            ));
 
             when(discoveryUrlFilter.isHardNegativePath("https://new.example.com")).thenReturn(false);
             when(discoveryUrlFilter.isHardNegativePath("https://hard.example.com/blog")).thenReturn(true);
@@ -246,8 +251,11 @@ class DiscoveryServiceLogicRulesTest {
                     .thenReturn("https://farm.example.com/kontakt");
             when(urlNormalizer.extractNormalizedDomain("https://farm.example.com/kontakt"))
                     .thenReturn("farm.example.com");
-            when(duplicateChecker.checkAlreadySeen("https://farm.example.com/kontakt", "farm.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_DOMAIN);
+            when(duplicateChecker.checkAlreadySeenBatch(Map.of(
+                    "https://farm.example.com/kontakt", "farm.example.com"
+            ))).thenReturn(Map.of(
+                    "https://farm.example.com/kontakt", DiscoveryDuplicateChecker.SeenDecision.SEEN_BY_DOMAIN
+            ));
 
             Object outcome = invokePrivate(
                     "selectNewUrlsForClassification",
@@ -284,10 +292,13 @@ class DiscoveryServiceLogicRulesTest {
             when(urlNormalizer.extractNormalizedDomain("https://farm.example.com/kontakt")).thenReturn("farm.example.com");
             when(urlNormalizer.extractNormalizedDomain("https://other.example.com")).thenReturn("other.example.com");
 
-            when(duplicateChecker.checkAlreadySeen("https://farm.example.com", "farm.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
-            when(duplicateChecker.checkAlreadySeen("https://other.example.com", "other.example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(Map.of(
+                    "https://farm.example.com", "farm.example.com",
+                    "https://other.example.com", "other.example.com"
+            ))).thenReturn(Map.of(
+                    "https://farm.example.com", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN,
+                    "https://other.example.com", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN
+            ));
 
             when(discoveryUrlFilter.isHardNegativePath("https://farm.example.com")).thenReturn(false);
             when(discoveryUrlFilter.isHardNegativePath("https://other.example.com")).thenReturn(false);
@@ -320,8 +331,11 @@ class DiscoveryServiceLogicRulesTest {
 
             when(urlNormalizer.normalizeUrl("https://example.com/")).thenReturn("https://example.com");
             when(urlNormalizer.extractNormalizedDomain("https://example.com")).thenReturn("example.com");
-            when(duplicateChecker.checkAlreadySeen("https://example.com", "example.com"))
-                    .thenReturn(DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN);
+            when(duplicateChecker.checkAlreadySeenBatch(Map.of(
+                    "https://example.com", "example.com"
+            ))).thenReturn(Map.of(
+                    "https://example.com", DiscoveryDuplicateChecker.SeenDecision.NOT_SEEN
+            ));
             when(discoveryUrlFilter.isHardNegativePath("https://example.com")).thenReturn(false);
 
             Object outcome = invokePrivate(
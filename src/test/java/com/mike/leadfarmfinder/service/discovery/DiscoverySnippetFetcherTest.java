@@ -1,34 +1,31 @@
 package com.mike.leadfarmfinder.service.discovery;
 
-import org.jsoup.Connection;
-import org.jsoup.HttpStatusException;
-import org.jsoup.Jsoup;
-import org.jsoup.UnsupportedMimeTypeException;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
+import com.mike.leadfarmfinder.service.http.FetchedPage;
+import com.mike.leadfarmfinder.service.http.PageFetcher;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.net.ssl.SSLHandshakeException;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertPathValidatorException;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +34,9 @@ class DiscoverySnippetFetcherTest {
     @Mock
     private DiscoveryContentTypeChecker contentTypeChecker;
 
+    @Mock
+    private PageFetcher pageFetcher;
+
     @InjectMocks
     private DiscoverySnippetFetcher fetcher;
 
@@ -48,34 +48,15 @@ class DiscoverySnippetFetcherTest {
         );
     }
 
-    private Connection mockConnectionChain(MockedStatic<Jsoup> jsoupMock, String url) throws IOException {
-        Connection connection = mock(Connection.class);
-        jsoupMock.when(() -> Jsoup.connect(url)).thenReturn(connection);
-        when(connection.userAgent(anyString())).thenReturn(connection);
-        when(connection.referrer(anyString())).thenReturn(connection);
-        when(connection.timeout(anyInt())).thenReturn(connection);
-        when(connection.followRedirects(true)).thenReturn(connection);
-        when(connection.ignoreHttpErrors(false)).thenReturn(connection);
-        return connection;
-    }
-
-    private Connection mockConnectionChainForAnyUrl(MockedStatic<Jsoup> jsoupMock) throws IOException {
-        Connection connection = mock(Connection.class);
-        jsoupMock.when(() -> Jsoup.connect(anyString())).thenReturn(connection);
-        when(connection.userAgent(anyString())).thenReturn(connection);
-        when(connection.referrer(anyString())).thenReturn(connection);
-        when(connection.timeout(anyInt())).thenReturn(connection);
-        when(connection.followRedirects(true)).thenReturn(connection);
-        when(connection.ignoreHttpErrors(false)).thenReturn(connection);
-        return connection;
+    private static FetchedPage htmlPage(String url, String bodyText) {
+        String html = "<html><head><script>var x = 1;</script></head><body>"
+                + (bodyText == null ? "" : bodyText)
+                + "</body></html>";
+        return new FetchedPage(url, url, 200, "text/html; charset=UTF-8", html.getBytes(StandardCharsets.UTF_8));
     }
 
-    private void mockDocumentWithText(Connection connection, String text) throws IOException {
-        Document document = mock(Document.class);
-        Elements elements = mock(Elements.class);
-        when(connection.get()).thenReturn(document);
-        when(document.select("script,style,noscript")).thenReturn(elements);
-        when(document.text()).thenReturn(text);
+    private static FetchedPage statusPage(String url, int status) {
+        return new FetchedPage(url, url, status, "text/html", new byte[0]);
     }
 
     @Nested
@@ -90,15 +71,12 @@ class DiscoverySnippetFetcherTest {
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                mockDocumentWithText(connection, longText);
+            when(pageFetcher.get(eq(url), any(Duration.class))).thenReturn(htmlPage(url, longText));
 
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).hasSize(150);
-                assertThat(result).isEqualTo("a".repeat(150));
-            }
+            assertThat(result).hasSize(150);
+            assertThat(result).isEqualTo("a".repeat(150));
         }
 
         @Test
@@ -108,14 +86,11 @@ class DiscoverySnippetFetcherTest {
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                mockDocumentWithText(connection, "   short text   ");
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenReturn(htmlPage(url, "   short text   "));
 
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-            }
+            assertThat(result).isEmpty();
         }
 
         @Test
@@ -126,31 +101,39 @@ class DiscoverySnippetFetcherTest {
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                mockDocumentWithText(connection, veryLongText);
+            when(pageFetcher.get(eq(url), any(Duration.class))).thenReturn(htmlPage(url, veryLongText));
 
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).hasSize(2000);
-            }
+            assertThat(result).hasSize(2000);
         }
 
         @Test
-        @DisplayName("should return empty string when text is null")
-        void shouldReturnEmptyStringWhenTextIsNull() throws Exception {
+        @DisplayName("should return empty string when page has no text")
+        void shouldReturnEmptyStringWhenPageHasNoText() throws Exception {
             String url = "https://farm.example.com";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenReturn(htmlPage(url, null));
+
+            String result = fetcher.fetchTextSnippet(url);
+
+            assertThat(result).isEmpty();
+        }
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                mockDocumentWithText(connection, null);
+        @Test
+        @DisplayName("should drop script content from snippet")
+        void shouldDropScriptContent() throws Exception {
+            String url = "https://farm.example.com";
+            String longText = "b".repeat(150);
+
+            when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(eq(url), any(Duration.class))).thenReturn(htmlPage(url, longText));
 
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-            }
+            assertThat(result).isEqualTo(longText);
+            assertThat(result).doesNotContain("var x");
         }
     }
 
@@ -159,8 +142,8 @@ class DiscoverySnippetFetcherTest {
     class ContentTypePrecheckTests {
 
         @Test
-        @DisplayName("should skip Jsoup when precheck says PDF")
-        void shouldSkipJsoupWhenPrecheckSaysPdf() {
+        @DisplayName("should skip fetch when precheck says PDF")
+        void shouldSkipFetchWhenPrecheckSaysPdf() {
             String url = "https://farm.example.com/paper.pdf";
 
             when(contentTypeChecker.check(anyString())).thenReturn(
@@ -171,17 +154,15 @@ class DiscoverySnippetFetcherTest {
                     )
             );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-                jsoupMock.verifyNoInteractions();
-            }
+            assertThat(result).isEmpty();
+            verifyNoInteractions(pageFetcher);
         }
 
         @Test
-        @DisplayName("should skip Jsoup when precheck says non-HTML")
-        void shouldSkipJsoupWhenPrecheckSaysNonHtml() {
+        @DisplayName("should skip fetch when precheck says non-HTML")
+        void shouldSkipFetchWhenPrecheckSaysNonHtml() {
             String url = "https://farm.example.com/binary";
 
             when(contentTypeChecker.check(anyString())).thenReturn(
@@ -192,33 +173,27 @@ class DiscoverySnippetFetcherTest {
                     )
             );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-                jsoupMock.verifyNoInteractions();
-            }
+            assertThat(result).isEmpty();
+            verifyNoInteractions(pageFetcher);
         }
 
         @Test
-        @DisplayName("should call Jsoup when precheck is UNKNOWN")
-        void shouldCallJsoupWhenPrecheckUnknown() throws Exception {
+        @DisplayName("should fetch page when precheck is UNKNOWN")
+        void shouldFetchWhenPrecheckUnknown() throws Exception {
             String url = "https://farm.example.com";
             String longText = "a".repeat(150);
 
             when(contentTypeChecker.check(anyString()))
                     .thenReturn(DiscoveryContentTypeResult.unknown());
+            when(pageFetcher.get(eq(url), any(Duration.class))).thenReturn(htmlPage(url, longText));
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                mockDocumentWithText(connection, longText);
+            String result = fetcher.fetchTextSnippet(url);
 
-                String result = fetcher.fetchTextSnippet(url);
-
-                assertThat(result).isEqualTo(longText);
-                verify(contentTypeChecker).check(url);
-                jsoupMock.verify(() -> Jsoup.connect(url));
-            }
+            assertThat(result).isEqualTo(longText);
+            verify(contentTypeChecker).check(url);
+            verify(pageFetcher).get(eq(url), any(Duration.class));
         }
     }
 
@@ -227,22 +202,18 @@ class DiscoverySnippetFetcherTest {
     class HttpErrorHandlingTests {
 
         @Test
-        @DisplayName("should return empty string when unsupported mime type is thrown")
+        @DisplayName("should return empty string when response has unsupported mime type")
         void shouldReturnEmptyOnUnsupportedMimeType() throws Exception {
             String url = "https://farm.example.com";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenReturn(
+                    new FetchedPage(url, url, 200, "application/pdf", new byte[]{1, 2, 3})
+            );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                when(connection.get()).thenThrow(
-                        new UnsupportedMimeTypeException("nope", "application/pdf", url)
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-            }
+            assertThat(result).isEmpty();
         }
 
         @Test
@@ -251,15 +222,11 @@ class DiscoverySnippetFetcherTest {
             String url = "https://farm.example.com";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(new IOException("connection failed"));
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChain(jsoupMock, url);
-                when(connection.get()).thenThrow(new IOException("connection failed"));
+            String result = fetcher.fetchTextSnippet(url);
 
-                String result = fetcher.fetchTextSnippet(url);
-
-                assertThat(result).isEmpty();
-            }
+            assertThat(result).isEmpty();
         }
     }
 
@@ -273,21 +240,14 @@ class DiscoverySnippetFetcherTest {
             String url = "https://blocked-farm.de/produkte";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenReturn(statusPage(url, 403));
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new HttpStatusException("Forbidden", 403, url)
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
+            assertThat(result).isEmpty();
 
-                // 403 on first candidate → blocked → skip 7 remaining candidates
-                // Only 1 Jsoup.connect call (for the original URL), not 8
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(1));
-            }
+            // 403 on first candidate → blocked → skip 7 remaining candidates
+            verify(pageFetcher, times(1)).get(anyString(), any(Duration.class));
         }
     }
 
@@ -302,22 +262,18 @@ class DiscoverySnippetFetcherTest {
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-
-                SSLHandshakeException sslError = new SSLHandshakeException(
-                        "PKIX path validation failed"
-                );
-                sslError.initCause(new CertPathValidatorException("validity check failed"));
-                when(connection.get()).thenThrow(sslError);
+            SSLHandshakeException sslError = new SSLHandshakeException(
+                    "PKIX path validation failed"
+            );
+            sslError.initCause(new CertPathValidatorException("validity check failed"));
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(sslError);
 
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
+            assertThat(result).isEmpty();
 
-                // SSL error on first attempt → host blocked → skip remaining candidates
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(1));
-            }
+            // SSL error on first attempt → host blocked → skip remaining candidates
+            verify(pageFetcher, times(1)).get(anyString(), any(Duration.class));
         }
 
         @Test
@@ -326,18 +282,14 @@ class DiscoverySnippetFetcherTest {
             String url = "https://broken-ssl-farm.de";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(
+                    new SSLHandshakeException("Remote host terminated the handshake")
+            );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new SSLHandshakeException("Remote host terminated the handshake")
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(1));
-            }
+            assertThat(result).isEmpty();
+            verify(pageFetcher, times(1)).get(anyString(), any(Duration.class));
         }
     }
 
@@ -351,19 +303,15 @@ class DiscoverySnippetFetcherTest {
             String url = "https://nonexistent-farm.de";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(
+                    new IOException("java.net.UnknownHostException: nonexistent-farm.de",
+                            new UnknownHostException("nonexistent-farm.de"))
+            );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new IOException("java.net.UnknownHostException: nonexistent-farm.de",
-                                new UnknownHostException("nonexistent-farm.de"))
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(1));
-            }
+            assertThat(result).isEmpty();
+            verify(pageFetcher, times(1)).get(anyString(), any(Duration.class));
         }
 
         @Test
@@ -372,19 +320,15 @@ class DiscoverySnippetFetcherTest {
             String url = "https://offline-farm.de";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(
+                    new IOException("Connection refused",
+                            new ConnectException("Connection refused"))
+            );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new IOException("Connection refused",
-                                new ConnectException("Connection refused"))
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(1));
-            }
+            assertThat(result).isEmpty();
+            verify(pageFetcher, times(1)).get(anyString(), any(Duration.class));
         }
     }
 
@@ -398,20 +342,14 @@ class DiscoverySnippetFetcherTest {
             String url = "https://farm.example.com/missing-page";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenReturn(statusPage(url, 404));
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new HttpStatusException("Not Found", 404, url)
-                );
+            String result = fetcher.fetchTextSnippet(url);
 
-                String result = fetcher.fetchTextSnippet(url);
+            assertThat(result).isEmpty();
 
-                assertThat(result).isEmpty();
-
-                // 404 is NOT host-level → should try all 8 candidates
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(8));
-            }
+            // 404 is NOT host-level → should try all 8 candidates
+            verify(pageFetcher, times(8)).get(anyString(), any(Duration.class));
         }
 
         @Test
@@ -420,21 +358,17 @@ class DiscoverySnippetFetcherTest {
             String url = "https://slow-farm.de";
 
             when(contentTypeChecker.check(anyString())).thenReturn(probeOkHtml());
+            when(pageFetcher.get(anyString(), any(Duration.class))).thenThrow(
+                    new IOException("Read timed out")
+            );
 
-            try (MockedStatic<Jsoup> jsoupMock = mockStatic(Jsoup.class)) {
-                Connection connection = mockConnectionChainForAnyUrl(jsoupMock);
-                when(connection.get()).thenThrow(
-                        new IOException("Read timed out")
-                );
-
-                String result = fetcher.fetchTextSnippet(url);
+            String result = fetcher.fetchTextSnippet(url);
 
-                assertThat(result).isEmpty();
+            assertThat(result).isEmpty();
 
-                // Timeout is NOT host-level → retries (2 attempts per candidate × 7 unique candidates = 14)
-                // 7 not 8 because original URL = root URL, LinkedHashSet deduplicates
-                jsoupMock.verify(() -> Jsoup.connect(anyString()), times(14));
-            }
+            // Timeout is NOT host-level → retries (2 attempts per candidate × 7 unique candidates = 14)
+            // 7 not 8 because original URL = root URL, LinkedHashSet deduplicates
+            verify(pageFetcher, times(14)).get(anyString(), any(Duration.class));
         }
     }
-}
\ No newline at end of file
+}
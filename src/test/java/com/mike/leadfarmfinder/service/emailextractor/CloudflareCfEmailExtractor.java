@@ -1,14 +1,12 @@
 package com.mike.leadfarmfinder.service.emailextractor;
 
 import com.mike.leadfarmfinder.service.CloudflareEmailDecoder;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@Component
 public class CloudflareCfEmailExtractor implements EmailSourceExtractor {
 
     private static final Pattern CLOUDFLARE_PATTERN =
@@ -0,0 +1,79 @@
+package com.mike.leadfarmfinder.service.emailextractor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regexowy łańcuch (normalizer + 3 ekstraktory) vs {@link SinglePassEmailScanner} na stronach farm z test resources.
+ * <p>
+ * Uruchomienie: {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mike.leadfarmfinder.service.emailextractor.EmailScannerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailScannerBenchmark {
+
+    @Param({"hof-impressum.html", "obsthof-kontakt.html"})
+    public String page;
+
+    private String html;
+
+    private final TextObfuscationNormalizer normalizer = new TextObfuscationNormalizer();
+    private final List<EmailSourceExtractor> chain = List.of(
+            new RegexTextExtractor(),
+            new MailToExtractor(normalizer),
+            new CloudflareCfEmailExtractor()
+    );
+    private final SinglePassEmailScanner scanner = new SinglePassEmailScanner();
+
+    @Setup
+    public void loadPage() throws IOException {
+        try (InputStream in = EmailScannerBenchmark.class.getResourceAsStream("/emailextractor/" + page)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark page " + page);
+            }
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void regexChain(Blackhole bh) {
+        String normalized = normalizer.normalize(html);
+        for (EmailSourceExtractor extractor : chain) {
+            bh.consume(extractor.extractCandidates(normalized));
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole bh) {
+        scanner.scan(html, bh::consume);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EmailScannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
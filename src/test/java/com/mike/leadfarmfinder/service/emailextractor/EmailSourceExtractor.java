@@ -0,0 +1,11 @@
+package com.mike.leadfarmfinder.service.emailextractor;
+
+import java.util.List;
+
+/**
+ * Poprzedni, wieloprzebiegowy łańcuch ekstraktorów (każdy skanuje cały dokument własnym regexem).
+ * {@code EmailExtractor} używa teraz {@link SinglePassEmailScanner}.
+ */
+public interface EmailSourceExtractor {
+    List<String> extractCandidates(String html);
+}
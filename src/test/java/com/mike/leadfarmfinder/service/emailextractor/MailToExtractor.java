@@ -1,14 +1,12 @@
 package com.mike.leadfarmfinder.service.emailextractor;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@Component
 @RequiredArgsConstructor
 public class MailToExtractor implements EmailSourceExtractor {
 
@@ -1,13 +1,11 @@
 package com.mike.leadfarmfinder.service.emailextractor;
 
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@Component
 public class RegexTextExtractor implements EmailSourceExtractor {
 
     private static final Pattern EMAIL_PATTERN =
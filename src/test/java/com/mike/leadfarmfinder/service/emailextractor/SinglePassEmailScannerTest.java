@@ -0,0 +1,114 @@
+package com.mike.leadfarmfinder.service.emailextractor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SinglePassEmailScannerTest {
+
+    private final SinglePassEmailScanner scanner = new SinglePassEmailScanner();
+
+    @Nested
+    @DisplayName("scan")
+    class ScanTests {
+
+        @Test
+        @DisplayName("should return empty list for null and empty input")
+        void shouldReturnEmptyForNullAndEmpty() {
+            assertThat(scanner.scan(null)).isEmpty();
+            assertThat(scanner.scan("")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should find plain addresses and backtrack to the last valid TLD")
+        void shouldFindPlainAddresses() {
+            List<String> result = scanner.scan("Mail: info@hof.de, a@b.de@c.de x@y.de-2 foo@bar.de.vu q@w.e1");
+
+            assertThat(result).containsExactly("info@hof.de", "a@b.de", "x@y.de", "foo@bar.de.vu");
+        }
+
+        @Test
+        @DisplayName("should decode (at)/(dot) and ' at ' / ' dot ' obfuscations")
+        void shouldDecodeObfuscations() {
+            List<String> result = scanner.scan("""
+                    jobs (at) hof (dot) de
+                    hofladen[at]hof[dot]de
+                    kontakt at obsthof dot de
+                    user<at>host<dot>de
+                    """);
+
+            assertThat(result).containsExactly(
+                    "jobs@hof.de",
+                    "hofladen@hof.de",
+                    "kontakt@obsthof.de",
+                    "user@host.de"
+            );
+        }
+
+        @Test
+        @DisplayName("should read mailto value without query and normalize its obfuscation")
+        void shouldReadMailto() {
+            List<String> result = scanner.scan("""
+                    <a href="mailto:info%40hof.de?subject=Hallo">x</a>
+                    <a href='MAILTO:saison(at)hof.de'>y</a>
+                    """);
+
+            assertThat(result).containsExactly("info%40hof.de", "saison@hof.de", "saison@hof.de");
+        }
+
+        @Test
+        @DisplayName("should decode data-cfemail and ignore malformed values")
+        void shouldDecodeCloudflareEmail() {
+            List<String> result = scanner.scan("""
+                    <a data-cfemail="6f060109002f0a170e021f030a410c0002"></a>
+                    <a data-cfemail="zz"></a>
+                    <a data-cfemail="6f0"></a>
+                    """);
+
+            assertThat(result).containsExactly("info@example.com");
+        }
+    }
+
+    @Nested
+    @DisplayName("equivalence with the regex chain")
+    class EquivalenceTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"hof-impressum.html", "obsthof-kontakt.html"})
+        @DisplayName("should produce the same candidates as normalizer + regex/mailto/cloudflare extractors")
+        void shouldMatchRegexChain(String page) throws IOException {
+            String html = readPage(page);
+
+            assertThat(new HashSet<>(scanner.scan(html))).isEqualTo(legacyCandidates(html));
+        }
+    }
+
+    static Set<String> legacyCandidates(String html) {
+        TextObfuscationNormalizer normalizer = new TextObfuscationNormalizer();
+        String normalized = normalizer.normalize(html);
+
+        Set<String> candidates = new HashSet<>();
+        candidates.addAll(new RegexTextExtractor().extractCandidates(normalized));
+        candidates.addAll(new MailToExtractor(normalizer).extractCandidates(normalized));
+        candidates.addAll(new CloudflareCfEmailExtractor().extractCandidates(normalized));
+        return candidates;
+    }
+
+    static String readPage(String name) throws IOException {
+        try (InputStream in = SinglePassEmailScannerTest.class.getResourceAsStream("/emailextractor/" + name)) {
+            assertThat(in).as("test page %s", name).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
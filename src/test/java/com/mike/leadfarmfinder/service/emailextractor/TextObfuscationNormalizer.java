@@ -1,10 +1,12 @@
 package com.mike.leadfarmfinder.service.emailextractor;
 
-import org.springframework.stereotype.Component;
 
 import java.util.regex.Pattern;
 
-@Component
+/**
+ * Regexowa normalizacja zaciemnień na całym HTML (4 przebiegi {@code replaceAll}).
+ * Produkcyjnie zastąpiona przez {@link SinglePassEmailScanner}; zostaje jako wzorzec zachowania w testach i benchmarku.
+ */
 public class TextObfuscationNormalizer {
 
     private static final Pattern AT_BRACKETS =
@@ -0,0 +1,174 @@
+package com.mike.leadfarmfinder.service.http;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCacheTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final byte[] BODY = "<html><body>Hofladen Impressum</body></html>".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if ("/missing".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if ("/busy".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "text/html");
+                exchange.sendResponseHeaders(200, BODY.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(BODY);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("should download the same page once per run and report savings")
+    void shouldServeRepeatedFetchFromCache() throws Exception {
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+
+        try (PageCache.Run run = fetcher.openRun("test")) {
+            FetchedPage first = fetcher.get(baseUrl() + "/impressum", TIMEOUT);
+            FetchedPage second = fetcher.get(baseUrl() + "/impressum/", TIMEOUT);
+            FetchedPage head = fetcher.head(baseUrl() + "/impressum", TIMEOUT);
+
+            assertThat(second.body()).isEqualTo(first.body());
+            assertThat(head.status()).isEqualTo(200);
+            assertThat(requests.get()).isEqualTo(1);
+            assertThat(run.stats().requestsSaved()).isEqualTo(2);
+            assertThat(run.stats().bytesSaved()).isEqualTo(BODY.length);
+        }
+    }
+
+    @Test
+    @DisplayName("should cache 404 but not transient 5xx")
+    void shouldCacheNotFoundButNotServerErrors() throws Exception {
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+
+        try (PageCache.Run ignored = fetcher.openRun("test")) {
+            fetcher.get(baseUrl() + "/missing", TIMEOUT);
+            fetcher.get(baseUrl() + "/missing", TIMEOUT);
+            fetcher.get(baseUrl() + "/busy", TIMEOUT);
+            fetcher.get(baseUrl() + "/busy", TIMEOUT);
+        }
+
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should not cache outside of a run and clear cache when the owning run closes")
+    void shouldOnlyCacheInsideRun() throws Exception {
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+
+        fetcher.get(baseUrl() + "/", TIMEOUT);
+        fetcher.get(baseUrl() + "/", TIMEOUT);
+        assertThat(requests.get()).isEqualTo(2);
+
+        try (PageCache.Run outer = fetcher.openRun("outer")) {
+            try (PageCache.Run inner = fetcher.openRun("inner")) {
+                fetcher.get(baseUrl() + "/", TIMEOUT);
+            }
+            fetcher.get(baseUrl() + "/", TIMEOUT);
+            assertThat(requests.get()).isEqualTo(3);
+        }
+
+        fetcher.get(baseUrl() + "/", TIMEOUT);
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("should keep pages and counters of overlapping runs apart")
+    void shouldIsolateOverlappingRuns() throws Exception {
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+        CountDownLatch otherFetched = new CountDownLatch(1);
+        CountDownLatch mineClosed = new CountDownLatch(1);
+        AtomicReference<PageCache.Stats> otherStats = new AtomicReference<>();
+
+        Thread other = Thread.ofVirtual().start(() -> {
+            try (PageCache.Run run = fetcher.openRun("other")) {
+                fetcher.get(baseUrl() + "/impressum", TIMEOUT);
+                otherFetched.countDown();
+                mineClosed.await();
+                fetcher.get(baseUrl() + "/impressum", TIMEOUT);
+                otherStats.set(run.stats());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try (PageCache.Run mine = fetcher.openRun("mine")) {
+            otherFetched.await();
+            fetcher.get(baseUrl() + "/impressum", TIMEOUT);
+            assertThat(requests.get()).isEqualTo(2);
+            assertThat(mine.stats().requestsSaved()).isZero();
+        }
+        mineClosed.countDown();
+        other.join();
+
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(otherStats.get().requestsSaved()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should share the run with worker threads started inside it")
+    void shouldShareRunWithWorkerThreads() throws Exception {
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+
+        try (PageCache.Run run = fetcher.openRun("pipeline")) {
+            fetcher.get(baseUrl() + "/", TIMEOUT);
+            Thread worker = Thread.ofVirtual().start(() -> {
+                try (PageCache.Run ignored = fetcher.openRun("scrape")) {
+                    fetcher.get(baseUrl() + "/", TIMEOUT);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            worker.join();
+
+            assertThat(requests.get()).isEqualTo(1);
+            assertThat(run.stats().requestsSaved()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("should normalize scheme, host, default port, trailing slash and fragment in key")
+    void shouldNormalizeKey() {
+        assertThat(PageCache.key("HTTPS://Hof.DE:443/Kontakt/#top"))
+                .isEqualTo(PageCache.key("https://hof.de/Kontakt"));
+        assertThat(PageCache.key("https://hof.de/?a=1")).isEqualTo("https://hof.de?a=1");
+        assertThat(PageCache.key("https://www.hof.de")).isNotEqualTo(PageCache.key("https://hof.de"));
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,142 @@
+package com.mike.leadfarmfinder.service.http;
+
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageFetcherTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    @Test
+    @DisplayName("should decode gzip body and follow redirect to final URL")
+    void shouldDecodeGzipAndFollowRedirect() throws Exception {
+        byte[] gzipped = gzip("<html><body>Spargelhof Erntehelfer</body></html>");
+        startServer(exchange -> {
+            if ("/start".equals(exchange.getRequestURI().getPath())) {
+                exchange.getResponseHeaders().set("Location", "/final");
+                exchange.sendResponseHeaders(301, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(200, gzipped.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(gzipped);
+                }
+            }
+            exchange.close();
+        });
+
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+        FetchedPage page = fetcher.get(baseUrl() + "/start", Duration.ofSeconds(5));
+
+        assertThat(page.isSuccess()).isTrue();
+        assertThat(page.isHtmlLike()).isTrue();
+        assertThat(page.finalUrl()).endsWith("/final");
+        assertThat(page.document().text()).isEqualTo("Spargelhof Erntehelfer");
+    }
+
+    @Test
+    @DisplayName("should return 4xx status without throwing")
+    void shouldReturnErrorStatus() throws Exception {
+        startServer(exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+        FetchedPage page = fetcher.get(baseUrl() + "/missing", Duration.ofSeconds(5));
+
+        assertThat(page.status()).isEqualTo(404);
+        assertThat(page.isSuccess()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should truncate body above max-body-bytes")
+    void shouldTruncateLargeBody() throws Exception {
+        byte[] body = "a".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        startServer(exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+            exchange.close();
+        });
+
+        LeadFinderProperties properties = new LeadFinderProperties();
+        properties.getHttp().setMaxBodyBytes(1024);
+        PageFetcher fetcher = new PageFetcher(properties);
+
+        FetchedPage page = fetcher.get(baseUrl() + "/big", Duration.ofSeconds(5));
+
+        assertThat(page.body()).hasSize(1024);
+    }
+
+    @Test
+    @DisplayName("should give up on a body that trickles in past the timeout")
+    void shouldEnforceTotalReadDeadline() throws Exception {
+        startServer(exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream os = exchange.getResponseBody()) {
+                for (int i = 0; i < 50; i++) {
+                    os.write('a');
+                    os.flush();
+                    Thread.sleep(100);
+                }
+            } catch (IOException | InterruptedException e) {
+                // klient zerwał połączenie po timeoucie
+            }
+            exchange.close();
+        });
+
+        PageFetcher fetcher = new PageFetcher(new LeadFinderProperties());
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> fetcher.get(baseUrl() + "/slow", Duration.ofMillis(500)))
+                .isInstanceOf(HttpTimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    private static byte[] gzip(String text) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private void startServer(HttpHandler handler) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", handler);
+        server.start();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledMailTemplateTest {
+
+    private static final String TEMPLATE = """
+            Guten Tag,
+
+            Anfrage an {{EMAIL}} – Äpfel & Kürbis <Saison>.
+
+            {{UNSUBSCRIBE_URL}}
+            """;
+
+    @Test
+    @DisplayName("should render the same text as replacing each placeholder")
+    void shouldRenderLikeStringReplace() {
+        String expected = TEMPLATE
+                .replace("{{EMAIL}}", "info@hof.de")
+                .replace("{{UNSUBSCRIBE_URL}}", "https://o1jobs.de/unsubscribe/abc");
+
+        assertThat(CompiledMailTemplate.compile(TEMPLATE).render("info@hof.de", "https://o1jobs.de/unsubscribe/abc"))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("should render the HTML variant like escaping the rendered text")
+    void shouldRenderHtmlLikeEscapingRenderedText() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile(TEMPLATE);
+        String url = "https://o1jobs.de/unsubscribe?a=1&b=2";
+
+        assertThat(template.renderHtml("info@hof.de", url))
+                .isEqualTo(CompiledMailTemplate.escapeHtml(template.render("info@hof.de", url)))
+                .contains("Äpfel &amp; Kürbis &lt;Saison&gt;.<br>\n")
+                .contains("a=1&amp;b=2");
+    }
+
+    @Test
+    @DisplayName("should keep unknown placeholders and render missing values as empty")
+    void shouldKeepUnknownPlaceholders() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile("{{NAME}} {{ {{EMAIL}}|{{UNSUBSCRIBE_URL}}");
+
+        assertThat(template.render(null, null)).isEqualTo("{{NAME}} {{ |");
+        assertThat(template.source()).isEqualTo("{{NAME}} {{ {{EMAIL}}|{{UNSUBSCRIBE_URL}}");
+    }
+}
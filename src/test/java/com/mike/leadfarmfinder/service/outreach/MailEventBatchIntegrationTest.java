@@ -0,0 +1,167 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.repository.FarmLeadRepository;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventBatchProcessingService;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "leadfinder.rabbit.batch-listener-enabled=true")
+@ActiveProfiles("test")
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MailEventBatchIntegrationTest {
+
+    @Container
+    static final RabbitMQContainer RABBIT =
+            new RabbitMQContainer("rabbitmq:3.13-management")
+                    .withVhost("/")
+                    .withUser("guest", "guest");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("leadfarmfinder")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.rabbitmq.host", RABBIT::getHost);
+        registry.add("spring.rabbitmq.port", RABBIT::getAmqpPort);
+        registry.add("spring.rabbitmq.username", () -> "guest");
+        registry.add("spring.rabbitmq.password", () -> "guest");
+        registry.add("spring.rabbitmq.virtual-host", () -> "/");
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private RabbitAdmin rabbitAdmin;
+
+    @Autowired
+    private FarmLeadRepository repository;
+
+    @Autowired
+    private MailEventBatchProcessingService batchProcessingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private JavaMailSender javaMailSender;
+
+    @BeforeEach
+    void cleanUp() {
+        repository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_mail_events");
+        rabbitAdmin.purgeQueue("outreach.event.queue", true);
+        rabbitAdmin.purgeQueue("outreach.event.retry.queue", true);
+        rabbitAdmin.purgeQueue("outreach.event.dlq", true);
+    }
+
+    @Test
+    void shouldApplyBurstOfEventsThroughBatchListener() {
+        for (int i = 0; i < 20; i++) {
+            repository.save(lead("batch" + i + "@farm-example.de"));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            MailEventMessage message = MailEventMessage.builder()
+                    .eventType(i % 2 == 0 ? MailEventType.DELIVERY : MailEventType.COMPLAINT)
+                    .leadEmail("batch" + i + "@farm-example.de")
+                    .sesMessageId("batch-ses-" + i)
+                    .build();
+            rabbitTemplate.convertAndSend("outreach.events.exchange", "outreach.event", message);
+        }
+
+        await().atMost(10, SECONDS).untilAsserted(() -> {
+            FarmLead delivered = repository.findByEmailIgnoreCase("batch0@farm-example.de").orElseThrow();
+            FarmLead complained = repository.findByEmailIgnoreCase("batch19@farm-example.de").orElseThrow();
+            assertEquals("DELIVERED", delivered.getLastDeliveryStatus());
+            assertTrue(delivered.isActive());
+            assertEquals("COMPLAINT", complained.getBounceType());
+            assertFalse(complained.isActive());
+            assertEquals(20, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_mail_events", Integer.class));
+        });
+    }
+
+    @Test
+    void shouldSkipDuplicateSesMessageIds() {
+        FarmLead saved = repository.save(lead("dup@farm-example.de"));
+
+        MailEventMessage softBounce = MailEventMessage.builder()
+                .eventType(MailEventType.BOUNCE)
+                .bounceType("Transient")
+                .diagnosticCode("451 4.2.0 Mailbox temporarily unavailable")
+                .leadId(String.valueOf(saved.getId()))
+                .sesMessageId("dup-ses-1")
+                .build();
+
+        assertEquals(1, batchProcessingService.processBatch(List.of(softBounce, softBounce)));
+
+        // redelivery tej samej paczki (np. retry) nie zmienia już leada
+        FarmLead afterFirst = repository.findById(saved.getId()).orElseThrow();
+        afterFirst.setBounce(false);
+        repository.save(afterFirst);
+
+        assertEquals(0, batchProcessingService.processBatch(List.of(softBounce)));
+        assertFalse(repository.findById(saved.getId()).orElseThrow().isBounce());
+
+        // inny typ eventu dla tego samego maila to nie duplikat
+        MailEventMessage complaint = MailEventMessage.builder()
+                .eventType(MailEventType.COMPLAINT)
+                .leadId(String.valueOf(saved.getId()))
+                .sesMessageId("dup-ses-1")
+                .build();
+        assertEquals(1, batchProcessingService.processBatch(List.of(complaint)));
+        assertEquals("COMPLAINT", repository.findById(saved.getId()).orElseThrow().getBounceType());
+    }
+
+    @Test
+    void shouldPurgeOnlyProcessedEventsOlderThanRetention() {
+        jdbcTemplate.update("INSERT INTO processed_mail_events (ses_message_id, event_type, processed_at) "
+                + "VALUES ('old-ses', 'DELIVERY', now() - interval '400 days')");
+        jdbcTemplate.update("INSERT INTO processed_mail_events (ses_message_id, event_type) VALUES ('new-ses', 'DELIVERY')");
+
+        batchProcessingService.purgeProcessedEvents();
+
+        assertEquals(List.of("new-ses"),
+                jdbcTemplate.queryForList("SELECT ses_message_id FROM processed_mail_events", String.class));
+    }
+
+    private static FarmLead lead(String email) {
+        FarmLead lead = new FarmLead();
+        lead.setEmail(email);
+        lead.setActive(true);
+        lead.setBounce(false);
+        return lead;
+    }
+}
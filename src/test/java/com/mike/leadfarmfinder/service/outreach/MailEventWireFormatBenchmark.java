@@ -0,0 +1,74 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties.WireFormat;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Przepustowość {@link MailEventMessageConverter} w formacie JSON vs binarnym: serializacja przy publikacji
+ * i odczyt w listenerze, bez brokera. Rozmiar ciał na prawdziwym RabbitMQ sprawdza
+ * {@link MailEventWireFormatIntegrationTest}.
+ * <p>
+ * Uruchomienie: {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mike.leadfarmfinder.service.outreach.MailEventWireFormatBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailEventWireFormatBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public WireFormat wireFormat;
+
+    private MailEventMessageConverter converter;
+    private MailEventMessage event;
+    private Message message;
+
+    @Setup
+    public void prepare() {
+        converter = new MailEventMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule()), wireFormat);
+        // BOUNCE — najdłuższy event (bounceType, diagnosticCode)
+        event = MailEventWireFormatIntegrationTest.event(0);
+        message = converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message publish() {
+        return converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object consume() {
+        return converter.fromMessage(message);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MailEventWireFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
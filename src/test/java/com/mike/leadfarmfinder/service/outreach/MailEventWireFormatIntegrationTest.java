@@ -0,0 +1,128 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties.WireFormat;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessageConverter;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON vs binarny format {@link MailEventMessage} na prawdziwym brokerze: rozmiar ciał wiadomości w kolejce
+ * i odczyt po obu stronach. Przepustowość konwertera mierzy {@link MailEventWireFormatBenchmark}.
+ */
+@Slf4j
+@Testcontainers
+class MailEventWireFormatIntegrationTest {
+
+    private static final String QUEUE = "wire-format.test.queue";
+    private static final int EVENTS = 2_000;
+
+    @Container
+    static final RabbitMQContainer RABBIT =
+            new RabbitMQContainer("rabbitmq:3.13-management")
+                    .withVhost("/")
+                    .withUser("guest", "guest");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static CachingConnectionFactory connectionFactory;
+    private static RabbitAdmin rabbitAdmin;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new CachingConnectionFactory(RABBIT.getHost(), RABBIT.getAmqpPort());
+        connectionFactory.setUsername("guest");
+        connectionFactory.setPassword("guest");
+        rabbitAdmin = new RabbitAdmin(connectionFactory);
+        rabbitAdmin.declareQueue(new Queue(QUEUE, false));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void purge() {
+        rabbitAdmin.purgeQueue(QUEUE, false);
+    }
+
+    @Test
+    void binaryFormatShouldBeSmallerAndReadBack() {
+        long json = queuedBytes(WireFormat.JSON);
+        long binary = queuedBytes(WireFormat.BINARY);
+
+        log.info("MailEventWireFormatIntegrationTest: {} events, JSON {} B, BINARY {} B", EVENTS, json, binary);
+
+        assertTrue(binary < json * 0.7, "binary " + binary + " B vs JSON " + json + " B");
+    }
+
+    @Test
+    void binaryConsumerShouldReadJsonLeftInQueue() {
+        RabbitTemplate jsonProducer = template(WireFormat.JSON);
+        RabbitTemplate binaryConsumer = template(WireFormat.BINARY);
+        MailEventMessage event = event(1);
+
+        jsonProducer.convertAndSend("", QUEUE, event);
+
+        assertEquals(event, binaryConsumer.receiveAndConvert(QUEUE, 5_000));
+    }
+
+    private long queuedBytes(WireFormat wireFormat) {
+        RabbitTemplate template = template(wireFormat);
+
+        for (int i = 0; i < EVENTS; i++) {
+            template.convertAndSend("", QUEUE, event(i));
+        }
+
+        long bytes = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            Message message = template.receive(QUEUE, 5_000);
+            assertNotNull(message, wireFormat + ": message " + i + " not received");
+            bytes += message.getBody().length;
+            MailEventMessage received = (MailEventMessage) template.getMessageConverter().fromMessage(message);
+            assertEquals(event(i), received);
+        }
+
+        return bytes;
+    }
+
+    private static RabbitTemplate template(WireFormat wireFormat) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(new MailEventMessageConverter(OBJECT_MAPPER, wireFormat));
+        return template;
+    }
+
+    static MailEventMessage event(int i) {
+        return MailEventMessage.builder()
+                .eventType(i % 3 == 0 ? MailEventType.BOUNCE : MailEventType.DELIVERY)
+                .leadId(String.valueOf(10_000 + i))
+                .leadEmail("lead" + i + "@farm-example.de")
+                .emailType("FIRST")
+                .sesMessageId("0107019a2f4c18a6-4b0b6a1e-7d2c-4e9f-8a51-" + String.format("%012d", i) + "-000000")
+                .bounceType(i % 3 == 0 ? "Permanent" : null)
+                .bounceSubType(i % 3 == 0 ? "General" : null)
+                .diagnosticCode(i % 3 == 0 ? "smtp; 550 5.1.1 User unknown in virtual mailbox table" : null)
+                .rawPayload(null)
+                .occurredAt(LocalDateTime.of(2026, 10, 16, 7, 41, 12).plusSeconds(i))
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code String.replace} per zmienna (+ escape HTML całej treści) vs {@link CompiledMailTemplate}.
+ * Spadek alokacji widać w kolumnie {@code gc.alloc.rate.norm} (B/op) z {@link GCProfiler}.
+ * <p>
+ * Uruchomienie: {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mike.leadfarmfinder.service.outreach.MailTemplateRenderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateRenderBenchmark {
+
+    private static final String TEMPLATE = """
+            Guten Tag,
+
+            wir vermitteln aktuell polnische Saisonkräfte für die Ernte
+            (Kürbis, Äpfel, Weintrauben, Kartoffeln), kurzfristig verfügbar.
+
+            Bei Bedarf einfach kurz melden.
+
+            Viele Grüße
+            Patrycja, o1jobs
+            +49 160 6328144 · www.o1jobs.de
+
+            {{UNSUBSCRIBE_URL}}
+            """;
+
+    private static final String EMAIL = "info@obsthof-mueller.de";
+    private static final String UNSUBSCRIBE_URL = "https://leadfarmfinder.onrender.com/unsubscribe/3f9c2a7e-1b4d-4c8a-9e51-d2f0a6b7c813";
+
+    private CompiledMailTemplate compiled;
+
+    @Setup
+    public void compile() {
+        compiled = CompiledMailTemplate.compile(TEMPLATE);
+    }
+
+    @Benchmark
+    public String replaceText() {
+        return replaceRender(TEMPLATE, vars());
+    }
+
+    @Benchmark
+    public String compiledText() {
+        return compiled.render(EMAIL, UNSUBSCRIBE_URL);
+    }
+
+    @Benchmark
+    public String replaceHtml() {
+        return replaceRender(TEMPLATE, vars())
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\n", "<br>\n");
+    }
+
+    @Benchmark
+    public String compiledHtml() {
+        return compiled.renderHtml(EMAIL, UNSUBSCRIBE_URL);
+    }
+
+    // poprzednia implementacja DefaultMailComposer.renderTemplate
+    private static String replaceRender(String template, Map<String, String> variables) {
+        String result = template;
+        for (var entry : variables.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            String value = entry.getValue() != null ? entry.getValue() : "";
+            result = result.replace(placeholder, value);
+        }
+        return result;
+    }
+
+    private static Map<String, String> vars() {
+        Map<String, String> vars = new HashMap<>();
+        vars.put("EMAIL", EMAIL);
+        vars.put("UNSUBSCRIBE_URL", UNSUBSCRIBE_URL);
+        return vars;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MailTemplateRenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
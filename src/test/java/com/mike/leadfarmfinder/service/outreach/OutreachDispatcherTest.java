@@ -0,0 +1,145 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.EmailProperties;
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import com.mike.leadfarmfinder.entity.FarmLead;
+import com.mike.leadfarmfinder.service.OutreachService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutreachDispatcherTest {
+
+    @Mock
+    private OutreachService outreachService;
+
+    @Mock
+    private OutreachRateLimiter outreachRateLimiter;
+
+    private OutreachProperties outreachProperties;
+    private OutreachDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outreachProperties = new OutreachProperties();
+        dispatcher = new OutreachDispatcher(outreachService, outreachProperties, outreachRateLimiter);
+    }
+
+    @Test
+    @DisplayName("should send a batch on parallel workers instead of one by one")
+    void shouldSendInParallel() {
+        outreachProperties.getDispatch().setWorkers(4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(outreachService).sendFirstEmail(any(FarmLead.class));
+
+        long start = System.nanoTime();
+        OutreachDispatcher.DispatchResult result = dispatcher.dispatch(leads(8), EmailType.FIRST);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        assertThat(result).isEqualTo(new OutreachDispatcher.DispatchResult(8, 0));
+        assertThat(maxInFlight.get()).isEqualTo(4);
+        assertThat(elapsedMillis).isLessThan(700L);
+    }
+
+    @Test
+    @DisplayName("should count a failing send and keep sending the rest")
+    void shouldCountFailuresAndContinue() {
+        List<FarmLead> leads = leads(3);
+        doAnswer(invocation -> {
+            if (invocation.<FarmLead>getArgument(0).getId() == 2L) {
+                throw new IllegalStateException("smtp down");
+            }
+            return null;
+        }).when(outreachService).sendFollowUpEmail(any(FarmLead.class));
+
+        OutreachDispatcher.DispatchResult result = dispatcher.dispatch(leads, EmailType.FOLLOW_UP);
+
+        assertThat(result).isEqualTo(new OutreachDispatcher.DispatchResult(2, 1));
+        verify(outreachService, times(3)).sendFollowUpEmail(any(FarmLead.class));
+        verify(outreachService, never()).sendFirstEmail(any(FarmLead.class));
+    }
+
+    @Test
+    @DisplayName("should hand first emails to bulk send in chunks of the provider batch size")
+    void shouldChunkFirstEmailsForBulkSend() {
+        when(outreachService.firstEmailBatchSize()).thenReturn(50);
+
+        OutreachDispatcher.DispatchResult result = dispatcher.dispatch(leads(120), EmailType.FIRST);
+
+        assertThat(result).isEqualTo(new OutreachDispatcher.DispatchResult(120, 0));
+        ArgumentCaptor<List<FarmLead>> chunks = ArgumentCaptor.captor();
+        verify(outreachService, times(3)).sendFirstEmails(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactlyInAnyOrder(50, 50, 20);
+        verify(outreachService, never()).sendFirstEmail(any(FarmLead.class));
+    }
+
+    @Test
+    @DisplayName("should keep workers busy with unthrottled recipients while a throttled domain waits for its tokens")
+    void shouldNotBlockWorkersOnThrottledDomain() {
+        outreachProperties.getDispatch().setWorkers(2);
+        outreachProperties.getDispatch().getDomainRatePerSecond().put("t-online.de", 4.0);
+        OutreachRateLimiter limiter = new OutreachRateLimiter(outreachProperties,
+                new EmailProperties("ses", false, EmailProperties.MxUnknownPolicy.ALLOW, 2000L, Set.of("de")));
+        dispatcher = new OutreachDispatcher(outreachService, outreachProperties, limiter);
+
+        Map<String, Long> sentAtMillis = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        doAnswer(invocation -> {
+            Thread.sleep(20);
+            sentAtMillis.put(invocation.<FarmLead>getArgument(0).getEmail(), (System.nanoTime() - start) / 1_000_000L);
+            return null;
+        }).when(outreachService).sendFollowUpEmail(any(FarmLead.class));
+
+        // t-online na początku paczki: przy blokującym limicie oba workery spałyby na ich tokenach
+        List<FarmLead> leads = Stream.concat(
+                        LongStream.rangeClosed(1, 3).mapToObj(id -> lead(id, "hof" + id + "@t-online.de")),
+                        LongStream.rangeClosed(4, 13).mapToObj(id -> lead(id, "info" + id + "@hof.de")))
+                .toList();
+
+        OutreachDispatcher.DispatchResult result = dispatcher.dispatch(leads, EmailType.FOLLOW_UP);
+
+        assertThat(result).isEqualTo(new OutreachDispatcher.DispatchResult(13, 0));
+        // 10 leadów hof.de na 2 workerach po ~20 ms, zanim drugi t-online dostanie token po 250 ms
+        assertThat(LongStream.rangeClosed(4, 13).map(id -> sentAtMillis.get("info" + id + "@hof.de")).max().orElseThrow())
+                .isLessThan(230L);
+        assertThat(sentAtMillis.get("hof3@t-online.de") - sentAtMillis.get("hof2@t-online.de")).isGreaterThanOrEqualTo(200L);
+        assertThat(sentAtMillis.get("hof2@t-online.de") - sentAtMillis.get("hof1@t-online.de")).isGreaterThanOrEqualTo(200L);
+    }
+
+    private static FarmLead lead(long id, String email) {
+        return FarmLead.builder().id(id).email(email).build();
+    }
+
+    private static List<FarmLead> leads(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> FarmLead.builder().id(id).email("lead" + id + "@hof.de").build())
+                .toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.EmailProperties;
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutreachRateLimiterTest {
+
+    private OutreachProperties outreachProperties;
+
+    @BeforeEach
+    void setUp() {
+        outreachProperties = new OutreachProperties();
+    }
+
+    @Test
+    @DisplayName("token bucket should allow the burst at once and then pace at the configured rate")
+    void tokenBucketShouldPaceAfterBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 2);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            bucket.acquire();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        // 2 z burstu + 4 po 50 ms
+        assertThat(elapsedMillis).isBetween(180L, 1_000L);
+    }
+
+    @Test
+    @DisplayName("token bucket should reject a non-positive rate")
+    void tokenBucketShouldRejectNonPositiveRate() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should throttle only the configured recipient domain without blocking the caller")
+    void shouldThrottleConfiguredDomainOnly() {
+        outreachProperties.getDispatch().getDomainRatePerSecond().put("T-Online.de", 10.0);
+        OutreachRateLimiter limiter = new OutreachRateLimiter(outreachProperties, emailProperties("ses"));
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquireDomain("info" + i + "@hof.de")).isZero();
+        }
+        assertThat(limiter.tryAcquireDomain("hof1@t-online.de")).isZero();
+        // następny token t-online za ~100 ms
+        assertThat(limiter.tryAcquireDomain("hof2@T-Online.de"))
+                .isPositive()
+                .isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("should derive provider rate from delay-between-emails-millis when no provider rate is configured")
+    void shouldFallBackToDelayForProviderRate() throws InterruptedException {
+        outreachProperties.setDelayBetweenEmailsMillis(100);
+        OutreachRateLimiter limiter = new OutreachRateLimiter(outreachProperties, emailProperties("smtp"));
+
+        long elapsed = timeMillis(() -> {
+            for (int i = 0; i < 3; i++) {
+                limiter.acquireProvider();
+            }
+        });
+
+        assertThat(elapsed).isGreaterThanOrEqualTo(180L);
+    }
+
+    @Test
+    @DisplayName("should report the provider burst only when the provider is limited")
+    void shouldExposeProviderBurst() {
+        outreachProperties.getDispatch().setProviderBurst(5);
+        outreachProperties.getDispatch().getDomainRatePerSecond().put("t-online.de", 0.05);
+
+        outreachProperties.setDelayBetweenEmailsMillis(0);
+        assertThat(new OutreachRateLimiter(outreachProperties, emailProperties("ses")).providerBurst()).isEqualTo(Integer.MAX_VALUE);
+
+        outreachProperties.setDelayBetweenEmailsMillis(15_000);
+        assertThat(new OutreachRateLimiter(outreachProperties, emailProperties("ses")).providerBurst()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should keep domain buckets at their own capacity when the provider burst is raised")
+    void shouldNotApplyProviderBurstToDomains() {
+        outreachProperties.getDispatch().setProviderBurst(50);
+        outreachProperties.getDispatch().getDomainRatePerSecond().put("t-online.de", 0.05);
+        OutreachRateLimiter limiter = new OutreachRateLimiter(outreachProperties, emailProperties("ses"));
+
+        assertThat(limiter.tryAcquireDomain("hof1@t-online.de")).isZero();
+        assertThat(limiter.tryAcquireDomain("hof2@t-online.de")).isPositive();
+    }
+
+    private static EmailProperties emailProperties(String provider) {
+        return new EmailProperties(provider, false, EmailProperties.MxUnknownPolicy.ALLOW, 2000L, Set.of("de"));
+    }
+
+    private static long timeMillis(ThrowingRunnable runnable) throws InterruptedException {
+        long start = System.nanoTime();
+        runnable.run();
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.AwsSesProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.model.BulkEmailEntryResult;
+import software.amazon.awssdk.services.sesv2.model.BulkEmailStatus;
+import software.amazon.awssdk.services.sesv2.model.CreateEmailTemplateRequest;
+import software.amazon.awssdk.services.sesv2.model.SendBulkEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendBulkEmailResponse;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SesBulkMailSenderGatewayTest {
+
+    private static final String FROM = "Patrycja <patrycja@office.o1jobs.de>";
+    private static final String SUBJECT = "Erntehelfer";
+    private static final String TEMPLATE = "Hallo,\n{{EMAIL}}\nAbmelden: {{UNSUBSCRIBE_URL}}";
+
+    @Mock
+    private SesV2Client sesV2Client;
+
+    @Mock
+    private SesMailSenderGateway singleSender;
+
+    private SesBulkMailSenderGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new SesBulkMailSenderGateway(
+                sesV2Client,
+                new AwsSesProperties("eu-central-1", "outreach"),
+                singleSender,
+                new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("should split recipients into SendBulkEmail calls of at most 50 and register the template once")
+    void shouldChunkRecipientsAndRegisterTemplateOnce() {
+        when(sesV2Client.sendBulkEmail(any(SendBulkEmailRequest.class)))
+                .thenAnswer(invocation -> successFor(invocation.<SendBulkEmailRequest>getArgument(0)));
+
+        List<SendResult> results = gateway.sendBulk(firstMails(120));
+
+        assertThat(results).hasSize(120).allMatch(SendResult::sent);
+
+        ArgumentCaptor<SendBulkEmailRequest> requests = ArgumentCaptor.forClass(SendBulkEmailRequest.class);
+        verify(sesV2Client, times(3)).sendBulkEmail(requests.capture());
+        assertThat(requests.getAllValues())
+                .extracting(request -> request.bulkEmailEntries().size())
+                .containsExactly(50, 50, 20);
+
+        SendBulkEmailRequest first = requests.getAllValues().get(0);
+        assertThat(first.configurationSetName()).isEqualTo("outreach");
+        assertThat(first.defaultContent().template().templateName())
+                .isEqualTo(SesBulkMailSenderGateway.templateName(new SesBulkMailSenderGateway.BulkKey(FROM, SUBJECT, TEMPLATE, "FIRST")));
+        assertThat(first.bulkEmailEntries().get(0).replacementEmailContent().replacementTemplate().replacementTemplateData())
+                .contains("\"EMAIL\":\"lead0@hof.de\"")
+                .contains("\"UNSUBSCRIBE_URL\":\"https://o1jobs.de/unsubscribe?t=0\"");
+
+        verify(sesV2Client, times(1)).createEmailTemplate(any(CreateEmailTemplateRequest.class));
+        verify(singleSender, never()).send(any(PreparedMail.class));
+    }
+
+    @Test
+    @DisplayName("should register placeholders as triple-stash so SES does not HTML-escape the unsubscribe URL")
+    void shouldRegisterUnescapedPlaceholders() {
+        when(sesV2Client.sendBulkEmail(any(SendBulkEmailRequest.class)))
+                .thenAnswer(invocation -> successFor(invocation.<SendBulkEmailRequest>getArgument(0)));
+
+        gateway.sendBulk(firstMails(2));
+
+        ArgumentCaptor<CreateEmailTemplateRequest> template = ArgumentCaptor.forClass(CreateEmailTemplateRequest.class);
+        verify(sesV2Client).createEmailTemplate(template.capture());
+        assertThat(template.getValue().templateContent().text())
+                .isEqualTo("Hallo,\n{{{EMAIL}}}\nAbmelden: {{{UNSUBSCRIBE_URL}}}");
+    }
+
+    @Test
+    @DisplayName("should map each bulk entry status back to its mail")
+    void shouldMapEntryResultsPerRecipient() {
+        when(sesV2Client.sendBulkEmail(any(SendBulkEmailRequest.class))).thenReturn(SendBulkEmailResponse.builder()
+                .bulkEmailEntryResults(
+                        BulkEmailEntryResult.builder().status(BulkEmailStatus.SUCCESS).messageId("m-0").build(),
+                        BulkEmailEntryResult.builder().status(BulkEmailStatus.MESSAGE_REJECTED).error("rejected").build())
+                .build());
+
+        List<SendResult> results = gateway.sendBulk(firstMails(2));
+
+        assertThat(results).containsExactly(
+                new SendResult(true, false, "m-0"),
+                new SendResult(false, false));
+    }
+
+    @Test
+    @DisplayName("should send mails without a body template through the single SendEmail gateway")
+    void shouldFallBackToSingleSendWithoutTemplate() {
+        PreparedMail followUp = new PreparedMail(FROM, "lead@hof.de", "Re: " + SUBJECT, "<p>Hallo</p>",
+                null, 7L, "FOLLOW_UP");
+        when(singleSender.send(followUp)).thenReturn(new SendResult(true, false, "m-7"));
+
+        List<SendResult> results = gateway.sendBulk(List.of(followUp));
+
+        assertThat(results).containsExactly(new SendResult(true, false, "m-7"));
+        verify(sesV2Client, never()).sendBulkEmail(any(SendBulkEmailRequest.class));
+    }
+
+    private static List<PreparedMail> firstMails(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new PreparedMail(
+                        FROM,
+                        "lead" + i + "@hof.de",
+                        SUBJECT,
+                        TEMPLATE.replace("{{EMAIL}}", "lead" + i + "@hof.de"),
+                        "https://o1jobs.de/unsubscribe?t=" + i,
+                        (long) i,
+                        "FIRST",
+                        CompiledMailTemplate.compile(TEMPLATE)))
+                .toList();
+    }
+
+    private static SendBulkEmailResponse successFor(SendBulkEmailRequest request) {
+        return SendBulkEmailResponse.builder()
+                .bulkEmailEntryResults(request.bulkEmailEntries().stream()
+                        .map(entry -> BulkEmailEntryResult.builder()
+                                .status(BulkEmailStatus.SUCCESS)
+                                .messageId("m-" + entry.destination().toAddresses().get(0))
+                                .build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.mike.leadfarmfinder.service.outreach;
+
+import com.mike.leadfarmfinder.config.OutreachProperties;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmtpTransportPoolTest {
+
+    private final List<Transport> opened = new ArrayList<>();
+    private OutreachProperties.SmtpPool config;
+
+    @BeforeEach
+    void setUp() {
+        config = new OutreachProperties.SmtpPool();
+        config.setEnabled(true);
+        config.setSize(2);
+        config.setMaxMessagesPerSession(3);
+        config.setMaxIdleSeconds(60);
+    }
+
+    @Test
+    @DisplayName("should send several messages over one session and recycle it after the per-session limit")
+    void shouldReuseSessionUntilLimit() throws Exception {
+        SmtpTransportPool pool = new SmtpTransportPool(this::connect, config);
+
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("lead" + i + "@hof.de"));
+        }
+
+        assertThat(opened).hasSize(2);
+        verify(opened.get(0), times(3)).sendMessage(any(MimeMessage.class), any(Address[].class));
+        verify(opened.get(0)).close();
+        verify(opened.get(1), times(2)).sendMessage(any(MimeMessage.class), any(Address[].class));
+
+        SmtpTransportPool.Stats stats = pool.stats();
+        assertThat(stats.sessionsOpened()).isEqualTo(2);
+        assertThat(stats.messagesSent()).isEqualTo(5);
+        assertThat(stats.messagesOnReusedSession()).isEqualTo(3);
+        assertThat(stats.idleSessions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should drop a session after a send error and open a fresh one for the next message")
+    void shouldRecycleSessionOnError() throws Exception {
+        SmtpTransportPool pool = new SmtpTransportPool(() -> {
+            Transport transport = connect();
+            if (opened.size() == 1) {
+                doThrow(new MessagingException("421 closing connection"))
+                        .when(transport).sendMessage(any(MimeMessage.class), any(Address[].class));
+            }
+            return transport;
+        }, config);
+
+        assertThatThrownBy(() -> pool.send(message("lead1@hof.de")))
+                .isInstanceOf(MailSendException.class)
+                .hasCauseInstanceOf(MessagingException.class);
+        pool.send(message("lead2@hof.de"));
+
+        assertThat(opened).hasSize(2);
+        verify(opened.get(0)).close();
+        assertThat(pool.stats().sendErrors()).isEqualTo(1);
+        assertThat(pool.stats().messagesSent()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should not reuse a session the server has already disconnected")
+    void shouldReplaceDisconnectedSession() throws Exception {
+        SmtpTransportPool pool = new SmtpTransportPool(this::connect, config);
+
+        pool.send(message("lead1@hof.de"));
+        when(opened.get(0).isConnected()).thenReturn(false);
+        pool.send(message("lead2@hof.de"));
+
+        assertThat(opened).hasSize(2);
+        verify(opened.get(0)).close();
+    }
+
+    private Transport connect() {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        opened.add(transport);
+        return transport;
+    }
+
+    private static MimeMessage message(String to) throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setFrom(new InternetAddress("office@o1jobs.de"));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("Test");
+        message.setText("Hallo");
+        return message;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mike.leadfarmfinder.service.outreach.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties.WireFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailEventMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final MailEventMessageConverter binary = new MailEventMessageConverter(objectMapper, WireFormat.BINARY);
+    private final MailEventMessageConverter json = new MailEventMessageConverter(objectMapper, WireFormat.JSON);
+
+    @Test
+    @DisplayName("should round-trip every field through the binary format")
+    void shouldRoundTripBinary() {
+        MailEventMessage event = fullEvent();
+
+        Message message = binary.toMessage(event, new MessageProperties());
+
+        assertThat(message.getMessageProperties().getContentType())
+                .isEqualTo(MailEventMessageConverter.BINARY_CONTENT_TYPE);
+        assertThat(message.getBody()[2]).isEqualTo(MailEventMessageConverter.SCHEMA_VERSION);
+        assertThat(binary.fromMessage(message)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("should keep null fields null in the binary format")
+    void shouldRoundTripSparseEvent() {
+        MailEventMessage event = MailEventMessage.builder()
+                .eventType(MailEventType.DELIVERY)
+                .sesMessageId("ses-1")
+                .build();
+
+        Message message = binary.toMessage(event, new MessageProperties());
+
+        assertThat(binary.fromMessage(message)).isEqualTo(event);
+        assertThat(message.getBody().length).isLessThan(16);
+    }
+
+    @Test
+    @DisplayName("should still read JSON messages already in the queues when writing binary")
+    void shouldReadJsonWhenWritingBinary() {
+        MailEventMessage event = fullEvent();
+
+        Message legacy = json.toMessage(event, new MessageProperties());
+
+        assertThat(legacy.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(binary.fromMessage(legacy)).isEqualTo(event);
+        assertThat(json.fromMessage(binary.toMessage(event, new MessageProperties()))).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("should reject an unknown schema version")
+    void shouldRejectUnknownSchemaVersion() {
+        byte[] body = MailEventMessageConverter.encode(fullEvent());
+        body[2] = 99;
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MailEventMessageConverter.BINARY_CONTENT_TYPE);
+
+        assertThatThrownBy(() -> binary.fromMessage(new Message(body, properties)))
+                .isInstanceOf(MessageConversionException.class)
+                .hasMessageContaining("schema version 99");
+    }
+
+    @Test
+    @DisplayName("should reject a truncated binary message")
+    void shouldRejectTruncatedMessage() {
+        byte[] body = MailEventMessageConverter.encode(fullEvent());
+        byte[] truncated = Arrays.copyOf(body, body.length / 2);
+
+        assertThatThrownBy(() -> MailEventMessageConverter.decode(truncated))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    private static MailEventMessage fullEvent() {
+        return MailEventMessage.builder()
+                .eventType(MailEventType.BOUNCE)
+                .leadId("4711")
+                .leadEmail("info@obsthof-müller.de")
+                .emailType("FIRST")
+                .sesMessageId("0107019a2f4c18a6-4b0b6a1e-7d2c-4e9f-8a51-3b6f7c2d9e10-000000")
+                .bounceType("Permanent")
+                .bounceSubType("General")
+                .diagnosticCode("smtp; 550 5.1.1 User unknown")
+                .status("5.1.1")
+                .action("failed")
+                .rawPayload("{\"Type\":\"Notification\"}")
+                .occurredAt(LocalDateTime.of(2026, 10, 16, 7, 41, 12, 334_000_000))
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.mike.leadfarmfinder.service.outreach.event;
+
+import com.mike.leadfarmfinder.config.LeadFinderRabbitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailEventPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private ConnectionFactory connectionFactory;
+    private LeadFinderRabbitProperties properties;
+    private MailEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        connectionFactory = mock(ConnectionFactory.class);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+
+        properties = new LeadFinderRabbitProperties();
+        properties.setOutreachEventsExchange("outreach.events.exchange");
+        properties.setOutreachEventsRoutingKey("outreach.event");
+        properties.setConfirmedPublishEnabled(true);
+        properties.setPublishLingerMs(300L);
+        properties.setPublishMaxBatchSize(10);
+        properties.setPublishConfirmTimeoutMs(2_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("should send concurrent publishes from the linger window as one batch and wait for their confirms")
+    void shouldBatchConcurrentPublishes() throws InterruptedException {
+        confirmWith(true);
+        publisher = started();
+
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            MailEventMessage message = event("ses-" + i);
+            callers.add(Thread.ofVirtual().start(() -> publisher.publish(message)));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(rabbitTemplate, times(5)).convertAndSend(
+                eq("outreach.events.exchange"), eq("outreach.event"), any(Object.class), any(CorrelationData.class));
+
+        MailEventPublisher.Stats stats = publisher.stats();
+        assertThat(stats.batching()).isTrue();
+        assertThat(stats.published()).isEqualTo(5);
+        assertThat(stats.confirmed()).isEqualTo(5);
+        assertThat(stats.batches()).isEqualTo(1);
+        assertThat(stats.avgBatchSize()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("should surface a broker nack to the caller")
+    void shouldThrowOnNack() {
+        confirmWith(false);
+        publisher = started();
+
+        assertThatThrownBy(() -> publisher.publish(event("ses-nack")))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("nacked");
+        assertThat(publisher.stats().nacked()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fail the caller when the broker does not confirm in time")
+    void shouldThrowOnConfirmTimeout() {
+        properties.setPublishLingerMs(0L);
+        properties.setPublishConfirmTimeoutMs(100L);
+        publisher = started();
+
+        assertThatThrownBy(() -> publisher.publish(event("ses-lost")))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(publisher.stats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should count a timed out publish once even when its confirm fails later")
+    void shouldCountLateConfirmFailureOnce() {
+        properties.setPublishLingerMs(0L);
+        properties.setPublishConfirmTimeoutMs(100L);
+        List<CorrelationData> correlations = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> correlations.add(invocation.getArgument(3)))
+                .when(rabbitTemplate).convertAndSend(any(String.class), any(String.class), any(Object.class), any(CorrelationData.class));
+        publisher = started();
+
+        assertThatThrownBy(() -> publisher.publish(event("ses-late")))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("Timed out");
+        correlations.getFirst().getFuture().completeExceptionally(new IllegalStateException("channel closed"));
+
+        MailEventPublisher.Stats stats = publisher.stats();
+        assertThat(stats.published()).isEqualTo(1);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.confirmed()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not publish an event whose caller timed out before the worker drained the queue")
+    void shouldSkipTimedOutPublishInBatch() {
+        confirmWith(true);
+        properties.setPublishLingerMs(300L);
+        properties.setPublishConfirmTimeoutMs(100L);
+        publisher = started();
+        MailEventMessage timedOut = event("ses-timed-out");
+        MailEventMessage next = event("ses-next");
+
+        // worker jeszcze zbiera paczkę w oknie linger, gdy wołający dostaje timeout
+        assertThatThrownBy(() -> publisher.publish(timedOut))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("Timed out");
+        properties.setPublishConfirmTimeoutMs(2_000L);
+        publisher.publish(next);
+
+        verify(rabbitTemplate, times(1)).convertAndSend(
+                eq("outreach.events.exchange"), eq("outreach.event"), any(Object.class), any(CorrelationData.class));
+        verify(rabbitTemplate).convertAndSend(
+                eq("outreach.events.exchange"), eq("outreach.event"), eq(next), any(CorrelationData.class));
+        MailEventPublisher.Stats stats = publisher.stats();
+        assertThat(stats.published()).isEqualTo(1);
+        assertThat(stats.confirmed()).isEqualTo(1);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.avgBatchSize()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should publish directly without confirms when confirmed publishing is disabled")
+    void shouldPublishDirectlyWhenDisabled() {
+        properties.setConfirmedPublishEnabled(false);
+        publisher = started();
+        MailEventMessage message = event("ses-plain");
+
+        publisher.publish(message);
+
+        verify(rabbitTemplate).convertAndSend("outreach.events.exchange", "outreach.event", message);
+        verify(rabbitTemplate, never()).invoke(any());
+        assertThat(publisher.stats().batching()).isFalse();
+        assertThat(publisher.stats().published()).isEqualTo(1);
+    }
+
+    private MailEventPublisher started() {
+        MailEventPublisher started = new MailEventPublisher(rabbitTemplate, properties);
+        started.start();
+        return started;
+    }
+
+    private void confirmWith(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(any(String.class), any(String.class), any(Object.class), any(CorrelationData.class));
+    }
+
+    private static MailEventMessage event(String sesMessageId) {
+        return MailEventMessage.builder()
+                .eventType(MailEventType.DELIVERY)
+                .leadEmail("hof@farm-example.de")
+                .sesMessageId(sesMessageId)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderProperties.RawPayloadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drzewo {@code JsonNode} (poprzednia implementacja) vs {@link SesEventExtractor} na przechwyconych
+ * eventach SES ({@code src/test/resources/ses}). Alokacje: {@code gc.alloc.rate.norm} z {@link GCProfiler}.
+ * <p>
+ * Uruchomienie: {@code mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.mike.leadfarmfinder.service.ses.SesEventParseBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SesEventParseBenchmark {
+
+    @Param({"bounce-event.json", "delivery-event.json"})
+    public String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String json;
+
+    @Setup
+    public void load() throws IOException {
+        try (InputStream in = SesEventParseBenchmark.class.getResourceAsStream("/ses/" + payload)) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void tree(Blackhole blackhole) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        JsonNode mail = root.path("mail");
+        JsonNode bounce = root.path("bounce");
+        blackhole.consume(root.path("eventType").asText());
+        blackhole.consume(mail.path("messageId").asText());
+        blackhole.consume(mail.path("destination").path(0).asText());
+        blackhole.consume(mail.path("tags").path("leadId").path(0).asText());
+        blackhole.consume(mail.path("tags").path("emailType").path(0).asText());
+        blackhole.consume(bounce.path("bounceType").asText());
+        blackhole.consume(bounce.path("bounceSubType").asText());
+        blackhole.consume(bounce.path("bouncedRecipients").path(0).path("diagnosticCode").asText());
+    }
+
+    @Benchmark
+    public SesEventExtractor.Fields streaming() throws IOException {
+        return SesEventExtractor.extract(objectMapper.getFactory(), json);
+    }
+
+    // koszt trybu GZIP w stosunku do wysłania pełnego payloadu do RabbitMQ
+    @Benchmark
+    public String gzipRawPayload() {
+        return RawPayloadCodec.encode(RawPayloadMode.GZIP, json);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SesEventParseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -1,6 +1,7 @@
 package com.mike.leadfarmfinder.service.ses;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventPublisher;
 import com.mike.leadfarmfinder.service.outreach.event.MailEventType;
@@ -8,6 +9,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -21,7 +26,7 @@ class SesSnsEventProcessorTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         publisher = mock(MailEventPublisher.class);
-        processor = new SesSnsEventProcessor(objectMapper, publisher);
+        processor = new SesSnsEventProcessor(objectMapper, publisher, new LeadFinderProperties());
     }
 
     @Test
@@ -111,4 +116,59 @@ class SesSnsEventProcessorTest {
                 processor.processSesEvent(json, json)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldExtractFieldsFromCapturedBouncePayload() throws IOException {
+        String json = resource("/ses/bounce-event.json");
+
+        MailEventMessage event = processor.toMailEvent(json, json);
+
+        assertEquals(MailEventType.BOUNCE, event.getEventType());
+        assertEquals("4711", event.getLeadId());
+        assertEquals("FIRST", event.getEmailType());
+        assertEquals("info@obsthof-mueller.de", event.getLeadEmail());
+        assertEquals("0107019a2f4c18a6-4b0b6a1e-7d2c-4e9f-8a51-3b6f7c2d9e10-000000", event.getSesMessageId());
+        assertEquals("Permanent", event.getBounceType());
+        assertEquals("General", event.getBounceSubType());
+        assertTrue(event.getDiagnosticCode().startsWith("smtp; 550 5.1.1"));
+        assertEquals(json, event.getRawPayload());
+    }
+
+    @Test
+    void shouldStoreCompressedRawPayloadWhenConfigured() throws IOException {
+        LeadFinderProperties properties = new LeadFinderProperties();
+        properties.getSesEvents().setRawPayload(LeadFinderProperties.RawPayloadMode.GZIP);
+        SesSnsEventProcessor gzipProcessor = new SesSnsEventProcessor(objectMapper, publisher, properties);
+        String json = resource("/ses/delivery-event.json");
+
+        MailEventMessage event = gzipProcessor.toMailEvent(json, json);
+
+        assertEquals(MailEventType.DELIVERY, event.getEventType());
+        assertEquals("5120", event.getLeadId());
+        assertTrue(event.getRawPayload().startsWith("gzip:"));
+        assertTrue(event.getRawPayload().length() < json.length());
+        assertEquals(json, RawPayloadCodec.decode(event.getRawPayload()));
+    }
+
+    @Test
+    void shouldDropRawPayloadWhenDisabled() {
+        LeadFinderProperties properties = new LeadFinderProperties();
+        properties.getSesEvents().setRawPayload(LeadFinderProperties.RawPayloadMode.NONE);
+        SesSnsEventProcessor noPayloadProcessor = new SesSnsEventProcessor(objectMapper, publisher, properties);
+        String json = """
+                {"notificationType": "Complaint", "mail": {"messageId": "ses-9", "destination": ["a@farm.com"]}}
+                """;
+
+        MailEventMessage event = noPayloadProcessor.toMailEvent(json, json);
+
+        assertEquals(MailEventType.COMPLAINT, event.getEventType());
+        assertEquals("a@farm.com", event.getLeadEmail());
+        assertNull(event.getRawPayload());
+    }
+
+    private static String resource(String path) throws IOException {
+        try (InputStream in = SesSnsEventProcessorTest.class.getResourceAsStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.leadfarmfinder.config.LeadFinderProperties;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventMessage;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventPublisher;
+import com.mike.leadfarmfinder.service.outreach.event.MailEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SesWebhookForwarderTest {
+
+    private static final String NOTIFICATION =
+            "{\"Type\":\"Notification\",\"Message\":\"{\\\"eventType\\\":\\\"Delivery\\\"}\"}";
+
+    @TempDir
+    Path dir;
+
+    private SesWebhookLog webhookLog;
+    private SesSnsEventProcessor processor;
+    private MailEventPublisher publisher;
+    private SesWebhookForwarder forwarder;
+
+    @BeforeEach
+    void setUp() {
+        webhookLog = new SesWebhookLog(dir, 4096, 1 << 20, false);
+        processor = mock(SesSnsEventProcessor.class);
+        publisher = mock(MailEventPublisher.class);
+        when(processor.toMailEvent(anyString(), anyString())).thenReturn(MailEventMessage.builder()
+                .eventType(MailEventType.DELIVERY)
+                .sesMessageId("ses-1")
+                .build());
+
+        LeadFinderProperties properties = new LeadFinderProperties();
+        properties.getSesWebhookLog().setMaxRetryBackoffMs(50);
+        forwarder = new SesWebhookForwarder(webhookLog, processor, publisher, new ObjectMapper(), properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        forwarder.stop();
+        webhookLog.close();
+    }
+
+    @Test
+    @DisplayName("should publish logged notifications with confirms and move the checkpoint after them")
+    void shouldForwardAndCommit() throws Exception {
+        webhookLog.append(NOTIFICATION);
+        webhookLog.append(NOTIFICATION);
+
+        forwarder.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> webhookLog.stats().forwarded() == 2);
+        verify(publisher).publishAllConfirmed(eq(List.of(event(), event())), any(Duration.class));
+        verify(processor, atLeast(2)).toMailEvent("{\"eventType\":\"Delivery\"}", NOTIFICATION);
+        assertThat(webhookLog.read(webhookLog.committed(), 10).payloads()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should keep the checkpoint and retry the same batch while the broker is failing")
+    void shouldRetryUntilBrokerConfirms() throws Exception {
+        doThrow(new AmqpException("broker down"))
+                .doThrow(new AmqpException("broker down"))
+                .doNothing()
+                .when(publisher).publishAllConfirmed(anyList(), any(Duration.class));
+        webhookLog.append(NOTIFICATION);
+        SesWebhookLog.Position before = webhookLog.committed();
+
+        forwarder.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> webhookLog.stats().forwarded() == 1);
+        verify(publisher, atLeast(3)).publishAllConfirmed(anyList(), any(Duration.class));
+        assertThat(webhookLog.committed()).isNotEqualTo(before);
+    }
+
+    private static MailEventMessage event() {
+        return MailEventMessage.builder()
+                .eventType(MailEventType.DELIVERY)
+                .sesMessageId("ses-1")
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.mike.leadfarmfinder.service.ses;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SesWebhookLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadAppendedPayloadsInOrderWithoutMovingCheckpoint() throws IOException {
+        try (SesWebhookLog webhookLog = new SesWebhookLog(dir, 4096, 1 << 20, true)) {
+            webhookLog.append("{\"n\":1}");
+            webhookLog.append("{\"n\":2,\"text\":\"Kürbis\"}");
+
+            SesWebhookLog.Batch batch = webhookLog.read(webhookLog.committed(), 10);
+            SesWebhookLog.Batch again = webhookLog.read(webhookLog.committed(), 10);
+
+            assertThat(batch.payloads()).containsExactly("{\"n\":1}", "{\"n\":2,\"text\":\"Kürbis\"}");
+            assertThat(again.payloads()).isEqualTo(batch.payloads());
+        }
+    }
+
+    @Test
+    void shouldReplayOnlyUncommittedPayloadsAfterRestart() throws IOException {
+        try (SesWebhookLog webhookLog = new SesWebhookLog(dir, 4096, 1 << 20, true)) {
+            webhookLog.append("first");
+            webhookLog.append("second");
+            SesWebhookLog.Batch forwarded = webhookLog.read(webhookLog.committed(), 1);
+            webhookLog.commit(forwarded.end(), forwarded.payloads().size());
+        }
+
+        try (SesWebhookLog reopened = new SesWebhookLog(dir, 4096, 1 << 20, true)) {
+            reopened.append("third");
+
+            SesWebhookLog.Batch replay = reopened.read(reopened.committed(), 10);
+
+            assertThat(replay.payloads()).containsExactly("second", "third");
+        }
+    }
+
+    @Test
+    void shouldRollSegmentsAndDeleteThemOnceCommitted() throws IOException {
+        try (SesWebhookLog webhookLog = new SesWebhookLog(dir, 64, 1 << 20, false)) {
+            for (int i = 0; i < 10; i++) {
+                webhookLog.append("payload-" + i + "-xxxxxxxxxx");
+            }
+            assertThat(segmentFiles()).isGreaterThan(3);
+
+            SesWebhookLog.Batch batch = webhookLog.read(webhookLog.committed(), 100);
+            assertThat(batch.payloads()).hasSize(10).startsWith("payload-0-xxxxxxxxxx").endsWith("payload-9-xxxxxxxxxx");
+
+            webhookLog.commit(batch.end(), batch.payloads().size());
+
+            assertThat(segmentFiles()).isEqualTo(1);
+            assertThat(webhookLog.read(webhookLog.committed(), 100).payloads()).isEmpty();
+            assertThat(webhookLog.stats().forwarded()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    void shouldRejectPayloadLargerThanSegment() throws IOException {
+        try (SesWebhookLog webhookLog = new SesWebhookLog(dir, 64, 1 << 20, false)) {
+            assertThatThrownBy(() -> webhookLog.append("x".repeat(100)))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void shouldRejectAppendOnceUnforwardedSegmentsReachMaxBytes() throws IOException {
+        try (SesWebhookLog webhookLog = new SesWebhookLog(dir, 64, 128, false)) {
+            webhookLog.append("payload-0-xxxxxxxxxx");
+            webhookLog.append("payload-1-xxxxxxxxxx");
+            webhookLog.append("payload-2-xxxxxxxxxx");
+            webhookLog.append("payload-3-xxxxxxxxxx");
+
+            assertThatThrownBy(() -> webhookLog.append("payload-4-xxxxxxxxxx"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("full");
+
+            SesWebhookLog.Batch batch = webhookLog.read(webhookLog.committed(), 100);
+            webhookLog.commit(batch.end(), batch.payloads().size());
+
+            webhookLog.append("payload-4-xxxxxxxxxx");
+            assertThat(webhookLog.read(webhookLog.committed(), 100).payloads()).containsExactly("payload-4-xxxxxxxxxx");
+        }
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+}